@@ -0,0 +1,9 @@
+-- Adds the persisted Morton (Z-order) code used for proximity lookups.
+-- Existing rows are left NULL and filled in by com.civicpulse.job.GeoCellBackfillJob;
+-- duplicate detection still finds them in the meantime.
+USE civicpulse;
+
+ALTER TABLE issues
+    ADD COLUMN geo_cell BIGINT NULL COMMENT 'Morton (Z-order) code of location, see GeoUtil.mortonCode'
+        AFTER location_lng,
+    ADD INDEX idx_category_status_geo (category, status, geo_cell);
@@ -0,0 +1,17 @@
+-- Cluster-wide issue ID sequences, leased in blocks by IssueIdGenerator.
+USE civicpulse;
+
+CREATE TABLE IF NOT EXISTS issue_id_sequences (
+    category_code CHAR(2) NOT NULL,
+    seq_date CHAR(8) NOT NULL,
+    next_value INT NOT NULL,
+    PRIMARY KEY (category_code, seq_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Seed today's counters past any IDs already issued so leased blocks cannot collide
+INSERT INTO issue_id_sequences (category_code, seq_date, next_value)
+SELECT SUBSTRING(issue_id, 7, 2), SUBSTRING(issue_id, 10, 8), MAX(CAST(SUBSTRING(issue_id, 19) AS UNSIGNED))
+FROM issues
+WHERE issue_id LIKE 'CIVIC-__-________-%'
+GROUP BY SUBSTRING(issue_id, 7, 2), SUBSTRING(issue_id, 10, 8)
+ON DUPLICATE KEY UPDATE next_value = GREATEST(next_value, VALUES(next_value));
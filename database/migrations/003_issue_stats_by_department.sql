@@ -0,0 +1,12 @@
+-- Break issue_stats down by department so AnalyticsEngine can seed its counters from it.
+USE civicpulse;
+
+CREATE OR REPLACE VIEW issue_stats AS
+SELECT 
+    category,
+    status,
+    dept_id,
+    COUNT(*) as count,
+    AVG(report_count) as avg_reports
+FROM issues
+GROUP BY category, status, dept_id;
@@ -0,0 +1,22 @@
+-- Time-series rollups for trend analytics. RollupService back-fills them from
+-- issue_timeline on first start, starting from watermark 0.
+USE civicpulse;
+
+-- Hourly/daily issue event counts folded from issue_timeline (see RollupService).
+-- bucket_start is UTC epoch seconds; dept_id 0 means unassigned.
+CREATE TABLE IF NOT EXISTS issue_rollups (
+    bucket_size ENUM('HOUR', 'DAY') NOT NULL,
+    bucket_start BIGINT NOT NULL,
+    category ENUM('ROAD', 'WATER', 'SANITATION', 'ELECTRICITY') NOT NULL,
+    dept_id INT NOT NULL DEFAULT 0,
+    reported INT NOT NULL DEFAULT 0,
+    assigned INT NOT NULL DEFAULT 0,
+    resolved INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (bucket_size, bucket_start, category, dept_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Progress markers for background jobs (last folded timeline_id, compaction lock)
+CREATE TABLE IF NOT EXISTS rollup_watermarks (
+    name VARCHAR(50) PRIMARY KEY,
+    last_value BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,16 @@
+-- Mergeable resolution-time sketches for the SLA report. SlaTracker back-fills
+-- history once (guarded by the sla_backfill row in rollup_watermarks).
+USE civicpulse;
+
+-- Per-node daily duration sketches (QuantileSketch blobs) behind the SLA report.
+-- window_start is UTC midnight in epoch seconds; dept_id 0 means unassigned.
+CREATE TABLE IF NOT EXISTS resolution_sketches (
+    node_id VARCHAR(64) NOT NULL,
+    window_start BIGINT NOT NULL,
+    metric ENUM('ASSIGN', 'RESOLVE') NOT NULL,
+    category ENUM('ROAD', 'WATER', 'SANITATION', 'ELECTRICITY') NOT NULL,
+    dept_id INT NOT NULL DEFAULT 0,
+    sketch VARBINARY(16384) NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (window_start, metric, category, dept_id, node_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,13 @@
+-- Cross-node serialization of duplicate detection. IssueService locks the rows
+-- for every grid cell a report's duplicate search covers before it looks for
+-- a match, so concurrent reports of the same incident merge instead of each
+-- creating a new issue.
+USE civicpulse;
+
+-- lock_key is CATEGORY:row:col; node_id and last_created_at (epoch millis)
+-- record the last issue created there ('*' once several nodes have)
+CREATE TABLE IF NOT EXISTS dedupe_locks (
+    lock_key VARCHAR(64) PRIMARY KEY,
+    node_id VARCHAR(64) NOT NULL DEFAULT '',
+    last_created_at BIGINT NOT NULL DEFAULT 0
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
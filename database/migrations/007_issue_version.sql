@@ -0,0 +1,8 @@
+-- Optimistic version for status and department changes. IssueService moves an
+-- issue with one conditional UPDATE (matching version and allowed prior status)
+-- instead of rewriting the whole row, so concurrent report_count increments
+-- are no longer overwritten.
+USE civicpulse;
+
+ALTER TABLE issues
+    ADD COLUMN version INT NOT NULL DEFAULT 0 AFTER resolved_at;
@@ -6,6 +6,11 @@ CREATE DATABASE IF NOT EXISTS civicpulse CHARACTER SET utf8mb4 COLLATE utf8mb4_u
 USE civicpulse;
 
 -- Drop existing tables (for clean setup)
+DROP TABLE IF EXISTS dedupe_locks;
+DROP TABLE IF EXISTS resolution_sketches;
+DROP TABLE IF EXISTS rollup_watermarks;
+DROP TABLE IF EXISTS issue_rollups;
+DROP TABLE IF EXISTS issue_id_sequences;
 DROP TABLE IF EXISTS issue_timeline;
 DROP TABLE IF EXISTS citizen_issue_map;
 DROP TABLE IF EXISTS issues;
@@ -46,6 +51,7 @@ CREATE TABLE issues (
     category ENUM('ROAD', 'WATER', 'SANITATION', 'ELECTRICITY') NOT NULL,
     location_lat DECIMAL(10, 8) NOT NULL,
     location_lng DECIMAL(11, 8) NOT NULL,
+    geo_cell BIGINT NULL COMMENT 'Morton (Z-order) code of location, see GeoUtil.mortonCode',
     address TEXT NOT NULL,
     description TEXT NOT NULL,
     status ENUM('REPORTED', 'ASSIGNED', 'IN_PROGRESS', 'RESOLVED') DEFAULT 'REPORTED',
@@ -55,12 +61,17 @@ CREATE TABLE issues (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     resolved_at TIMESTAMP NULL,
+    version INT NOT NULL DEFAULT 0 COMMENT 'Bumped by every status/department change',
     FOREIGN KEY (dept_id) REFERENCES departments(dept_id) ON DELETE SET NULL,
     INDEX idx_category (category),
     INDEX idx_status (status),
     INDEX idx_location (location_lat, location_lng),
-    INDEX idx_created_at (created_at),
-    INDEX idx_category_status (category, status)
+    INDEX idx_created_at (created_at, issue_id),
+    INDEX idx_category_status (category, status),
+    INDEX idx_category_status_geo (category, status, geo_cell),
+    INDEX idx_status_created (status, created_at, issue_id),
+    INDEX idx_category_created (category, created_at, issue_id),
+    INDEX idx_dept_created (dept_id, created_at, issue_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- Citizen Issue Mapping Table
@@ -72,7 +83,7 @@ CREATE TABLE citizen_issue_map (
     FOREIGN KEY (citizen_id) REFERENCES users(user_id) ON DELETE CASCADE,
     FOREIGN KEY (issue_id) REFERENCES issues(issue_id) ON DELETE CASCADE,
     UNIQUE KEY unique_citizen_issue (citizen_id, issue_id),
-    INDEX idx_citizen (citizen_id),
+    INDEX idx_citizen_reported (citizen_id, reported_at),
     INDEX idx_issue (issue_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
@@ -91,6 +102,55 @@ CREATE TABLE issue_timeline (
     INDEX idx_created_at (created_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- Issue ID Sequence Table (hi/lo block leases per category and day)
+CREATE TABLE issue_id_sequences (
+    category_code CHAR(2) NOT NULL,
+    seq_date CHAR(8) NOT NULL,
+    next_value INT NOT NULL,
+    PRIMARY KEY (category_code, seq_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Hourly/daily issue event counts folded from issue_timeline (see RollupService).
+-- bucket_start is UTC epoch seconds; dept_id 0 means unassigned.
+CREATE TABLE issue_rollups (
+    bucket_size ENUM('HOUR', 'DAY') NOT NULL,
+    bucket_start BIGINT NOT NULL,
+    category ENUM('ROAD', 'WATER', 'SANITATION', 'ELECTRICITY') NOT NULL,
+    dept_id INT NOT NULL DEFAULT 0,
+    reported INT NOT NULL DEFAULT 0,
+    assigned INT NOT NULL DEFAULT 0,
+    resolved INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (bucket_size, bucket_start, category, dept_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Progress markers for background jobs (last folded timeline_id, compaction lock)
+CREATE TABLE rollup_watermarks (
+    name VARCHAR(50) PRIMARY KEY,
+    last_value BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Per-node daily duration sketches (QuantileSketch blobs) behind the SLA report.
+-- window_start is UTC midnight in epoch seconds; dept_id 0 means unassigned.
+CREATE TABLE resolution_sketches (
+    node_id VARCHAR(64) NOT NULL,
+    window_start BIGINT NOT NULL,
+    metric ENUM('ASSIGN', 'RESOLVE') NOT NULL,
+    category ENUM('ROAD', 'WATER', 'SANITATION', 'ELECTRICITY') NOT NULL,
+    dept_id INT NOT NULL DEFAULT 0,
+    sketch VARBINARY(16384) NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (window_start, metric, category, dept_id, node_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Row locks serializing duplicate detection per (category, grid cell) across nodes.
+-- lock_key is CATEGORY:row:col; node_id and last_created_at (epoch millis)
+-- record the last issue created there ('*' once several nodes have).
+CREATE TABLE dedupe_locks (
+    lock_key VARCHAR(64) PRIMARY KEY,
+    node_id VARCHAR(64) NOT NULL DEFAULT '',
+    last_created_at BIGINT NOT NULL DEFAULT 0
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 -- Insert Default Departments
 INSERT INTO departments (dept_name, dept_type, contact_email, contact_phone) VALUES
 ('Road Department', 'ROAD', 'road@civicpulse.com', '1800-111-001'),
@@ -119,10 +179,11 @@ CREATE OR REPLACE VIEW issue_stats AS
 SELECT 
     category,
     status,
+    dept_id,
     COUNT(*) as count,
     AVG(report_count) as avg_reports
 FROM issues
-GROUP BY category, status;
+GROUP BY category, status, dept_id;
 
 -- Create view for department performance
 CREATE OR REPLACE VIEW department_performance AS
@@ -4,6 +4,7 @@ import com.civicpulse.util.DatabaseUtil;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class CitizenIssueMapDAO {
@@ -21,6 +22,30 @@ public class CitizenIssueMapDAO {
         }
     }
 
+    /**
+     * Map several citizens to one issue in a single statement, skipping citizens already mapped
+     * @return number of rows inserted
+     */
+    public int createAll(String issueId, List<Integer> citizenIds) throws SQLException {
+        if (citizenIds.isEmpty()) {
+            return 0;
+        }
+        String sql = "INSERT IGNORE INTO citizen_issue_map (citizen_id, issue_id) VALUES " +
+                String.join(",", Collections.nCopies(citizenIds.size(), "(?, ?)"));
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            for (int citizenId : citizenIds) {
+                stmt.setInt(index++, citizenId);
+                stmt.setString(index++, issueId);
+            }
+
+            return stmt.executeUpdate();
+        }
+    }
+
     public List<String> findIssueIdsByCitizen(int citizenId) throws SQLException {
         String sql = "SELECT issue_id FROM citizen_issue_map WHERE citizen_id = ? ORDER BY reported_at DESC";
 
@@ -0,0 +1,78 @@
+package com.civicpulse.dao;
+
+import com.civicpulse.util.DatabaseUtil;
+
+import java.sql.*;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Row locks (dedupe_locks) that serialize duplicate detection for one area
+ * across nodes. Each row also records when an issue was last created in that
+ * area and by which node ("*" once several nodes have), which tells a node
+ * whether its in-memory index already holds every issue there.
+ */
+public class DedupeLockDAO {
+
+    public static final String SHARED_NODE_ID = "*";
+
+    /**
+     * Lock the rows for the keys (creating missing ones). Must run inside a
+     * transaction; the locks are held until it ends. Keys must be sorted so that
+     * concurrent callers lock rows in the same order. Existing rows are locked
+     * exclusively by the upsert itself: INSERT IGNORE would take a shared lock
+     * first, and two callers upgrading shared locks deadlock each other.
+     * @param knownBefore creations before this time (epoch millis) are known to the caller
+     * @return true if every issue created under the keys was created by nodeId or before knownBefore
+     */
+    public boolean lock(List<String> keys, String nodeId, long knownBefore) throws SQLException {
+        String insertSql = "INSERT INTO dedupe_locks (lock_key, node_id, last_created_at) VALUES " +
+                String.join(",", Collections.nCopies(keys.size(), "(?, '', 0)")) +
+                " ON DUPLICATE KEY UPDATE lock_key = lock_key";
+        String selectSql = "SELECT node_id, last_created_at FROM dedupe_locks WHERE lock_key IN (" +
+                String.join(",", Collections.nCopies(keys.size(), "?")) + ") ORDER BY lock_key FOR UPDATE";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement insert = conn.prepareStatement(insertSql);
+                PreparedStatement select = conn.prepareStatement(selectSql)) {
+
+            for (int i = 0; i < keys.size(); i++) {
+                insert.setString(i + 1, keys.get(i));
+                select.setString(i + 1, keys.get(i));
+            }
+            insert.executeUpdate();
+
+            boolean known = true;
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    String creator = rs.getString("node_id");
+                    if (!creator.isEmpty() && !creator.equals(nodeId)
+                            && rs.getLong("last_created_at") >= knownBefore) {
+                        known = false;
+                    }
+                }
+            }
+            return known;
+        }
+    }
+
+    /**
+     * Record an issue creation under the (already locked) keys
+     * @param nodeId creating node, or {@link #SHARED_NODE_ID} if other nodes' recent issues are unknown to it
+     */
+    public void markCreated(List<String> keys, String nodeId, long createdAt) throws SQLException {
+        String sql = "UPDATE dedupe_locks SET node_id = ?, last_created_at = ? WHERE lock_key IN (" +
+                String.join(",", Collections.nCopies(keys.size(), "?")) + ")";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, nodeId);
+            stmt.setLong(2, createdAt);
+            for (int i = 0; i < keys.size(); i++) {
+                stmt.setString(i + 3, keys.get(i));
+            }
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -1,18 +1,35 @@
 package com.civicpulse.dao;
 
 import com.civicpulse.model.Issue;
+import com.civicpulse.model.IssueCount;
+import com.civicpulse.model.IssueFilter;
+import com.civicpulse.model.IssuePage;
 import com.civicpulse.util.DatabaseUtil;
+import com.civicpulse.util.GeoUtil;
+import com.civicpulse.util.PageCursor;
 
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 public class IssueDAO {
 
+    // Upper bound on IN-list size per statement for multi-get queries
+    private static final int MAX_IDS_PER_QUERY = 500;
+
+    // Upper bound on geo_cell ranges probed per proximity lookup
+    private static final int MAX_GEO_RANGES = 16;
+
     public Issue create(Issue issue) throws SQLException {
-        String sql = "INSERT INTO issues (issue_id, category, location_lat, location_lng, address, " +
+        String sql = "INSERT INTO issues (issue_id, category, location_lat, location_lng, geo_cell, address, " +
                 "description, status, report_count, dept_id, image_url) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
         try (Connection conn = DatabaseUtil.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -21,18 +38,19 @@ public class IssueDAO {
             stmt.setString(2, issue.getCategory());
             stmt.setDouble(3, issue.getLocationLat());
             stmt.setDouble(4, issue.getLocationLng());
-            stmt.setString(5, issue.getAddress());
-            stmt.setString(6, issue.getDescription());
-            stmt.setString(7, issue.getStatus());
-            stmt.setInt(8, issue.getReportCount());
+            stmt.setLong(5, GeoUtil.mortonCode(issue.getLocationLat(), issue.getLocationLng()));
+            stmt.setString(6, issue.getAddress());
+            stmt.setString(7, issue.getDescription());
+            stmt.setString(8, issue.getStatus());
+            stmt.setInt(9, issue.getReportCount());
 
             if (issue.getDeptId() != null) {
-                stmt.setInt(9, issue.getDeptId());
+                stmt.setInt(10, issue.getDeptId());
             } else {
-                stmt.setNull(9, Types.INTEGER);
+                stmt.setNull(10, Types.INTEGER);
             }
 
-            stmt.setString(10, issue.getImageUrl());
+            stmt.setString(11, issue.getImageUrl());
 
             stmt.executeUpdate();
 
@@ -58,6 +76,101 @@ public class IssueDAO {
         return null;
     }
 
+    /**
+     * Load many issues in as few round trips as possible (one per 500 IDs).
+     * Results follow the order of the given IDs; unknown IDs are skipped.
+     */
+    public List<Issue> findByIds(Collection<String> issueIds) throws SQLException {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(issueIds));
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<String, Issue> byId = new HashMap<>();
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+                List<String> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size()));
+
+                StringBuilder sql = new StringBuilder("SELECT * FROM issues WHERE issue_id IN (");
+                for (int i = 0; i < chunk.size(); i++) {
+                    sql.append(i == 0 ? "?" : ",?");
+                }
+                sql.append(")");
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setString(i + 1, chunk.get(i));
+                    }
+
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            Issue issue = extractIssueFromResultSet(rs);
+                            byId.put(issue.getIssueId(), issue);
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Issue> issues = new ArrayList<>(byId.size());
+        for (String id : ids) {
+            Issue issue = byId.get(id);
+            if (issue != null) {
+                issues.add(issue);
+            }
+        }
+
+        return issues;
+    }
+
+    /**
+     * Issues a citizen reported or joined, newest first, in one joined query.
+     * Keyset-paged on (reported_at, map_id); pass the previous page's cursor to continue.
+     */
+    public IssuePage findByCitizen(int citizenId, PageCursor cursor, int limit) throws SQLException {
+        StringBuilder sql = new StringBuilder(
+                "SELECT i.*, m.map_id, m.reported_at AS map_reported_at " +
+                "FROM citizen_issue_map m " +
+                "JOIN issues i ON i.issue_id = m.issue_id " +
+                "WHERE m.citizen_id = ? ");
+        if (cursor != null) {
+            sql.append("AND (m.reported_at < ? OR (m.reported_at = ? AND m.map_id < ?)) ");
+        }
+        sql.append("ORDER BY m.reported_at DESC, m.map_id DESC LIMIT ?");
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            int index = 1;
+            stmt.setInt(index++, citizenId);
+            if (cursor != null) {
+                Timestamp reportedAt = new Timestamp(cursor.getTimestamp());
+                stmt.setTimestamp(index++, reportedAt);
+                stmt.setTimestamp(index++, reportedAt);
+                stmt.setInt(index++, Integer.parseInt(cursor.getKey()));
+            }
+            stmt.setInt(index, limit + 1); // one extra row tells us whether another page exists
+
+            List<Issue> issues = new ArrayList<>();
+            PageCursor last = null;
+            boolean hasMore = false;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (issues.size() == limit) {
+                        hasMore = true;
+                        break;
+                    }
+                    issues.add(extractIssueFromResultSet(rs));
+                    last = new PageCursor(rs.getTimestamp("map_reported_at").getTime(),
+                            String.valueOf(rs.getInt("map_id")));
+                }
+            }
+
+            return new IssuePage(issues, hasMore ? last.encode() : null);
+        }
+    }
+
     public List<Issue> findByCategoryAndStatus(String category, List<String> statuses) throws SQLException {
         StringBuilder sql = new StringBuilder("SELECT * FROM issues WHERE category = ? AND status IN (");
         for (int i = 0; i < statuses.size(); i++) {
@@ -87,23 +200,45 @@ public class IssueDAO {
         }
     }
 
+    /**
+     * Open issues of a category inside the bounding box, nearest first.
+     * The box is translated into a few contiguous geo_cell ranges so the lookup is a
+     * handful of tight probes on idx_category_status_geo instead of a latitude-only scan.
+     * Rows not yet backfilled (geo_cell IS NULL) are still considered.
+     */
     public List<Issue> findNearbyIssues(String category, double lat, double lng,
             double minLat, double maxLat,
             double minLng, double maxLng) throws SQLException {
-        String sql = "SELECT * FROM issues WHERE category = ? " +
+        List<long[]> ranges = GeoUtil.mortonRanges(minLat, maxLat, minLng, maxLng, MAX_GEO_RANGES);
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM issues WHERE category = ? " +
                 "AND status IN ('REPORTED', 'ASSIGNED', 'IN_PROGRESS') " +
+                "AND (geo_cell IS NULL");
+        for (int i = 0; i < ranges.size(); i++) {
+            sql.append(" OR geo_cell BETWEEN ? AND ?");
+        }
+        sql.append(") " +
                 "AND location_lat BETWEEN ? AND ? " +
                 "AND location_lng BETWEEN ? AND ? " +
-                "LIMIT 50";
+                "ORDER BY POW(location_lat - ?, 2) + POW((location_lng - ?) * ?, 2), issue_id " +
+                "LIMIT 50");
 
         try (Connection conn = DatabaseUtil.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+                PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
 
-            stmt.setString(1, category);
-            stmt.setDouble(2, minLat);
-            stmt.setDouble(3, maxLat);
-            stmt.setDouble(4, minLng);
-            stmt.setDouble(5, maxLng);
+            int index = 1;
+            stmt.setString(index++, category);
+            for (long[] range : ranges) {
+                stmt.setLong(index++, range[0]);
+                stmt.setLong(index++, range[1]);
+            }
+            stmt.setDouble(index++, minLat);
+            stmt.setDouble(index++, maxLat);
+            stmt.setDouble(index++, minLng);
+            stmt.setDouble(index++, maxLng);
+            stmt.setDouble(index++, lat);
+            stmt.setDouble(index++, lng);
+            stmt.setDouble(index, Math.cos(Math.toRadians(lat)));
 
             List<Issue> issues = new ArrayList<>();
             try (ResultSet rs = stmt.executeQuery()) {
@@ -116,79 +251,315 @@ public class IssueDAO {
         }
     }
 
-    public void update(Issue issue) throws SQLException {
-        String sql = "UPDATE issues SET status = ?, report_count = ?, dept_id = ?, " +
-                "image_url = ?, resolved_at = ? WHERE issue_id = ?";
+    /**
+     * Fill in geo_cell for the next batchSize rows without one, in issue_id order.
+     * Keyset-paged on the primary key, so a full backfill reads the table once
+     * instead of rescanning it from the start for every batch.
+     * @param afterIssueId issue_id the previous batch ended at, or "" for the first batch
+     * @return issue_id this batch ended at, or null once no rows are left
+     */
+    public String backfillGeoCells(String afterIssueId, int batchSize) throws SQLException {
+        String select = "SELECT issue_id, location_lat, location_lng FROM issues " +
+                "WHERE issue_id > ? AND geo_cell IS NULL ORDER BY issue_id LIMIT ?";
+        String update = "UPDATE issues SET geo_cell = ? WHERE issue_id = ? AND geo_cell IS NULL";
+
+        return DatabaseUtil.inTransaction(() -> {
+            try (Connection conn = DatabaseUtil.getConnection();
+                    PreparedStatement selectStmt = conn.prepareStatement(select);
+                    PreparedStatement updateStmt = conn.prepareStatement(update)) {
+
+                selectStmt.setString(1, afterIssueId);
+                selectStmt.setInt(2, batchSize);
+
+                String lastIssueId = null;
+                try (ResultSet rs = selectStmt.executeQuery()) {
+                    while (rs.next()) {
+                        lastIssueId = rs.getString("issue_id");
+                        updateStmt.setLong(1, GeoUtil.mortonCode(
+                                rs.getDouble("location_lat"), rs.getDouble("location_lng")));
+                        updateStmt.setString(2, lastIssueId);
+                        updateStmt.addBatch();
+                    }
+                }
+
+                if (lastIssueId != null) {
+                    updateStmt.executeBatch();
+                }
+                return lastIssueId;
+            }
+        });
+    }
+
+    /**
+     * Stream every non-RESOLVED issue to the handler (used to load in-memory indexes)
+     */
+    public void streamOpenIssues(IssueRowHandler handler) throws SQLException, IOException {
+        String sql = "SELECT * FROM issues WHERE status IN ('REPORTED', 'ASSIGNED', 'IN_PROGRESS')";
 
         try (Connection conn = DatabaseUtil.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+                PreparedStatement stmt = conn.prepareStatement(sql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
 
-            stmt.setString(1, issue.getStatus());
-            stmt.setInt(2, issue.getReportCount());
+            stmt.setFetchSize(Integer.MIN_VALUE);
 
-            if (issue.getDeptId() != null) {
-                stmt.setInt(3, issue.getDeptId());
-            } else {
-                stmt.setNull(3, Types.INTEGER);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(extractIssueFromResultSet(rs));
+                }
             }
+        }
+    }
 
-            stmt.setString(4, issue.getImageUrl());
+    /**
+     * Stream every issue, resolved or not, to the handler (used to seed the heatmap)
+     */
+    public void streamAllIssues(IssueRowHandler handler) throws SQLException, IOException {
+        String sql = "SELECT * FROM issues";
 
-            if (issue.getResolvedAt() != null) {
-                stmt.setTimestamp(5, issue.getResolvedAt());
-            } else {
-                stmt.setNull(5, Types.TIMESTAMP);
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            stmt.setFetchSize(Integer.MIN_VALUE);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(extractIssueFromResultSet(rs));
+                }
             }
+        }
+    }
 
-            stmt.setString(6, issue.getIssueId());
+    /**
+     * Move an issue to a new status in one statement, provided it is still at the
+     * expected version and in one of the allowed prior statuses
+     * @param resolvedAt resolution time to record, or null to leave resolved_at unchanged
+     * @return false if the version or status no longer matched (nothing was changed)
+     */
+    public boolean transitionStatus(String issueId, int expectedVersion, List<String> fromStatuses,
+            String newStatus, Timestamp resolvedAt) throws SQLException {
+        String sql = "UPDATE issues SET status = ?, resolved_at = COALESCE(?, resolved_at), " +
+                "version = version + 1 WHERE issue_id = ? AND version = ? AND status IN (" +
+                String.join(",", Collections.nCopies(fromStatuses.size(), "?")) + ")";
 
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            stmt.setString(index++, newStatus);
+            stmt.setTimestamp(index++, resolvedAt);
+            stmt.setString(index++, issueId);
+            stmt.setInt(index++, expectedVersion);
+            for (String status : fromStatuses) {
+                stmt.setString(index++, status);
+            }
+
+            return stmt.executeUpdate() == 1;
+        }
+    }
+
+    /**
+     * Assign an issue to a department (status ASSIGNED) in one statement, provided it
+     * is still at the expected version and in one of the allowed prior statuses
+     * @return false if the version or status no longer matched (nothing was changed)
+     */
+    public boolean assignDepartment(String issueId, int expectedVersion, List<String> fromStatuses,
+            int deptId) throws SQLException {
+        String sql = "UPDATE issues SET dept_id = ?, status = 'ASSIGNED', version = version + 1 " +
+                "WHERE issue_id = ? AND version = ? AND status IN (" +
+                String.join(",", Collections.nCopies(fromStatuses.size(), "?")) + ")";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            stmt.setInt(index++, deptId);
+            stmt.setString(index++, issueId);
+            stmt.setInt(index++, expectedVersion);
+            for (String status : fromStatuses) {
+                stmt.setString(index++, status);
+            }
+
+            return stmt.executeUpdate() == 1;
+        }
+    }
+
+    /**
+     * Add several merged reports to an issue's count in one statement
+     */
+    public void addReportCount(String issueId, int delta) throws SQLException {
+        String sql = "UPDATE issues SET report_count = report_count + ? WHERE issue_id = ?";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, delta);
+            stmt.setString(2, issueId);
             stmt.executeUpdate();
         }
     }
 
-    public void incrementReportCount(String issueId) throws SQLException {
-        String sql = "UPDATE issues SET report_count = report_count + 1 WHERE issue_id = ?";
+    /**
+     * Share-lock the issue's row if it is still open. Reads the latest committed
+     * status, and a status change by another transaction waits for this one to end.
+     * @return false if the issue is resolved or does not exist
+     */
+    public boolean lockIfOpen(String issueId) throws SQLException {
+        String sql = "SELECT 1 FROM issues WHERE issue_id = ? " +
+                "AND status IN ('REPORTED', 'ASSIGNED', 'IN_PROGRESS') FOR SHARE";
 
         try (Connection conn = DatabaseUtil.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, issueId);
-            stmt.executeUpdate();
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
         }
     }
 
-    public List<Issue> findAll() throws SQLException {
-        String sql = "SELECT * FROM issues ORDER BY created_at DESC";
+    /**
+     * Current report count of an issue, or null if it does not exist
+     */
+    public Integer findReportCount(String issueId) throws SQLException {
+        String sql = "SELECT report_count FROM issues WHERE issue_id = ?";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, issueId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        }
+    }
+
+    /**
+     * Issue counts grouped by status, category and department (issue_stats view)
+     */
+    public List<IssueCount> countByStatusCategoryDepartment() throws SQLException {
+        String sql = "SELECT status, category, dept_id, count FROM issue_stats";
 
         try (Connection conn = DatabaseUtil.getConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
-            List<Issue> issues = new ArrayList<>();
+            List<IssueCount> counts = new ArrayList<>();
             while (rs.next()) {
-                issues.add(extractIssueFromResultSet(rs));
+                int deptId = rs.getInt("dept_id");
+                Integer dept = rs.wasNull() ? null : deptId;
+                counts.add(new IssueCount(
+                        rs.getString("status"),
+                        rs.getString("category"),
+                        dept,
+                        rs.getLong("count")));
             }
 
-            return issues;
+            return counts;
         }
     }
 
-    public List<Issue> findByDepartment(int deptId) throws SQLException {
-        String sql = "SELECT * FROM issues WHERE dept_id = ? ORDER BY created_at DESC";
+    /**
+     * One page of issues matching the filter, newest first.
+     * Keyset-paged on (created_at, issue_id) so every page is an index range scan.
+     */
+    public IssuePage findPage(IssueFilter filter, PageCursor cursor, int limit) throws SQLException {
+        List<Issue> issues = new ArrayList<>();
+        try {
+            String nextCursor = streamPage(filter, cursor, limit, issues::add);
+            return new IssuePage(issues, nextCursor);
+        } catch (IOException e) {
+            // Collecting into a list never performs I/O
+            throw new IllegalStateException(e);
+        }
+    }
 
-        try (Connection conn = DatabaseUtil.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+    /**
+     * Stream issues matching the filter to the handler as rows arrive from MySQL,
+     * without materializing the result set. A limit of 0 streams every match.
+     * @return cursor for the next page, or null if there are no more rows
+     */
+    public String streamPage(IssueFilter filter, PageCursor cursor, int limit, IssueRowHandler handler)
+            throws SQLException, IOException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            return streamPage(conn, filter, cursor, limit, handler);
+        }
+    }
+
+    /**
+     * {@link #streamPage(IssueFilter, PageCursor, int, IssueRowHandler)} on the given connection
+     */
+    public String streamPage(Connection conn, IssueFilter filter, PageCursor cursor, int limit,
+            IssueRowHandler handler) throws SQLException, IOException {
+        StringBuilder sql = new StringBuilder("SELECT * FROM issues WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        appendFilter(sql, params, filter);
+
+        if (cursor != null) {
+            Timestamp createdAt = new Timestamp(cursor.getTimestamp());
+            sql.append(" AND (created_at < ? OR (created_at = ? AND issue_id < ?))");
+            params.add(createdAt);
+            params.add(createdAt);
+            params.add(cursor.getKey());
+        }
+        sql.append(" ORDER BY created_at DESC, issue_id DESC");
+        if (limit > 0) {
+            sql.append(" LIMIT ?");
+            params.add(limit + 1); // one extra row tells us whether another page exists
+        }
 
-            stmt.setInt(1, deptId);
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString(),
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
 
-            List<Issue> issues = new ArrayList<>();
+            // Connector/J streams rows one by one instead of buffering the whole result
+            stmt.setFetchSize(Integer.MIN_VALUE);
+
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+
+            int count = 0;
+            Issue last = null;
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    issues.add(extractIssueFromResultSet(rs));
+                    if (limit > 0 && count == limit) {
+                        return new PageCursor(last.getCreatedAt().getTime(), last.getIssueId()).encode();
+                    }
+                    last = extractIssueFromResultSet(rs);
+                    handler.handle(last);
+                    count++;
                 }
             }
 
-            return issues;
+            return null;
+        }
+    }
+
+    private void appendFilter(StringBuilder sql, List<Object> params, IssueFilter filter) {
+        if (filter == null) {
+            return;
+        }
+        if (filter.getStatus() != null) {
+            sql.append(" AND status = ?");
+            params.add(filter.getStatus());
+        }
+        if (filter.getCategory() != null) {
+            sql.append(" AND category = ?");
+            params.add(filter.getCategory());
+        }
+        if (filter.getDeptId() != null) {
+            sql.append(" AND dept_id = ?");
+            params.add(filter.getDeptId());
+        }
+        if (filter.getCreatedFrom() != null) {
+            sql.append(" AND created_at >= ?");
+            params.add(filter.getCreatedFrom());
+        }
+        if (filter.getCreatedTo() != null) {
+            sql.append(" AND created_at < ?");
+            params.add(filter.getCreatedTo());
         }
     }
 
@@ -212,6 +583,7 @@ public class IssueDAO {
         issue.setCreatedAt(rs.getTimestamp("created_at"));
         issue.setUpdatedAt(rs.getTimestamp("updated_at"));
         issue.setResolvedAt(rs.getTimestamp("resolved_at"));
+        issue.setVersion(rs.getInt("version"));
 
         return issue;
     }
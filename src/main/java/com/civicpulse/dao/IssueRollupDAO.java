@@ -0,0 +1,187 @@
+package com.civicpulse.dao;
+
+import com.civicpulse.model.TrendPoint;
+import com.civicpulse.util.DatabaseUtil;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class IssueRollupDAO {
+
+    private static final String FOLD_WATERMARK = "timeline_fold";
+    private static final String COMPACTION_LOCK = "hourly_compaction";
+
+    private static final long SECONDS_PER_HOUR = 3600;
+    private static final long SECONDS_PER_DAY = 86400;
+
+    private final WatermarkDAO watermarkDAO = new WatermarkDAO();
+
+    /**
+     * Fold the next batch of timeline entries past the watermark into hourly
+     * rollups and advance the watermark, all in one transaction. The watermark
+     * row is locked for the duration, so nodes running this concurrently take
+     * turns instead of double counting. Entries younger than settleSeconds are
+     * left for a later pass so transactions still in flight are not skipped.
+     * @return number of timeline entries folded (0 when caught up)
+     */
+    public int foldTimeline(int settleSeconds, int batchSize) throws SQLException {
+        return DatabaseUtil.inTransaction(() -> {
+            long watermark = watermarkDAO.lock(FOLD_WATERMARK);
+
+            String batchSql = "SELECT MAX(timeline_id), COUNT(*) FROM (" +
+                    "SELECT timeline_id FROM issue_timeline " +
+                    "WHERE timeline_id > ? AND created_at < NOW() - INTERVAL ? SECOND " +
+                    "ORDER BY timeline_id LIMIT ?) batch";
+
+            long upper;
+            int folded;
+            try (Connection conn = DatabaseUtil.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(batchSql)) {
+
+                stmt.setLong(1, watermark);
+                stmt.setInt(2, settleSeconds);
+                stmt.setInt(3, batchSize);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    upper = rs.getLong(1);
+                    folded = rs.getInt(2);
+                }
+            }
+
+            if (folded == 0) {
+                return 0;
+            }
+
+            // Department is the issue's current one at fold time; the timeline does not record it
+            String foldSql = "INSERT INTO issue_rollups " +
+                    "(bucket_size, bucket_start, category, dept_id, reported, assigned, resolved) " +
+                    "SELECT 'HOUR', UNIX_TIMESTAMP(t.created_at) DIV " + SECONDS_PER_HOUR + " * " +
+                    SECONDS_PER_HOUR + ", i.category, COALESCE(i.dept_id, 0), " +
+                    "SUM(t.status = 'REPORTED'), SUM(t.status = 'ASSIGNED'), SUM(t.status = 'RESOLVED') " +
+                    "FROM issue_timeline t JOIN issues i ON i.issue_id = t.issue_id " +
+                    "WHERE t.timeline_id > ? AND t.timeline_id <= ? " +
+                    "GROUP BY 2, 3, 4 " +
+                    "ON DUPLICATE KEY UPDATE reported = reported + VALUES(reported), " +
+                    "assigned = assigned + VALUES(assigned), resolved = resolved + VALUES(resolved)";
+
+            try (Connection conn = DatabaseUtil.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(foldSql)) {
+
+                stmt.setLong(1, watermark);
+                stmt.setLong(2, upper);
+                stmt.executeUpdate();
+            }
+
+            watermarkDAO.update(FOLD_WATERMARK, upper);
+            return folded;
+        });
+    }
+
+    /**
+     * Merge hourly rollups older than the cutoff into daily rollups and delete them
+     * @param cutoffEpochSeconds start of the first day whose hours are kept (UTC midnight)
+     * @return number of hourly rows compacted
+     */
+    public int compactHourly(long cutoffEpochSeconds) throws SQLException {
+        return DatabaseUtil.inTransaction(() -> {
+            watermarkDAO.lock(COMPACTION_LOCK);
+
+            String mergeSql = "INSERT INTO issue_rollups " +
+                    "(bucket_size, bucket_start, category, dept_id, reported, assigned, resolved) " +
+                    "SELECT 'DAY', bucket_start DIV " + SECONDS_PER_DAY + " * " + SECONDS_PER_DAY +
+                    ", category, dept_id, SUM(reported), SUM(assigned), SUM(resolved) " +
+                    "FROM issue_rollups WHERE bucket_size = 'HOUR' AND bucket_start < ? " +
+                    "GROUP BY 2, 3, 4 " +
+                    "ON DUPLICATE KEY UPDATE reported = reported + VALUES(reported), " +
+                    "assigned = assigned + VALUES(assigned), resolved = resolved + VALUES(resolved)";
+            String deleteSql = "DELETE FROM issue_rollups WHERE bucket_size = 'HOUR' AND bucket_start < ?";
+
+            try (Connection conn = DatabaseUtil.getConnection();
+                    PreparedStatement merge = conn.prepareStatement(mergeSql);
+                    PreparedStatement delete = conn.prepareStatement(deleteSql)) {
+
+                merge.setLong(1, cutoffEpochSeconds);
+                merge.executeUpdate();
+
+                delete.setLong(1, cutoffEpochSeconds);
+                int compacted = delete.executeUpdate();
+
+                watermarkDAO.update(COMPACTION_LOCK, cutoffEpochSeconds);
+                return compacted;
+            }
+        });
+    }
+
+    /**
+     * Event counts per bucket in [fromEpochSeconds, toEpochSeconds).
+     * Daily buckets combine compacted daily rows with the hourly rows not yet
+     * compacted; hourly buckets exist only within the hourly retention window.
+     * @param hourly true for hourly buckets, false for daily
+     * @param category optional category filter
+     * @param deptId optional department filter (0 = unassigned)
+     */
+    public List<TrendPoint> findTrend(boolean hourly, long fromEpochSeconds, long toEpochSeconds,
+            String category, Integer deptId, boolean byCategory, boolean byDepartment) throws SQLException {
+        String bucketExpr = hourly ? "bucket_start"
+                : "bucket_start DIV " + SECONDS_PER_DAY + " * " + SECONDS_PER_DAY;
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(bucketExpr).append(" AS bucket");
+        StringBuilder groupBy = new StringBuilder(" GROUP BY bucket");
+        if (byCategory) {
+            sql.append(", category");
+            groupBy.append(", category");
+        }
+        if (byDepartment) {
+            sql.append(", dept_id");
+            groupBy.append(", dept_id");
+        }
+        sql.append(", SUM(reported) AS reported, SUM(assigned) AS assigned, SUM(resolved) AS resolved ")
+                .append("FROM issue_rollups WHERE bucket_size IN (")
+                .append(hourly ? "'HOUR'" : "'HOUR', 'DAY'")
+                .append(") AND bucket_start >= ? AND bucket_start < ?");
+
+        List<Object> params = new ArrayList<>();
+        params.add(fromEpochSeconds);
+        params.add(toEpochSeconds);
+        if (category != null) {
+            sql.append(" AND category = ?");
+            params.add(category);
+        }
+        if (deptId != null) {
+            sql.append(" AND dept_id = ?");
+            params.add(deptId);
+        }
+        sql.append(groupBy).append(" ORDER BY bucket");
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+
+            List<TrendPoint> points = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    TrendPoint point = new TrendPoint();
+                    point.setBucketStart(rs.getLong("bucket") * 1000L);
+                    if (byCategory) {
+                        point.setCategory(rs.getString("category"));
+                    }
+                    if (byDepartment) {
+                        int dept = rs.getInt("dept_id");
+                        point.setDeptId(dept == 0 ? null : dept);
+                    }
+                    point.setReported(rs.getLong("reported"));
+                    point.setAssigned(rs.getLong("assigned"));
+                    point.setResolved(rs.getLong("resolved"));
+                    points.add(point);
+                }
+            }
+
+            return points;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.civicpulse.dao;
+
+import com.civicpulse.model.Issue;
+
+import java.io.IOException;
+
+/**
+ * Receives issues one at a time as they are read from a streaming result set
+ */
+@FunctionalInterface
+public interface IssueRowHandler {
+    void handle(Issue issue) throws IOException;
+}
@@ -0,0 +1,42 @@
+package com.civicpulse.dao;
+
+import com.civicpulse.util.DatabaseUtil;
+
+import java.sql.*;
+
+public class IssueSequenceDAO {
+
+    /**
+     * Atomically reserve the next blockSize sequence numbers for (category, day).
+     * Runs on its own auto-commit connection so the counter row is locked only
+     * for this one statement, never for a transaction. Must not be called while
+     * the thread holds another pooled connection: with the pool exhausted, every
+     * such thread would wait for a connection that none of them gives back.
+     * @return the highest number in the leased block; the block is (high - blockSize, high]
+     */
+    public long leaseBlock(String categoryCode, String seqDate, int blockSize) throws SQLException {
+        String sql = "INSERT INTO issue_id_sequences (category_code, seq_date, next_value) " +
+                "VALUES (?, ?, LAST_INSERT_ID(?)) " +
+                "ON DUPLICATE KEY UPDATE next_value = LAST_INSERT_ID(next_value + ?)";
+
+        try (Connection conn = DatabaseUtil.getStandaloneConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql);
+                Statement lastIdStmt = conn.createStatement()) {
+
+            stmt.setString(1, categoryCode);
+            stmt.setString(2, seqDate);
+            stmt.setInt(3, blockSize);
+            stmt.setInt(4, blockSize);
+            stmt.executeUpdate();
+
+            // LAST_INSERT_ID(expr) is per connection, so this reads back our own lease
+            try (ResultSet rs = lastIdStmt.executeQuery("SELECT LAST_INSERT_ID()")) {
+                if (rs.next()) {
+                    return rs.getLong(1);
+                }
+            }
+        }
+
+        throw new SQLException("Failed to lease issue ID block for " + categoryCode + "/" + seqDate);
+    }
+}
@@ -1,5 +1,6 @@
 package com.civicpulse.dao;
 
+import com.civicpulse.model.IssueEvent;
 import com.civicpulse.model.IssueTimeline;
 import com.civicpulse.util.DatabaseUtil;
 
@@ -57,6 +58,74 @@ public class IssueTimelineDAO {
         }
     }
 
+    /**
+     * ID of the issue's newest timeline entry, or 0 if it has none; answered from idx_issue alone
+     */
+    public int findLatestId(String issueId) throws SQLException {
+        String sql = "SELECT MAX(timeline_id) FROM issue_timeline WHERE issue_id = ?";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, issueId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Highest timeline entry ID, or 0 if there are none
+     */
+    public long findMaxId() throws SQLException {
+        String sql = "SELECT MAX(timeline_id) FROM issue_timeline";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql);
+                ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Status changes (entries other than REPORTED) with IDs above afterId, in ID order,
+     * with the issue's current department
+     */
+    public List<IssueEvent> findEventsAfter(long afterId, int limit) throws SQLException {
+        String sql = "SELECT t.timeline_id, t.issue_id, t.status, t.remarks, t.created_at, i.dept_id " +
+                "FROM issue_timeline t " +
+                "JOIN issues i ON t.issue_id = i.issue_id " +
+                "WHERE t.timeline_id > ? AND t.status <> 'REPORTED' " +
+                "ORDER BY t.timeline_id " +
+                "LIMIT ?";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, afterId);
+            stmt.setInt(2, limit);
+
+            List<IssueEvent> events = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int deptId = rs.getInt("dept_id");
+                    Integer nullableDeptId = rs.wasNull() ? null : deptId;
+                    Timestamp createdAt = rs.getTimestamp("created_at");
+                    events.add(new IssueEvent(
+                            rs.getLong("timeline_id"),
+                            rs.getString("issue_id"),
+                            rs.getString("status"),
+                            nullableDeptId,
+                            rs.getString("remarks"),
+                            createdAt != null ? createdAt.getTime() : 0));
+                }
+            }
+
+            return events;
+        }
+    }
+
     private IssueTimeline extractTimelineFromResultSet(ResultSet rs) throws SQLException {
         IssueTimeline timeline = new IssueTimeline();
         timeline.setTimelineId(rs.getInt("timeline_id"));
@@ -0,0 +1,32 @@
+package com.civicpulse.dao;
+
+import java.sql.*;
+
+/**
+ * Cluster-wide named locks (MySQL GET_LOCK) for background jobs that must run
+ * on one node at a time but do their work in many short transactions. A lock
+ * belongs to the session that took it, so the job holds that connection for
+ * its whole run and releases the lock on it.
+ */
+public class JobLockDAO {
+
+    /**
+     * Take the lock without waiting
+     * @return false if another session holds it
+     */
+    public boolean tryLock(Connection conn, String name) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            stmt.setString(1, name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    public void unlock(Connection conn, String name) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("DO RELEASE_LOCK(?)")) {
+            stmt.setString(1, name);
+            stmt.executeUpdate();
+        }
+    }
+}
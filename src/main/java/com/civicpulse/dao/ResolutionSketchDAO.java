@@ -0,0 +1,175 @@
+package com.civicpulse.dao;
+
+import com.civicpulse.model.ResolutionSketch;
+import com.civicpulse.util.DatabaseUtil;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ResolutionSketchDAO {
+
+    /**
+     * Callback for one historical duration found by the back-fill scan
+     */
+    @FunctionalInterface
+    public interface DurationHandler {
+        void handle(String metric, String category, Integer deptId, Timestamp start, Timestamp end);
+    }
+
+    /**
+     * Lock the rows of the given sketches exclusively, creating missing ones with an
+     * empty sketch, and return what each row holds. Must run inside a transaction;
+     * the locks are held until it ends. The upsert locks each row exclusively from
+     * the start, so two writers of one row queue instead of deadlocking.
+     */
+    public List<ResolutionSketch> lockAll(List<ResolutionSketch> keys) throws SQLException {
+        String insertSql = "INSERT INTO resolution_sketches " +
+                "(node_id, window_start, metric, category, dept_id, sketch) VALUES (?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE node_id = node_id";
+        String selectSql = "SELECT * FROM resolution_sketches " +
+                "WHERE window_start = ? AND metric = ? AND category = ? AND dept_id = ? AND node_id = ? FOR UPDATE";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement insert = conn.prepareStatement(insertSql);
+                PreparedStatement select = conn.prepareStatement(selectSql)) {
+
+            for (ResolutionSketch key : keys) {
+                insert.setString(1, key.getNodeId());
+                insert.setLong(2, key.getWindowStart());
+                insert.setString(3, key.getMetric());
+                insert.setString(4, key.getCategory());
+                insert.setInt(5, key.getDeptId());
+                insert.setBytes(6, new byte[0]);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+
+            List<ResolutionSketch> stored = new ArrayList<>(keys.size());
+            for (ResolutionSketch key : keys) {
+                select.setLong(1, key.getWindowStart());
+                select.setString(2, key.getMetric());
+                select.setString(3, key.getCategory());
+                select.setInt(4, key.getDeptId());
+                select.setString(5, key.getNodeId());
+                try (ResultSet rs = select.executeQuery()) {
+                    rs.next();
+                    stored.add(extractSketchFromResultSet(rs));
+                }
+            }
+            return stored;
+        }
+    }
+
+    /**
+     * Insert or replace sketches; a node merges its new events into its stored
+     * sketch under {@link #lockAll(List)} before writing it back
+     */
+    public void saveAll(List<ResolutionSketch> sketches) throws SQLException {
+        String sql = "INSERT INTO resolution_sketches " +
+                "(node_id, window_start, metric, category, dept_id, sketch) VALUES (?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE sketch = VALUES(sketch)";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            for (ResolutionSketch sketch : sketches) {
+                stmt.setString(1, sketch.getNodeId());
+                stmt.setLong(2, sketch.getWindowStart());
+                stmt.setString(3, sketch.getMetric());
+                stmt.setString(4, sketch.getCategory());
+                stmt.setInt(5, sketch.getDeptId());
+                stmt.setBytes(6, sketch.getSketch());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Every node's sketches for windows in [fromEpochSeconds, toEpochSeconds)
+     */
+    public List<ResolutionSketch> findByWindow(long fromEpochSeconds, long toEpochSeconds,
+            String category, Integer deptId) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT * FROM resolution_sketches " +
+                "WHERE window_start >= ? AND window_start < ?");
+        if (category != null) {
+            sql.append(" AND category = ?");
+        }
+        if (deptId != null) {
+            sql.append(" AND dept_id = ?");
+        }
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            int index = 1;
+            stmt.setLong(index++, fromEpochSeconds);
+            stmt.setLong(index++, toEpochSeconds);
+            if (category != null) {
+                stmt.setString(index++, category);
+            }
+            if (deptId != null) {
+                stmt.setInt(index, deptId);
+            }
+
+            List<ResolutionSketch> sketches = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sketches.add(extractSketchFromResultSet(rs));
+                }
+            }
+
+            return sketches;
+        }
+    }
+
+    /**
+     * Stream report-to-assignment and report-to-resolution durations recorded before the cutoff
+     * (used once to back-fill sketches from history)
+     */
+    public void forEachHistoricalDuration(Timestamp before, DurationHandler handler) throws SQLException {
+        String assignSql = "SELECT i.category, i.dept_id, i.created_at, MIN(t.created_at) AS assigned_at " +
+                "FROM issues i JOIN issue_timeline t ON t.issue_id = i.issue_id " +
+                "WHERE t.status = 'ASSIGNED' AND t.created_at < ? " +
+                "GROUP BY i.issue_id, i.category, i.dept_id, i.created_at";
+        String resolveSql = "SELECT category, dept_id, created_at, resolved_at FROM issues " +
+                "WHERE status = 'RESOLVED' AND resolved_at IS NOT NULL AND resolved_at < ?";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement assign = conn.prepareStatement(assignSql);
+                PreparedStatement resolve = conn.prepareStatement(resolveSql)) {
+
+            assign.setTimestamp(1, before);
+            try (ResultSet rs = assign.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(ResolutionSketch.METRIC_ASSIGN, rs.getString("category"),
+                            getDeptId(rs), rs.getTimestamp("created_at"), rs.getTimestamp("assigned_at"));
+                }
+            }
+
+            resolve.setTimestamp(1, before);
+            try (ResultSet rs = resolve.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(ResolutionSketch.METRIC_RESOLVE, rs.getString("category"),
+                            getDeptId(rs), rs.getTimestamp("created_at"), rs.getTimestamp("resolved_at"));
+                }
+            }
+        }
+    }
+
+    private ResolutionSketch extractSketchFromResultSet(ResultSet rs) throws SQLException {
+        return new ResolutionSketch(
+                rs.getString("node_id"),
+                rs.getLong("window_start"),
+                rs.getString("metric"),
+                rs.getString("category"),
+                rs.getInt("dept_id"),
+                rs.getBytes("sketch"));
+    }
+
+    private Integer getDeptId(ResultSet rs) throws SQLException {
+        int deptId = rs.getInt("dept_id");
+        return rs.wasNull() ? null : deptId;
+    }
+}
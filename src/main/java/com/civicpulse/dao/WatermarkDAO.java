@@ -0,0 +1,63 @@
+package com.civicpulse.dao;
+
+import com.civicpulse.util.DatabaseUtil;
+
+import java.sql.*;
+
+/**
+ * Named progress markers for background jobs (rollup_watermarks).
+ * Locking a marker inside a transaction also serializes the job across nodes.
+ */
+public class WatermarkDAO {
+
+    /**
+     * Lock the named watermark row (creating it at 0) and return its value.
+     * Must run inside a transaction; the lock is held until it ends. The upsert
+     * locks the row exclusively (INSERT IGNORE would take a shared lock, and two
+     * nodes upgrading shared locks on one row deadlock).
+     */
+    public long lock(String name) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement insert = conn.prepareStatement(
+                        "INSERT INTO rollup_watermarks (name, last_value) VALUES (?, 0) " +
+                        "ON DUPLICATE KEY UPDATE name = name");
+                PreparedStatement select = conn.prepareStatement(
+                        "SELECT last_value FROM rollup_watermarks WHERE name = ? FOR UPDATE")) {
+
+            insert.setString(1, name);
+            insert.executeUpdate();
+
+            select.setString(1, name);
+            try (ResultSet rs = select.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    /**
+     * Current value of the named watermark without locking it, or 0 if it does not exist yet
+     */
+    public long get(String name) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT last_value FROM rollup_watermarks WHERE name = ?")) {
+
+            stmt.setString(1, name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    public void update(String name, long value) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(
+                        "UPDATE rollup_watermarks SET last_value = ? WHERE name = ?")) {
+
+            stmt.setLong(1, value);
+            stmt.setString(2, name);
+            stmt.executeUpdate();
+        }
+    }
+}
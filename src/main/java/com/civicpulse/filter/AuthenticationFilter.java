@@ -0,0 +1,151 @@
+package com.civicpulse.filter;
+
+import com.civicpulse.model.AuthPrincipal;
+import com.civicpulse.util.JWTUtil;
+import com.civicpulse.util.JsonUtil;
+import com.google.gson.Gson;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Verifies the Bearer token once per request, attaches the caller's
+ * {@link AuthPrincipal} to the request and enforces role rules per URL.
+ * Servlets read the principal with {@link #getPrincipal(HttpServletRequest)}.
+ */
+@WebFilter(urlPatterns = "/api/*", asyncSupported = true)
+public class AuthenticationFilter implements Filter {
+
+    private static final Set<String> PUBLIC = Set.of(); // no token required
+    private static final Set<String> ANY_ROLE = Set.of("CITIZEN", "ADMIN", "DEPARTMENT");
+
+    // First matching rule wins; paths are servlet path + path info, relative to the context path
+    private static final List<AccessRule> RULES = List.of(
+            new AccessRule("^/api/auth/.*", PUBLIC, null),
+            new AccessRule("^/api/issues/track/.*", PUBLIC, null),
+            new AccessRule("^/api/issues/heatmap/.*", PUBLIC, null),
+            new AccessRule("^/api/issues/events$", PUBLIC, null), // department streams are checked by the servlet
+            new AccessRule("^/api/admin/.*", Set.of("ADMIN"), "Admin access required"),
+            new AccessRule("^/api/department/issues/[^/]+/update$", Set.of("DEPARTMENT", "ADMIN"),
+                    "Department or Admin access required"),
+            new AccessRule("^/api/department/.*", Set.of("DEPARTMENT"), "Department access required"),
+            new AccessRule("^/api/.*", ANY_ROLE, "Access denied"));
+
+    private final Gson gson = JsonUtil.GSON;
+
+    /**
+     * The verified caller of this request, or null on public endpoints without a token
+     */
+    public static AuthPrincipal getPrincipal(HttpServletRequest request) {
+        return (AuthPrincipal) request.getAttribute(AuthPrincipal.REQUEST_ATTRIBUTE);
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) req;
+        HttpServletResponse response = (HttpServletResponse) res;
+
+        if (isAmbiguousUri(request.getRequestURI())) {
+            reject(response, HttpServletResponse.SC_BAD_REQUEST, "Invalid request path");
+            return;
+        }
+
+        // CORS preflight carries no credentials
+        if ("OPTIONS".equals(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        AccessRule rule = findRule(routedPath(request));
+
+        AuthPrincipal principal = null;
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            principal = JWTUtil.authenticate(authHeader.substring(7));
+            if (principal == null && !rule.isPublic()) {
+                reject(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid token");
+                return;
+            }
+        }
+
+        if (!rule.isPublic()) {
+            if (principal == null) {
+                reject(response, HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized");
+                return;
+            }
+            if (!rule.roles.contains(principal.getRole())) {
+                reject(response, HttpServletResponse.SC_FORBIDDEN, rule.forbiddenMessage);
+                return;
+            }
+        }
+
+        if (principal != null) {
+            request.setAttribute(AuthPrincipal.REQUEST_ATTRIBUTE, principal);
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * The decoded, normalized path the container routes on; matching the raw URI
+     * instead would let /api/issues/track/../../api/admin/... pass as public
+     */
+    private static String routedPath(HttpServletRequest request) {
+        String pathInfo = request.getPathInfo();
+        return request.getServletPath() + (pathInfo == null ? "" : pathInfo);
+    }
+
+    /**
+     * Dot segments, path parameters and encoded slashes are never used by the API and
+     * are read differently by containers, proxies and rule matching, so refuse them
+     */
+    private static boolean isAmbiguousUri(String uri) {
+        return uri.contains("..") || uri.contains(";")
+                || uri.contains("%2f") || uri.contains("%2F");
+    }
+
+    private AccessRule findRule(String path) {
+        for (AccessRule rule : RULES) {
+            if (rule.pattern.matcher(path).matches()) {
+                return rule;
+            }
+        }
+        return RULES.get(RULES.size() - 1);
+    }
+
+    private void reject(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(gson.toJson(Map.of(
+                "success", false,
+                "message", message)));
+    }
+
+    private static final class AccessRule {
+        final Pattern pattern;
+        final Set<String> roles;
+        final String forbiddenMessage;
+
+        AccessRule(String regex, Set<String> roles, String forbiddenMessage) {
+            this.pattern = Pattern.compile(regex);
+            this.roles = roles;
+            this.forbiddenMessage = forbiddenMessage;
+        }
+
+        boolean isPublic() {
+            return roles.isEmpty();
+        }
+    }
+}
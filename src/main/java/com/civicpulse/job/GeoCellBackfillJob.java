@@ -0,0 +1,96 @@
+package com.civicpulse.job;
+
+import com.civicpulse.dao.IssueDAO;
+import com.civicpulse.dao.JobLockDAO;
+import com.civicpulse.dao.WatermarkDAO;
+import com.civicpulse.util.DatabaseUtil;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Fills issues.geo_cell for rows created before the column existed.
+ *
+ * Walks the table once in primary key order, in small batches (one short
+ * transaction each) so it can work through a large table without long row
+ * locks. Runs on one node at a time under a database lock and records its
+ * completion in rollup_watermarks, so later startups skip it after a single
+ * row read. Started in the background on application startup, or run
+ * directly: java -cp ... com.civicpulse.job.GeoCellBackfillJob [batchSize]
+ */
+public class GeoCellBackfillJob implements Runnable {
+
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final String DONE_WATERMARK = "geo_cell_backfill";
+    private static final String JOB_LOCK = "civicpulse.geo_cell_backfill";
+
+    private final IssueDAO issueDAO = new IssueDAO();
+    private final WatermarkDAO watermarkDAO = new WatermarkDAO();
+    private final JobLockDAO jobLockDAO = new JobLockDAO();
+    private final int batchSize;
+
+    public GeoCellBackfillJob() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    public GeoCellBackfillJob(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run() {
+        try {
+            backfill();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Backfill every remaining row, unless the backfill already completed or
+     * another node is running it
+     * @return false if it was skipped or interrupted
+     */
+    public boolean backfill() throws SQLException {
+        if (isDone()) {
+            return false;
+        }
+
+        // The lock's connection stays open for the whole run; batches use their own
+        try (Connection lockConn = DatabaseUtil.getStandaloneConnection()) {
+            if (!jobLockDAO.tryLock(lockConn, JOB_LOCK)) {
+                return false;
+            }
+            try {
+                if (isDone()) {
+                    return false;
+                }
+
+                String lastIssueId = "";
+                while ((lastIssueId = issueDAO.backfillGeoCells(lastIssueId, batchSize)) != null) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        return false;
+                    }
+                }
+
+                DatabaseUtil.inTransaction(() -> {
+                    watermarkDAO.lock(DONE_WATERMARK);
+                    watermarkDAO.update(DONE_WATERMARK, 1);
+                    return null;
+                });
+                return true;
+            } finally {
+                jobLockDAO.unlock(lockConn, JOB_LOCK);
+            }
+        }
+    }
+
+    private boolean isDone() throws SQLException {
+        return watermarkDAO.get(DONE_WATERMARK) != 0;
+    }
+
+    public static void main(String[] args) throws SQLException {
+        int batchSize = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_BATCH_SIZE;
+        new GeoCellBackfillJob(batchSize).backfill();
+    }
+}
@@ -0,0 +1,67 @@
+package com.civicpulse.listener;
+
+import com.civicpulse.job.GeoCellBackfillJob;
+import com.civicpulse.service.AnalyticsEngine;
+import com.civicpulse.service.AuthWorkerPool;
+import com.civicpulse.service.HeatmapService;
+import com.civicpulse.service.IssueEventBroker;
+import com.civicpulse.service.OpenIssueIndex;
+import com.civicpulse.service.ReportCountCoalescer;
+import com.civicpulse.service.RollupService;
+import com.civicpulse.service.SlaTracker;
+import com.civicpulse.util.DatabaseUtil;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+@WebListener
+public class AppLifecycleListener implements ServletContextListener {
+
+    private Thread backfillThread;
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        // Load the duplicate-detection index in the background
+        OpenIssueIndex.getInstance().start();
+
+        // Seed the dashboard counters in the background
+        AnalyticsEngine.getInstance().start();
+
+        // Batched writes of duplicate-report merges
+        ReportCountCoalescer.getInstance().start();
+
+        // Density heatmap tiles
+        HeatmapService.getInstance().start();
+
+        // Status change streams (Server-Sent Events)
+        IssueEventBroker.getInstance().start();
+
+        // Fold the issue timeline into trend rollups
+        RollupService.getInstance().start();
+
+        // Resolution-time sketches (back-fills history on first start)
+        SlaTracker.getInstance().start();
+
+        // Fill geo_cell for rows that predate the column; a no-op once done
+        backfillThread = new Thread(new GeoCellBackfillJob(), "civicpulse-geo-cell-backfill");
+        backfillThread.setDaemon(true);
+        backfillThread.start();
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        if (backfillThread != null) {
+            backfillThread.interrupt();
+        }
+        OpenIssueIndex.getInstance().stop();
+        ReportCountCoalescer.getInstance().stop();
+        AnalyticsEngine.getInstance().stop();
+        HeatmapService.getInstance().stop();
+        IssueEventBroker.getInstance().stop();
+        RollupService.getInstance().stop();
+        SlaTracker.getInstance().stop();
+        AuthWorkerPool.getInstance().shutdown();
+        DatabaseUtil.shutdown();
+    }
+}
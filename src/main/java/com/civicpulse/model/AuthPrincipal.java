@@ -0,0 +1,50 @@
+package com.civicpulse.model;
+
+/**
+ * Verified identity of the caller, attached to the request by AuthenticationFilter
+ */
+public class AuthPrincipal {
+    public static final String REQUEST_ATTRIBUTE = "civicpulse.principal";
+
+    private final int userId;
+    private final String role; // CITIZEN, ADMIN, DEPARTMENT
+    private final Integer deptId;
+    private final String name;
+
+    public AuthPrincipal(int userId, String role, Integer deptId, String name) {
+        this.userId = userId;
+        this.role = role;
+        this.deptId = deptId;
+        this.name = name;
+    }
+
+    // Getters
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public Integer getDeptId() {
+        return deptId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean hasRole(String expected) {
+        return expected.equals(role);
+    }
+
+    @Override
+    public String toString() {
+        return "AuthPrincipal{" +
+                "userId=" + userId +
+                ", role='" + role + '\'' +
+                ", deptId=" + deptId +
+                '}';
+    }
+}
@@ -16,6 +16,7 @@ public class Issue {
     private Timestamp createdAt;
     private Timestamp updatedAt;
     private Timestamp resolvedAt;
+    private int version; // bumped by every status/department change
 
     // Constructors
     public Issue() {}
@@ -31,6 +32,23 @@ public class Issue {
         this.reportCount = 1;
     }
 
+    public Issue(Issue other) {
+        this.issueId = other.issueId;
+        this.category = other.category;
+        this.locationLat = other.locationLat;
+        this.locationLng = other.locationLng;
+        this.address = other.address;
+        this.description = other.description;
+        this.status = other.status;
+        this.reportCount = other.reportCount;
+        this.deptId = other.deptId;
+        this.imageUrl = other.imageUrl;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+        this.resolvedAt = other.resolvedAt;
+        this.version = other.version;
+    }
+
     // Getters and Setters
     public String getIssueId() {
         return issueId;
@@ -140,6 +158,14 @@ public class Issue {
         this.resolvedAt = resolvedAt;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Issue{" +
@@ -147,6 +173,7 @@ public class Issue {
                 ", category='" + category + '\'' +
                 ", status='" + status + '\'' +
                 ", reportCount=" + reportCount +
+                ", version=" + version +
                 '}';
     }
 }
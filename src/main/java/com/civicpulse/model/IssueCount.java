@@ -0,0 +1,64 @@
+package com.civicpulse.model;
+
+/**
+ * Number of issues sharing one (status, category, department) combination
+ */
+public class IssueCount {
+    private String status;
+    private String category;
+    private Integer deptId; // null for unassigned issues
+    private long count;
+
+    // Constructors
+    public IssueCount() {}
+
+    public IssueCount(String status, String category, Integer deptId, long count) {
+        this.status = status;
+        this.category = category;
+        this.deptId = deptId;
+        this.count = count;
+    }
+
+    // Getters and Setters
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public Integer getDeptId() {
+        return deptId;
+    }
+
+    public void setDeptId(Integer deptId) {
+        this.deptId = deptId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    @Override
+    public String toString() {
+        return "IssueCount{" +
+                "status='" + status + '\'' +
+                ", category='" + category + '\'' +
+                ", deptId=" + deptId +
+                ", count=" + count +
+                '}';
+    }
+}
@@ -0,0 +1,85 @@
+package com.civicpulse.model;
+
+/**
+ * Status change pushed to event stream subscribers; eventId is the timeline entry ID
+ */
+public class IssueEvent {
+    private long eventId;
+    private String issueId;
+    private String status;
+    private Integer deptId;
+    private String remarks;
+    private long timestamp; // epoch millis
+
+    // Constructors
+    public IssueEvent() {}
+
+    public IssueEvent(long eventId, String issueId, String status, Integer deptId,
+                      String remarks, long timestamp) {
+        this.eventId = eventId;
+        this.issueId = issueId;
+        this.status = status;
+        this.deptId = deptId;
+        this.remarks = remarks;
+        this.timestamp = timestamp;
+    }
+
+    // Getters and Setters
+    public long getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(long eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getIssueId() {
+        return issueId;
+    }
+
+    public void setIssueId(String issueId) {
+        this.issueId = issueId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getDeptId() {
+        return deptId;
+    }
+
+    public void setDeptId(Integer deptId) {
+        this.deptId = deptId;
+    }
+
+    public String getRemarks() {
+        return remarks;
+    }
+
+    public void setRemarks(String remarks) {
+        this.remarks = remarks;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "IssueEvent{" +
+                "eventId=" + eventId +
+                ", issueId='" + issueId + '\'' +
+                ", status='" + status + '\'' +
+                ", deptId=" + deptId +
+                '}';
+    }
+}
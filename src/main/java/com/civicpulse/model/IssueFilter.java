@@ -0,0 +1,66 @@
+package com.civicpulse.model;
+
+import java.sql.Timestamp;
+
+public class IssueFilter {
+    private String status;       // REPORTED, ASSIGNED, IN_PROGRESS, RESOLVED
+    private String category;     // ROAD, WATER, SANITATION, ELECTRICITY
+    private Integer deptId;
+    private Timestamp createdFrom; // inclusive
+    private Timestamp createdTo;   // exclusive
+
+    // Constructors
+    public IssueFilter() {}
+
+    // Getters and Setters
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public Integer getDeptId() {
+        return deptId;
+    }
+
+    public void setDeptId(Integer deptId) {
+        this.deptId = deptId;
+    }
+
+    public Timestamp getCreatedFrom() {
+        return createdFrom;
+    }
+
+    public void setCreatedFrom(Timestamp createdFrom) {
+        this.createdFrom = createdFrom;
+    }
+
+    public Timestamp getCreatedTo() {
+        return createdTo;
+    }
+
+    public void setCreatedTo(Timestamp createdTo) {
+        this.createdTo = createdTo;
+    }
+
+    @Override
+    public String toString() {
+        return "IssueFilter{" +
+                "status='" + status + '\'' +
+                ", category='" + category + '\'' +
+                ", deptId=" + deptId +
+                ", createdFrom=" + createdFrom +
+                ", createdTo=" + createdTo +
+                '}';
+    }
+}
@@ -0,0 +1,45 @@
+package com.civicpulse.model;
+
+import java.util.List;
+
+public class IssuePage {
+    private List<Issue> issues;
+    private String nextCursor; // null on the last page
+
+    // Constructors
+    public IssuePage() {}
+
+    public IssuePage(List<Issue> issues, String nextCursor) {
+        this.issues = issues;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<Issue> getIssues() {
+        return issues;
+    }
+
+    public void setIssues(List<Issue> issues) {
+        this.issues = issues;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    @Override
+    public String toString() {
+        return "IssuePage{" +
+                "size=" + (issues != null ? issues.size() : 0) +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
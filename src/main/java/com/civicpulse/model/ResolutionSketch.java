@@ -0,0 +1,90 @@
+package com.civicpulse.model;
+
+/**
+ * Serialized duration sketch for one node, day and (metric, category, department)
+ */
+public class ResolutionSketch {
+    public static final String METRIC_ASSIGN = "ASSIGN";
+    public static final String METRIC_RESOLVE = "RESOLVE";
+
+    private String nodeId;
+    private long windowStart; // UTC midnight, epoch seconds
+    private String metric; // ASSIGN (report to first assignment) or RESOLVE (report to resolution)
+    private String category;
+    private int deptId; // 0 for unassigned issues
+    private byte[] sketch;
+
+    // Constructors
+    public ResolutionSketch() {}
+
+    public ResolutionSketch(String nodeId, long windowStart, String metric, String category,
+            int deptId, byte[] sketch) {
+        this.nodeId = nodeId;
+        this.windowStart = windowStart;
+        this.metric = metric;
+        this.category = category;
+        this.deptId = deptId;
+        this.sketch = sketch;
+    }
+
+    // Getters and Setters
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public long getWindowStart() {
+        return windowStart;
+    }
+
+    public void setWindowStart(long windowStart) {
+        this.windowStart = windowStart;
+    }
+
+    public String getMetric() {
+        return metric;
+    }
+
+    public void setMetric(String metric) {
+        this.metric = metric;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public int getDeptId() {
+        return deptId;
+    }
+
+    public void setDeptId(int deptId) {
+        this.deptId = deptId;
+    }
+
+    public byte[] getSketch() {
+        return sketch;
+    }
+
+    public void setSketch(byte[] sketch) {
+        this.sketch = sketch;
+    }
+
+    @Override
+    public String toString() {
+        return "ResolutionSketch{" +
+                "nodeId='" + nodeId + '\'' +
+                ", windowStart=" + windowStart +
+                ", metric='" + metric + '\'' +
+                ", category='" + category + '\'' +
+                ", deptId=" + deptId +
+                ", bytes=" + (sketch != null ? sketch.length : 0) +
+                '}';
+    }
+}
@@ -0,0 +1,78 @@
+package com.civicpulse.model;
+
+/**
+ * Issue event counts for one time bucket, optionally broken down by
+ * category and/or department
+ */
+public class TrendPoint {
+    private long bucketStart; // epoch millis (UTC)
+    private String category; // null unless grouped by category
+    private Integer deptId; // null unless grouped by department (or unassigned)
+    private long reported;
+    private long assigned;
+    private long resolved;
+
+    // Constructors
+    public TrendPoint() {}
+
+    // Getters and Setters
+    public long getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(long bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public Integer getDeptId() {
+        return deptId;
+    }
+
+    public void setDeptId(Integer deptId) {
+        this.deptId = deptId;
+    }
+
+    public long getReported() {
+        return reported;
+    }
+
+    public void setReported(long reported) {
+        this.reported = reported;
+    }
+
+    public long getAssigned() {
+        return assigned;
+    }
+
+    public void setAssigned(long assigned) {
+        this.assigned = assigned;
+    }
+
+    public long getResolved() {
+        return resolved;
+    }
+
+    public void setResolved(long resolved) {
+        this.resolved = resolved;
+    }
+
+    @Override
+    public String toString() {
+        return "TrendPoint{" +
+                "bucketStart=" + bucketStart +
+                ", category='" + category + '\'' +
+                ", deptId=" + deptId +
+                ", reported=" + reported +
+                ", assigned=" + assigned +
+                ", resolved=" + resolved +
+                '}';
+    }
+}
@@ -0,0 +1,259 @@
+package com.civicpulse.service;
+
+import com.civicpulse.dao.IssueDAO;
+import com.civicpulse.model.IssueCount;
+import com.civicpulse.util.ConfigUtil;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process issue counters keyed by (status, category, department).
+ *
+ * Seeded from the issue_stats view and re-seeded periodically so changes made
+ * on other nodes are picked up; in between, IssueService applies each
+ * committed create/transition as a +1/-1 pair. Dashboard reads only sum a few
+ * dozen counters, independent of the size of the issues table. Until the first
+ * load completes {@link #isReady()} is false and callers must use the database.
+ *
+ * Deltas that arrive while a re-seed is running are replayed onto the fresh
+ * counters; one committed just before the seed query may be counted twice
+ * until the next re-seed.
+ */
+public class AnalyticsEngine {
+
+    private static final AnalyticsEngine INSTANCE = new AnalyticsEngine();
+
+    private final IssueDAO issueDAO = new IssueDAO();
+    private final Object mutationLock = new Object();
+    private final long resyncMinutes;
+
+    private volatile Map<CounterKey, LongAdder> counters = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    private List<Delta> rebuildLog; // guarded by mutationLock
+    private ScheduledExecutorService scheduler;
+
+    private AnalyticsEngine() {
+        this.resyncMinutes = loadResyncMinutes();
+    }
+
+    public static AnalyticsEngine getInstance() {
+        return INSTANCE;
+    }
+
+    private static long loadResyncMinutes() {
+        return ConfigUtil.getLong("analytics.resync.minutes", 10);
+    }
+
+    /**
+     * Seed the counters in the background and schedule periodic resyncs
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "civicpulse-analytics-engine");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::rebuildQuietly, 0, resyncMinutes, TimeUnit.MINUTES);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Count a newly created issue
+     */
+    public void recordCreated(String category) {
+        apply(new Delta(new CounterKey("REPORTED", category, null), 1));
+    }
+
+    /**
+     * Move one issue from its old (status, department) to the new one
+     */
+    public void recordTransition(String category, String oldStatus, Integer oldDeptId,
+            String newStatus, Integer newDeptId) {
+        CounterKey from = new CounterKey(oldStatus, category, oldDeptId);
+        CounterKey to = new CounterKey(newStatus, category, newDeptId);
+        if (from.equals(to)) {
+            return;
+        }
+        apply(new Delta(from, -1));
+        apply(new Delta(to, 1));
+    }
+
+    private void apply(Delta delta) {
+        synchronized (mutationLock) {
+            delta.applyTo(counters);
+            if (rebuildLog != null) {
+                rebuildLog.add(delta);
+            }
+        }
+    }
+
+    /**
+     * Dashboard totals from the live counters
+     */
+    public Map<String, Object> snapshot() {
+        return summarize(counters);
+    }
+
+    /**
+     * Dashboard totals computed directly from the database (used before the first load)
+     */
+    public Map<String, Object> loadSnapshot() throws SQLException {
+        return summarize(load());
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Re-seed every counter from the database and swap the new set in.
+     * Deltas that arrive while the query runs are replayed onto the new set.
+     */
+    public void rebuild() throws SQLException {
+        synchronized (mutationLock) {
+            rebuildLog = new ArrayList<>();
+        }
+
+        Map<CounterKey, LongAdder> fresh;
+        try {
+            fresh = load();
+        } catch (SQLException | RuntimeException e) {
+            synchronized (mutationLock) {
+                rebuildLog = null;
+            }
+            throw e;
+        }
+
+        synchronized (mutationLock) {
+            for (Delta delta : rebuildLog) {
+                delta.applyTo(fresh);
+            }
+            rebuildLog = null;
+            counters = fresh;
+            ready = true;
+        }
+    }
+
+    private Map<CounterKey, LongAdder> load() throws SQLException {
+        Map<CounterKey, LongAdder> fresh = new ConcurrentHashMap<>();
+        for (IssueCount count : issueDAO.countByStatusCategoryDepartment()) {
+            CounterKey key = new CounterKey(count.getStatus(), count.getCategory(), count.getDeptId());
+            fresh.computeIfAbsent(key, k -> new LongAdder()).add(count.getCount());
+        }
+        return fresh;
+    }
+
+    private static Map<String, Object> summarize(Map<CounterKey, LongAdder> source) {
+        long total = 0;
+        Map<String, Long> byStatus = new HashMap<>();
+        Map<String, Long> byCategory = new TreeMap<>();
+        Map<Integer, Long> byDepartment = new TreeMap<>();
+
+        for (Map.Entry<CounterKey, LongAdder> entry : source.entrySet()) {
+            long n = entry.getValue().sum();
+            if (n == 0) {
+                continue;
+            }
+            CounterKey key = entry.getKey();
+            total += n;
+            byStatus.merge(key.status, n, Long::sum);
+            byCategory.merge(key.category, n, Long::sum);
+            if (key.deptId != null) {
+                byDepartment.merge(key.deptId, n, Long::sum);
+            }
+        }
+
+        long reported = byStatus.getOrDefault("REPORTED", 0L);
+        long assigned = byStatus.getOrDefault("ASSIGNED", 0L);
+        long inProgress = byStatus.getOrDefault("IN_PROGRESS", 0L);
+        long resolved = byStatus.getOrDefault("RESOLVED", 0L);
+
+        Map<String, Object> analytics = new HashMap<>();
+        analytics.put("totalIssues", total);
+        analytics.put("reported", reported);
+        analytics.put("assigned", assigned);
+        analytics.put("inProgress", inProgress);
+        analytics.put("resolved", resolved);
+        analytics.put("pending", reported + assigned + inProgress);
+        analytics.put("byCategory", byCategory);
+        analytics.put("byDepartment", byDepartment);
+
+        return analytics;
+    }
+
+    /**
+     * One (status, category, department) counter; deptId is null while unassigned
+     */
+    private static final class CounterKey {
+        final String status;
+        final String category;
+        final Integer deptId;
+
+        CounterKey(String status, String category, Integer deptId) {
+            this.status = status;
+            this.category = category;
+            this.deptId = deptId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CounterKey)) {
+                return false;
+            }
+            CounterKey other = (CounterKey) o;
+            return Objects.equals(status, other.status)
+                    && Objects.equals(category, other.category)
+                    && Objects.equals(deptId, other.deptId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(status, category, deptId);
+        }
+    }
+
+    private static final class Delta {
+        final CounterKey key;
+        final long amount;
+
+        Delta(CounterKey key, long amount) {
+            this.key = key;
+            this.amount = amount;
+        }
+
+        void applyTo(Map<CounterKey, LongAdder> target) {
+            target.computeIfAbsent(key, k -> new LongAdder()).add(amount);
+        }
+    }
+}
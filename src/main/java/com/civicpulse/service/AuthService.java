@@ -12,9 +12,11 @@ import java.util.Map;
 public class AuthService {
 
     private final UserDAO userDAO;
+    private final EntityCaches entityCaches;
 
     public AuthService() {
         this.userDAO = new UserDAO();
+        this.entityCaches = EntityCaches.getInstance();
     }
 
     /**
@@ -93,7 +95,7 @@ public class AuthService {
         }
 
         // Generate JWT token
-        String token = JWTUtil.generateToken(user.getUserId(), user.getRole(), user.getName());
+        String token = JWTUtil.generateToken(user.getUserId(), user.getRole(), user.getName(), user.getDeptId());
 
         Map<String, Object> userData = new HashMap<>();
         userData.put("userId", user.getUserId());
@@ -121,13 +123,13 @@ public class AuthService {
             return null;
         }
 
-        return userDAO.findById(userId);
+        return entityCaches.findUser(userId);
     }
 
     /**
      * Get user by ID
      */
     public User getUserById(int userId) throws SQLException {
-        return userDAO.findById(userId);
+        return entityCaches.findUser(userId);
     }
 }
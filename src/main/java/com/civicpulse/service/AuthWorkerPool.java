@@ -0,0 +1,208 @@
+package com.civicpulse.service;
+
+import com.civicpulse.util.ConfigUtil;
+import com.civicpulse.util.JsonUtil;
+import com.civicpulse.util.LatencyHistogram;
+import com.civicpulse.util.PasswordUtil;
+import com.google.gson.Gson;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dedicated executor for login and registration.
+ *
+ * Both requests spend most of their time in BCrypt, which is pure CPU, so they
+ * run on a pool sized to the core count instead of on container threads. The
+ * queue is bounded: once it is full, {@link #submit} refuses the work and the
+ * servlet answers 503 with Retry-After immediately. Tasks return their reply
+ * instead of writing it, so a request that times out while its task is still
+ * running can be answered 503 at once and the late reply is dropped.
+ */
+public class AuthWorkerPool {
+
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+    private static final int TIMED_OUT = 3;
+
+    private static final AuthWorkerPool INSTANCE = new AuthWorkerPool();
+
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final long timeoutMs;
+    private final int retryAfterSeconds;
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong timedOutCount = new AtomicLong();
+    private final LatencyHistogram queueWaitTimes = new LatencyHistogram();
+    private final LatencyHistogram runTimes = new LatencyHistogram();
+    private final Gson gson = JsonUtil.GSON;
+
+    /**
+     * Request handling work run on the pool; the pool writes the reply
+     */
+    @FunctionalInterface
+    public interface Task {
+        Reply run() throws IOException;
+    }
+
+    /**
+     * Status and JSON body of a task's response
+     */
+    public static final class Reply {
+        private final int status;
+        private final Object body;
+
+        public Reply(int status, Object body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private AuthWorkerPool() {
+        int threads = ConfigUtil.getInt("auth.worker.threads", Runtime.getRuntime().availableProcessors());
+        this.queueCapacity = ConfigUtil.getInt("auth.worker.queue.capacity", 64);
+        this.timeoutMs = ConfigUtil.getLong("auth.worker.timeout.ms", 30000);
+        this.retryAfterSeconds = ConfigUtil.getInt("auth.worker.retry.after.seconds", 2);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "civicpulse-auth-worker-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static AuthWorkerPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Run the task on the pool, write its reply and complete the async context.
+     * Returns false without queueing anything when the pool is saturated;
+     * the caller still owns the context in that case.
+     */
+    public boolean submit(AsyncContext async, Task task) {
+        long queuedAt = System.nanoTime();
+        AtomicInteger state = new AtomicInteger(QUEUED);
+
+        async.setTimeout(timeoutMs);
+        async.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                // Queued work is dropped; running work finishes but its reply is discarded
+                if (state.compareAndSet(QUEUED, DONE) || state.compareAndSet(RUNNING, TIMED_OUT)) {
+                    timedOutCount.incrementAndGet();
+                    writeBusy((HttpServletResponse) event.getAsyncContext().getResponse());
+                    event.getAsyncContext().complete();
+                }
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+
+        try {
+            executor.execute(() -> {
+                if (!state.compareAndSet(QUEUED, RUNNING)) {
+                    return; // timed out while queued
+                }
+                long start = System.nanoTime();
+                queueWaitTimes.record(start - queuedAt);
+                Reply reply;
+                try {
+                    reply = task.run();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    reply = new Reply(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, Map.of(
+                            "success", false,
+                            "message", "Request failed"));
+                } finally {
+                    runTimes.record(System.nanoTime() - start);
+                }
+
+                // After a timeout the container owns the response again (and may have recycled it)
+                if (!state.compareAndSet(RUNNING, DONE)) {
+                    return;
+                }
+                try {
+                    HttpServletResponse response = (HttpServletResponse) async.getResponse();
+                    response.setStatus(reply.status);
+                    response.getWriter().write(gson.toJson(reply.body));
+                } catch (IOException | IllegalStateException e) {
+                    // Client gone or request already completed by the container
+                } finally {
+                    try {
+                        async.complete();
+                    } catch (IllegalStateException e) {
+                        // Container already completed the request (e.g. client gone)
+                    }
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            state.set(DONE);
+            rejectedCount.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Answer 503 with Retry-After for work the pool could not take
+     */
+    public void writeBusy(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(gson.toJson(Map.of(
+                "success", false,
+                "message", "Server is busy, please retry shortly")));
+    }
+
+    /**
+     * Stop accepting work (called on application shutdown)
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Live pool statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", executor.getPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("completed", executor.getCompletedTaskCount());
+        stats.put("rejected", rejectedCount.get());
+        stats.put("timedOut", timedOutCount.get());
+        stats.put("queueWaitTime", queueWaitTimes.snapshot());
+        stats.put("runTime", runTimes.snapshot());
+        stats.put("hashTime", PasswordUtil.getHashStats());
+        return stats;
+    }
+}
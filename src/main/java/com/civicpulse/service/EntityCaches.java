@@ -0,0 +1,98 @@
+package com.civicpulse.service;
+
+import com.civicpulse.dao.DepartmentDAO;
+import com.civicpulse.dao.IssueDAO;
+import com.civicpulse.dao.UserDAO;
+import com.civicpulse.model.Department;
+import com.civicpulse.model.Issue;
+import com.civicpulse.model.User;
+import com.civicpulse.util.ConfigUtil;
+import com.civicpulse.util.DatabaseUtil;
+import com.civicpulse.util.EntityCache;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read-through caches in front of the issue, department and user lookups by
+ * primary key.
+ *
+ * Writes on this node invalidate the issue entry when their transaction
+ * commits; other nodes' writes are picked up when the entry's TTL runs out.
+ * Reads inside a transaction use a cached entry but never populate the cache,
+ * since a REPEATABLE READ snapshot may predate the latest commit. Returned
+ * objects are shared and must not be modified.
+ */
+public class EntityCaches {
+
+    private static final EntityCaches INSTANCE = new EntityCaches();
+
+    private final IssueDAO issueDAO = new IssueDAO();
+    private final DepartmentDAO departmentDAO = new DepartmentDAO();
+    private final UserDAO userDAO = new UserDAO();
+
+    private final EntityCache<String, Issue> issues;
+    private final EntityCache<Integer, Department> departments;
+    private final EntityCache<Integer, User> users;
+
+    private EntityCaches() {
+        this.issues = createCache("issue", 10000, 30);
+        this.departments = createCache("department", 64, 600);
+        this.users = createCache("user", 10000, 300);
+    }
+
+    private static <K, V> EntityCache<K, V> createCache(String name,
+            int defaultMaxEntries, long defaultTtlSeconds) {
+        int maxEntries = ConfigUtil.getInt("cache." + name + ".max.entries", defaultMaxEntries);
+        long ttlSeconds = ConfigUtil.getLong("cache." + name + ".ttl.seconds", defaultTtlSeconds);
+        return new EntityCache<>(maxEntries, ttlSeconds * 1000);
+    }
+
+    public static EntityCaches getInstance() {
+        return INSTANCE;
+    }
+
+    public Issue findIssue(String issueId) throws SQLException {
+        if (DatabaseUtil.isInTransaction()) {
+            Issue cached = issues.getIfPresent(issueId);
+            return cached != null ? cached : issueDAO.findById(issueId);
+        }
+        return issues.get(issueId, issueDAO::findById);
+    }
+
+    public Department findDepartment(int deptId) throws SQLException {
+        if (DatabaseUtil.isInTransaction()) {
+            Department cached = departments.getIfPresent(deptId);
+            return cached != null ? cached : departmentDAO.findById(deptId);
+        }
+        return departments.get(deptId, departmentDAO::findById);
+    }
+
+    public User findUser(int userId) throws SQLException {
+        if (DatabaseUtil.isInTransaction()) {
+            User cached = users.getIfPresent(userId);
+            return cached != null ? cached : userDAO.findById(userId);
+        }
+        return users.get(userId, userDAO::findById);
+    }
+
+    /**
+     * Drop the issue now and again once the current transaction commits, so a
+     * read between the two cannot keep the pre-commit row cached
+     */
+    public void invalidateIssue(String issueId) {
+        issues.invalidate(issueId);
+        if (DatabaseUtil.isInTransaction()) {
+            DatabaseUtil.afterCommit(() -> issues.invalidate(issueId));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("issues", issues.getStats());
+        stats.put("departments", departments.getStats());
+        stats.put("users", users.getStats());
+        return stats;
+    }
+}
@@ -0,0 +1,509 @@
+package com.civicpulse.service;
+
+import com.civicpulse.dao.IssueDAO;
+import com.civicpulse.model.Issue;
+import com.civicpulse.util.ConfigUtil;
+import com.civicpulse.util.DatabaseUtil;
+import com.civicpulse.util.TilePyramid;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Issue density heatmap served as slippy-map (z/x/y) tiles.
+ *
+ * Per-bin counts for every category and status live in an in-memory tile
+ * pyramid (one layer per category/status pair), seeded from the database at
+ * startup and resynced periodically like {@link OpenIssueIndex}; IssueService
+ * moves issues between layers as they are created and change status. Encoded
+ * tiles are cached with an ETag. A background task re-encodes only cached
+ * tiles whose counts changed, so a request never pays for encoding unless it
+ * is the first one for that tile. A tile encoded while the counts changed is
+ * served but not cached, since the change may already have been refreshed.
+ */
+public class HeatmapService {
+
+    public static final String FORMAT_BINARY = "bin";
+    public static final String FORMAT_PNG = "png";
+
+    private static final List<String> CATEGORIES = List.of("ROAD", "WATER", "SANITATION", "ELECTRICITY");
+    private static final List<String> STATUSES = List.of("REPORTED", "ASSIGNED", "IN_PROGRESS", "RESOLVED");
+
+    private static final byte TILE_FORMAT_VERSION = 1;
+    private static final int PNG_SIZE = 256;
+
+    private static final HeatmapService INSTANCE = new HeatmapService();
+
+    private final IssueDAO issueDAO = new IssueDAO();
+    private final Object mutationLock = new Object();
+    private final int maxZoom;
+    private final int binsPerTile;
+    private final int maxCachedTiles;
+    private final double pngSaturation;
+    private final long rebuildSeconds;
+    private final long resyncMinutes;
+
+    private volatile TilePyramid pyramid;
+    private volatile boolean ready;
+    private volatile long generation; // bumped under mutationLock by every count change and swap
+    private Map<String, LoggedIssue> rebuildLog; // guarded by mutationLock
+    private final Map<String, EncodedTile> tileCache; // guarded by itself
+    private ScheduledExecutorService scheduler;
+
+    private HeatmapService() {
+        this.maxZoom = ConfigUtil.getInt("heatmap.max.zoom", 15);
+        this.binsPerTile = ConfigUtil.getInt("heatmap.tile.bins", 32);
+        this.maxCachedTiles = ConfigUtil.getInt("heatmap.cache.max.tiles", 4096);
+        this.pngSaturation = ConfigUtil.getDouble("heatmap.png.saturation", 50);
+        this.rebuildSeconds = ConfigUtil.getLong("heatmap.rebuild.seconds", 5);
+        this.resyncMinutes = ConfigUtil.getLong("heatmap.resync.minutes", 30);
+
+        this.pyramid = new TilePyramid(maxZoom, binsPerTile);
+        this.tileCache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, EncodedTile> eldest) {
+                return size() > maxCachedTiles;
+            }
+        };
+    }
+
+    public static HeatmapService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Load the pyramid in the background, then re-encode dirty tiles and resync on a schedule
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "civicpulse-heatmap");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::rebuildQuietly, 0, resyncMinutes, TimeUnit.MINUTES);
+        scheduler.scheduleWithFixedDelay(this::refreshDirtyTilesQuietly,
+                rebuildSeconds, rebuildSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    /**
+     * Count a newly reported issue
+     */
+    public void recordCreated(String issueId, String category, double lat, double lng) {
+        int layer = layerOf(category, "REPORTED");
+        mutate(issueId, layer, lat, lng, target -> {
+            if (layer >= 0) {
+                target.add(layer, lat, lng, 1);
+            }
+        });
+    }
+
+    /**
+     * Move an issue from its old status layer to the new one
+     */
+    public void recordTransition(String issueId, String category, double lat, double lng,
+            String oldStatus, String newStatus) {
+        if (oldStatus != null && oldStatus.equals(newStatus)) {
+            return;
+        }
+        int oldLayer = layerOf(category, oldStatus);
+        int newLayer = layerOf(category, newStatus);
+        mutate(issueId, newLayer, lat, lng, target -> {
+            if (oldLayer >= 0) {
+                target.add(oldLayer, lat, lng, -1);
+            }
+            if (newLayer >= 0) {
+                target.add(newLayer, lat, lng, 1);
+            }
+        });
+    }
+
+    /**
+     * Encoded tile for the given filters, from the cache when possible
+     * @param category category, or null for all categories
+     * @param status status, or null for all statuses
+     * @param format {@link #FORMAT_BINARY} or {@link #FORMAT_PNG}
+     * @throws IllegalArgumentException if the tile coordinates are out of range
+     */
+    public EncodedTile getTile(String category, String status, int z, int x, int y, String format) {
+        if (z < 0 || z > maxZoom) {
+            throw new IllegalArgumentException("Zoom must be between 0 and " + maxZoom);
+        }
+        if (x < 0 || y < 0 || x >= (1 << z) || y >= (1 << z)) {
+            throw new IllegalArgumentException("Tile " + x + "/" + y + " is outside zoom level " + z);
+        }
+        if (!FORMAT_BINARY.equals(format) && !FORMAT_PNG.equals(format)) {
+            throw new IllegalArgumentException("Unsupported tile format: " + format);
+        }
+
+        String key = cacheKey(category, status, z, x, y, format);
+        synchronized (tileCache) {
+            EncodedTile cached = tileCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        long encodedAt = generation;
+        EncodedTile tile = encode(category, status, z, x, y, format);
+        cacheIfUnchanged(key, tile, encodedAt);
+        return tile;
+    }
+
+    /**
+     * Cache an encoded tile unless the counts changed after encodedAt. A change
+     * made after the check marks its tiles dirty only after this put, so the next
+     * refresh pass finds the tile cached and re-encodes it.
+     */
+    private void cacheIfUnchanged(String key, EncodedTile tile, long encodedAt) {
+        synchronized (tileCache) {
+            if (generation == encodedAt) {
+                tileCache.put(key, tile);
+            }
+        }
+    }
+
+    /**
+     * Apply a count change, remembering the issue's new layer for a rebuild in progress
+     */
+    private void mutate(String issueId, int newLayer, double lat, double lng, Consumer<TilePyramid> mutation) {
+        synchronized (mutationLock) {
+            generation++;
+            mutation.accept(pyramid);
+            if (rebuildLog != null) {
+                rebuildLog.put(issueId, new LoggedIssue(newLayer, lat, lng));
+            }
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Recount every issue from the database and swap the new pyramid in.
+     *
+     * Counts changed while the load runs may or may not be in the snapshot it
+     * reads, so they are not replayed as deltas. Instead each issue changed since
+     * the load started is re-read from the same snapshot (one read-only
+     * transaction), its snapshot count is taken out and its current layer put in.
+     */
+    public void rebuild() throws SQLException, IOException {
+        synchronized (mutationLock) {
+            rebuildLog = new HashMap<>();
+        }
+
+        TilePyramid fresh = new TilePyramid(maxZoom, binsPerTile);
+        try {
+            DatabaseUtil.inTransaction(() -> {
+                try {
+                    issueDAO.streamAllIssues(issue -> {
+                        int layer = layerOf(issue.getCategory(), issue.getStatus());
+                        if (layer >= 0) {
+                            fresh.add(layer, issue.getLocationLat(), issue.getLocationLng(), 1);
+                        }
+                    });
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+
+                // Snapshot layer of every logged issue (-1 if the snapshot predates it)
+                Map<String, Integer> snapshotLayers = new HashMap<>();
+                while (true) {
+                    List<String> unresolved = new ArrayList<>();
+                    synchronized (mutationLock) {
+                        for (String issueId : rebuildLog.keySet()) {
+                            if (!snapshotLayers.containsKey(issueId)) {
+                                unresolved.add(issueId);
+                            }
+                        }
+                        if (unresolved.isEmpty()) {
+                            swapIn(fresh, snapshotLayers);
+                            return null;
+                        }
+                    }
+                    for (Issue issue : issueDAO.findByIds(unresolved)) {
+                        snapshotLayers.put(issue.getIssueId(), layerOf(issue.getCategory(), issue.getStatus()));
+                    }
+                    for (String issueId : unresolved) {
+                        snapshotLayers.putIfAbsent(issueId, -1);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            synchronized (mutationLock) {
+                rebuildLog = null;
+            }
+        }
+    }
+
+    /**
+     * Correct the logged issues on the fresh pyramid and make it current.
+     * Caller holds mutationLock.
+     */
+    private void swapIn(TilePyramid fresh, Map<String, Integer> snapshotLayers) {
+        for (Map.Entry<String, LoggedIssue> entry : rebuildLog.entrySet()) {
+            LoggedIssue logged = entry.getValue();
+            int snapshotLayer = snapshotLayers.get(entry.getKey());
+            if (snapshotLayer == logged.layer) {
+                continue;
+            }
+            if (snapshotLayer >= 0) {
+                fresh.add(snapshotLayer, logged.lat, logged.lng, -1);
+            }
+            if (logged.layer >= 0) {
+                fresh.add(logged.layer, logged.lat, logged.lng, 1);
+            }
+        }
+        rebuildLog = null;
+
+        // Any tile may differ from the old pyramid, so start from an empty cache. The
+        // generation moves only after the swap, so a tile encoded from the old
+        // pyramid can never pass the check in cacheIfUnchanged.
+        fresh.drainDirty();
+        pyramid = fresh;
+        synchronized (tileCache) {
+            tileCache.clear();
+            generation++;
+        }
+        ready = true;
+    }
+
+    private void refreshDirtyTilesQuietly() {
+        try {
+            refreshDirtyTiles();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Re-encode the cached tiles whose counts changed since the last pass.
+     * Dirty tiles nobody has requested are skipped; they are encoded on first request.
+     */
+    void refreshDirtyTiles() {
+        for (TilePyramid.TileId dirty : pyramid.drainDirty()) {
+            String category = CATEGORIES.get(dirty.layer / STATUSES.size());
+            String status = STATUSES.get(dirty.layer % STATUSES.size());
+
+            // A layer feeds its own tile plus the "all categories" and "all statuses" views
+            for (String c : new String[] {category, null}) {
+                for (String s : new String[] {status, null}) {
+                    for (String format : new String[] {FORMAT_BINARY, FORMAT_PNG}) {
+                        String key = cacheKey(c, s, dirty.z, dirty.x, dirty.y, format);
+                        boolean cached;
+                        synchronized (tileCache) {
+                            cached = tileCache.containsKey(key);
+                        }
+                        if (cached) {
+                            long encodedAt = generation;
+                            EncodedTile tile = encode(c, s, dirty.z, dirty.x, dirty.y, format);
+                            // If the counts moved again, the tile is dirty again and the next pass encodes it
+                            cacheIfUnchanged(key, tile, encodedAt);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private EncodedTile encode(String category, String status, int z, int x, int y, String format) {
+        int[] bins = pyramid.sumTile(layersFor(category, status), z, x, y);
+        if (bins == null) {
+            bins = new int[binsPerTile * binsPerTile];
+        }
+        byte[] bytes = FORMAT_PNG.equals(format) ? encodePng(bins) : encodeBinary(bins);
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        String etag = "\"" + Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(bytes.length) + "\"";
+        String contentType = FORMAT_PNG.equals(format) ? "image/png" : "application/octet-stream";
+        return new EncodedTile(bytes, etag, contentType);
+    }
+
+    /**
+     * Binary tile: version, bins per edge, non-empty bin count, then
+     * (bin index delta, count) varint pairs in row-major order
+     */
+    private byte[] encodeBinary(int[] bins) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(TILE_FORMAT_VERSION);
+            out.writeShort(binsPerTile);
+
+            int nonEmpty = 0;
+            for (int count : bins) {
+                if (count > 0) {
+                    nonEmpty++;
+                }
+            }
+            writeVarInt(out, nonEmpty);
+
+            int previous = 0;
+            for (int i = 0; i < bins.length; i++) {
+                if (bins[i] > 0) {
+                    writeVarInt(out, i - previous);
+                    writeVarInt(out, bins[i]);
+                    previous = i;
+                }
+            }
+
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // In-memory streams never fail
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 256px PNG shading each bin from translucent yellow to opaque red on a log scale,
+     * so colours mean the same density on every tile
+     */
+    private byte[] encodePng(int[] bins) {
+        BufferedImage image = new BufferedImage(PNG_SIZE, PNG_SIZE, BufferedImage.TYPE_INT_ARGB);
+        int pixelsPerBin = PNG_SIZE / binsPerTile;
+        double logSaturation = Math.log1p(pngSaturation);
+
+        for (int i = 0; i < bins.length; i++) {
+            if (bins[i] <= 0) {
+                continue;
+            }
+            double t = Math.min(1.0, Math.log1p(bins[i]) / logSaturation);
+            int alpha = (int) (96 + 159 * t);
+            int green = (int) (220 * (1 - t));
+            int argb = (alpha << 24) | (0xFF << 16) | (green << 8);
+
+            int px = (i % binsPerTile) * pixelsPerBin;
+            int py = (i / binsPerTile) * pixelsPerBin;
+            for (int dy = 0; dy < pixelsPerBin; dy++) {
+                for (int dx = 0; dx < pixelsPerBin; dx++) {
+                    image.setRGB(px + dx, py + dy, argb);
+                }
+            }
+        }
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", bytes);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int layerOf(String category, String status) {
+        int categoryIndex = CATEGORIES.indexOf(category);
+        int statusIndex = STATUSES.indexOf(status);
+        if (categoryIndex < 0 || statusIndex < 0) {
+            return -1;
+        }
+        return categoryIndex * STATUSES.size() + statusIndex;
+    }
+
+    private static int[] layersFor(String category, String status) {
+        List<Integer> layers = new ArrayList<>();
+        for (String c : CATEGORIES) {
+            for (String s : STATUSES) {
+                if ((category == null || category.equals(c)) && (status == null || status.equals(s))) {
+                    layers.add(layerOf(c, s));
+                }
+            }
+        }
+        return layers.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static String cacheKey(String category, String status, int z, int x, int y, String format) {
+        return (category == null ? "*" : category) + '/' + (status == null ? "*" : status) +
+                '/' + z + '/' + x + '/' + y + '.' + format;
+    }
+
+    /**
+     * Layer (-1 for none) an issue was last moved to while a rebuild was running
+     */
+    private static final class LoggedIssue {
+        final int layer;
+        final double lat;
+        final double lng;
+
+        LoggedIssue(int layer, double lat, double lng) {
+            this.layer = layer;
+            this.lat = lat;
+            this.lng = lng;
+        }
+    }
+
+    /**
+     * An encoded tile and its strong ETag
+     */
+    public static final class EncodedTile {
+        private final byte[] bytes;
+        private final String etag;
+        private final String contentType;
+
+        EncodedTile(byte[] bytes, String etag, String contentType) {
+            this.bytes = bytes;
+            this.etag = etag;
+            this.contentType = contentType;
+        }
+
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+}
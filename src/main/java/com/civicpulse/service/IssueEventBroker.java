@@ -0,0 +1,477 @@
+package com.civicpulse.service;
+
+import com.civicpulse.dao.IssueTimelineDAO;
+import com.civicpulse.model.IssueEvent;
+import com.civicpulse.util.ConfigUtil;
+import com.civicpulse.util.JsonUtil;
+import com.google.gson.Gson;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes issue status changes to Server-Sent Events subscribers on this node.
+ *
+ * Events are issue_timeline entries other than REPORTED, identified by their
+ * timeline ID, so IDs mean the same on every node. Changes made on this node
+ * are published when their transaction commits; a background poll of
+ * issue_timeline picks up the other nodes' changes. Each poll re-reads the
+ * last issue.events.settle.ms of IDs, since an auto-increment ID can commit
+ * after a higher one; events already published are skipped.
+ *
+ * The most recent events are kept in a ring buffer so a reconnecting client
+ * can resume from Last-Event-ID. If events after that ID have left the buffer
+ * the client gets a "reset" event and should refetch the issues it follows.
+ *
+ * Connections are async and written with non-blocking I/O: an idle subscriber
+ * holds no thread, and a client that stops reading is dropped once its queue
+ * reaches issue.events.max.queued.frames instead of stalling the others.
+ */
+public class IssueEventBroker {
+
+    private static final IssueEventBroker INSTANCE = new IssueEventBroker();
+
+    private static final byte[] HEARTBEAT = ": heartbeat\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] RESET = "event: reset\ndata: {}\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final int POLL_BATCH_SIZE = 500;
+
+    private final IssueTimelineDAO timelineDAO = new IssueTimelineDAO();
+    private final Gson gson = JsonUtil.GSON;
+    private final long pollMillis;
+    private final long settleMillis;
+    private final long heartbeatSeconds;
+    private final long maxConnectionMillis;
+    private final long retryMillis;
+    private final int maxSubscribers;
+    private final int maxQueuedFrames;
+
+    // Ring buffer of recent events, oldest at ringStart; all guarded by this
+    private final BufferedEvent[] ring;
+    private int ringStart;
+    private int ringSize;
+    private final Map<Long, BufferedEvent> buffered = new HashMap<>();
+    private long maxEvictedId; // events at or below this may be missing from the buffer
+
+    // Subscriber registry; guarded by this
+    private final Map<String, Set<Subscriber>> byIssue = new HashMap<>();
+    private final Map<Integer, Set<Subscriber>> byDept = new HashMap<>();
+    private final Set<Subscriber> subscribers = new HashSet<>();
+
+    // Poll state, only touched by the scheduler thread
+    private long watermark;
+    private final ArrayDeque<long[]> watermarkHistory = new ArrayDeque<>(); // {polledAt, watermark}
+
+    private final AtomicLong publishedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private volatile boolean running;
+    private ScheduledExecutorService scheduler;
+
+    private IssueEventBroker() {
+        this.ring = new BufferedEvent[ConfigUtil.getInt("issue.events.buffer.size", 4096)];
+        this.pollMillis = ConfigUtil.getLong("issue.events.poll.ms", 1000);
+        this.settleMillis = ConfigUtil.getLong("issue.events.settle.ms", 5000);
+        this.heartbeatSeconds = ConfigUtil.getLong("issue.events.heartbeat.seconds", 20);
+        this.maxConnectionMillis = TimeUnit.MINUTES.toMillis(
+                ConfigUtil.getLong("issue.events.max.connection.minutes", 30));
+        this.retryMillis = ConfigUtil.getLong("issue.events.retry.ms", 3000);
+        this.maxSubscribers = ConfigUtil.getInt("issue.events.max.subscribers", 50000);
+        this.maxQueuedFrames = ConfigUtil.getInt("issue.events.max.queued.frames", 256);
+    }
+
+    public static IssueEventBroker getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Schedule the poll, which first starts publishing from the current end of issue_timeline,
+     * and the heartbeat
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "civicpulse-issue-events");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollQuietly, 0, pollMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::sendHeartbeats,
+                heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop polling and close every connection; clients reconnect to another node
+     */
+    public void stop() {
+        List<Subscriber> open;
+        synchronized (this) {
+            if (scheduler == null) {
+                return;
+            }
+            running = false;
+            scheduler.shutdownNow();
+            scheduler = null;
+            open = new ArrayList<>(subscribers);
+        }
+        for (Subscriber subscriber : open) {
+            subscriber.close();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public synchronized boolean hasCapacity() {
+        return subscribers.size() < maxSubscribers;
+    }
+
+    /**
+     * Stream events for the issues and/or department over the started async request
+     * @param lastEventId ID of the last event the client received, or null for only new events
+     */
+    public void open(AsyncContext async, Set<String> issueIds, Integer deptId, Long lastEventId)
+            throws IOException {
+        async.setTimeout(maxConnectionMillis);
+        Subscriber subscriber = new Subscriber(this, async, issueIds, deptId);
+        async.addListener(subscriber);
+
+        synchronized (this) {
+            subscribers.add(subscriber);
+            for (String issueId : issueIds) {
+                byIssue.computeIfAbsent(issueId, id -> new HashSet<>()).add(subscriber);
+            }
+            if (deptId != null) {
+                byDept.computeIfAbsent(deptId, id -> new HashSet<>()).add(subscriber);
+            }
+
+            // Queued before the stream starts; written once the container reports it writable
+            subscriber.send(("retry: " + retryMillis + "\n\n").getBytes(StandardCharsets.UTF_8));
+            if (lastEventId != null) {
+                if (lastEventId < maxEvictedId) {
+                    subscriber.send(RESET);
+                }
+                List<BufferedEvent> missed = new ArrayList<>();
+                for (BufferedEvent event : buffered.values()) {
+                    if (event.eventId > lastEventId && subscriber.matches(event)) {
+                        missed.add(event);
+                    }
+                }
+                missed.sort(Comparator.comparingLong(event -> event.eventId));
+                for (BufferedEvent event : missed) {
+                    subscriber.send(event.frame);
+                }
+            }
+        }
+
+        async.getResponse().getOutputStream().setWriteListener(subscriber);
+    }
+
+    /**
+     * Deliver an event to its issue's and department's subscribers, once per event ID
+     */
+    public void publish(IssueEvent event) {
+        if (!running) {
+            return;
+        }
+        synchronized (this) {
+            // Already sent, or so old it may have been sent and evicted
+            if (buffered.containsKey(event.getEventId()) || event.getEventId() <= maxEvictedId) {
+                return;
+            }
+            BufferedEvent bufferedEvent = new BufferedEvent(event.getEventId(), event.getIssueId(),
+                    event.getDeptId(), encode(event));
+            addToRing(bufferedEvent);
+
+            Set<Subscriber> issueSubscribers = byIssue.get(event.getIssueId());
+            Set<Subscriber> deptSubscribers = event.getDeptId() != null ? byDept.get(event.getDeptId()) : null;
+            // Copied because a failing send unsubscribes
+            Set<Subscriber> targets = Collections.newSetFromMap(new IdentityHashMap<>());
+            if (issueSubscribers != null) {
+                targets.addAll(issueSubscribers);
+            }
+            if (deptSubscribers != null) {
+                targets.addAll(deptSubscribers);
+            }
+            for (Subscriber subscriber : targets) {
+                subscriber.send(bufferedEvent.frame);
+            }
+        }
+        publishedCount.incrementAndGet();
+    }
+
+    private void addToRing(BufferedEvent event) {
+        if (ringSize == ring.length) {
+            BufferedEvent evicted = ring[ringStart];
+            buffered.remove(evicted.eventId);
+            maxEvictedId = Math.max(maxEvictedId, evicted.eventId);
+            ring[ringStart] = event;
+            ringStart = (ringStart + 1) % ring.length;
+        } else {
+            ring[(ringStart + ringSize) % ring.length] = event;
+            ringSize++;
+        }
+        buffered.put(event.eventId, event);
+    }
+
+    private byte[] encode(IssueEvent event) {
+        return ("id: " + event.getEventId() + "\nevent: status\ndata: " + gson.toJson(event) + "\n\n")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private synchronized void unsubscribe(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        for (String issueId : subscriber.issueIds) {
+            removeFrom(byIssue, issueId, subscriber);
+        }
+        if (subscriber.deptId != null) {
+            removeFrom(byDept, subscriber.deptId, subscriber);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Subscriber>> index, K key, Subscriber subscriber) {
+        Set<Subscriber> set = index.get(key);
+        if (set != null && set.remove(subscriber) && set.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Publish timeline entries committed since the last poll, by any node
+     */
+    private void poll() throws SQLException {
+        long now = System.currentTimeMillis();
+
+        if (watermarkHistory.isEmpty()) {
+            long startId = timelineDAO.findMaxId();
+            watermark = startId;
+            watermarkHistory.addLast(new long[] {now, startId});
+            synchronized (this) {
+                // Nothing before startup is buffered
+                maxEvictedId = Math.max(maxEvictedId, startId);
+            }
+            running = true;
+            return;
+        }
+
+        // Re-read from the watermark as it was settleMillis ago
+        while (watermarkHistory.size() > 1) {
+            long[] oldest = watermarkHistory.pollFirst();
+            if (watermarkHistory.peekFirst()[0] > now - settleMillis) {
+                watermarkHistory.addFirst(oldest);
+                break;
+            }
+        }
+        long after = watermarkHistory.peekFirst()[1];
+
+        while (true) {
+            List<IssueEvent> events = timelineDAO.findEventsAfter(after, POLL_BATCH_SIZE);
+            for (IssueEvent event : events) {
+                publish(event);
+                watermark = Math.max(watermark, event.getEventId());
+            }
+            if (events.size() < POLL_BATCH_SIZE) {
+                break;
+            }
+            after = events.get(events.size() - 1).getEventId();
+        }
+        watermarkHistory.addLast(new long[] {now, watermark});
+    }
+
+    /**
+     * Comment frames keep idle connections open through proxies and reveal dead ones
+     */
+    private void sendHeartbeats() {
+        List<Subscriber> open;
+        synchronized (this) {
+            open = new ArrayList<>(subscribers);
+        }
+        for (Subscriber subscriber : open) {
+            subscriber.send(HEARTBEAT);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("running", running);
+            stats.put("subscribers", subscribers.size());
+            stats.put("issuesWatched", byIssue.size());
+            stats.put("departmentsWatched", byDept.size());
+            stats.put("bufferedEvents", ringSize);
+        }
+        stats.put("published", publishedCount.get());
+        stats.put("droppedSlowClients", droppedCount.get());
+        return stats;
+    }
+
+    private static final class BufferedEvent {
+        final long eventId;
+        final String issueId;
+        final Integer deptId;
+        final byte[] frame;
+
+        BufferedEvent(long eventId, String issueId, Integer deptId, byte[] frame) {
+            this.eventId = eventId;
+            this.issueId = issueId;
+            this.deptId = deptId;
+            this.frame = frame;
+        }
+    }
+
+    /**
+     * One open event stream. Frames are queued and written only while the
+     * output stream reports it can take them without blocking.
+     */
+    private static final class Subscriber implements WriteListener, AsyncListener {
+        private final IssueEventBroker broker;
+        private final AsyncContext async;
+        private final Set<String> issueIds;
+        private final Integer deptId;
+
+        private final ArrayDeque<byte[]> queue = new ArrayDeque<>(); // guarded by this
+        private boolean writable; // set once the container has called onWritePossible
+        private boolean unflushed;
+        private boolean closed;
+
+        Subscriber(IssueEventBroker broker, AsyncContext async, Set<String> issueIds, Integer deptId) {
+            this.broker = broker;
+            this.async = async;
+            this.issueIds = issueIds;
+            this.deptId = deptId;
+        }
+
+        boolean matches(BufferedEvent event) {
+            return issueIds.contains(event.issueId) || (deptId != null && deptId.equals(event.deptId));
+        }
+
+        void send(byte[] frame) {
+            boolean overflow;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                overflow = queue.size() >= broker.maxQueuedFrames;
+                if (!overflow) {
+                    queue.addLast(frame);
+                }
+            }
+            if (overflow) {
+                broker.droppedCount.incrementAndGet();
+                close();
+            } else {
+                drain();
+            }
+        }
+
+        private void drain() {
+            boolean failed = false;
+            synchronized (this) {
+                if (closed || !writable) {
+                    return;
+                }
+                try {
+                    ServletOutputStream out = async.getResponse().getOutputStream();
+                    while (out.isReady()) {
+                        byte[] frame = queue.pollFirst();
+                        if (frame != null) {
+                            out.write(frame);
+                            unflushed = true;
+                        } else if (unflushed) {
+                            unflushed = false;
+                            out.flush();
+                        } else {
+                            break;
+                        }
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    failed = true;
+                }
+            }
+            if (failed) {
+                close();
+            }
+        }
+
+        void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                queue.clear();
+            }
+            broker.unsubscribe(this);
+            try {
+                async.complete();
+            } catch (IllegalStateException e) {
+                // Already completed by the container
+            }
+        }
+
+        @Override
+        public void onWritePossible() {
+            synchronized (this) {
+                writable = true;
+            }
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            close();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // Connection lifetime reached; the client reconnects with Last-Event-ID
+            close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
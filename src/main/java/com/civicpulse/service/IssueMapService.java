@@ -0,0 +1,135 @@
+package com.civicpulse.service;
+
+import com.civicpulse.util.ConfigUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Map viewport queries answered from the in-memory open issue index.
+ *
+ * At low zoom the viewport is summarized as clusters: index cells are merged
+ * into power-of-two blocks roughly an eighth of a map tile wide (wider if
+ * needed to stay under the result cap), so the work depends on the number of
+ * occupied cells in view, not on the number of issues. At high zoom, or when
+ * few enough issues are in view, individual issues are returned instead.
+ */
+public class IssueMapService {
+
+    private static final int MAX_ZOOM = 22;
+    private static final int MAX_CLUSTER_FACTOR = 1 << 16; // cluster wider than the globe
+
+    private final OpenIssueIndex openIssueIndex;
+    private final int maxResults;
+    private final int maxClusterZoom;
+
+    public IssueMapService() {
+        this.openIssueIndex = OpenIssueIndex.getInstance();
+
+        this.maxResults = ConfigUtil.getInt("map.max.results", 500);
+        this.maxClusterZoom = ConfigUtil.getInt("map.cluster.max.zoom", 15);
+    }
+
+    public boolean isReady() {
+        return openIssueIndex.isReady();
+    }
+
+    /**
+     * Clusters or individual open issues inside the viewport
+     * @param category optional category filter
+     * @throws IllegalArgumentException if the box or zoom is out of range
+     */
+    public Map<String, Object> getMapView(String category, double minLat, double maxLat,
+            double minLng, double maxLng, int zoom) {
+        if (minLat > maxLat || minLng > maxLng) {
+            throw new IllegalArgumentException("Bounding box minimum exceeds maximum");
+        }
+        if (minLat < -90 || maxLat > 90 || minLng < -180 || maxLng > 180) {
+            throw new IllegalArgumentException("Bounding box outside valid coordinates");
+        }
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new IllegalArgumentException("Zoom must be between 0 and " + MAX_ZOOM);
+        }
+
+        if (zoom > maxClusterZoom) {
+            int[] total = {0};
+            openIssueIndex.forEachCellInBox(category, minLat, maxLat, minLng, maxLng,
+                    (row, col, count, sumLat, sumLng) -> total[0] += count);
+            if (total[0] <= maxResults) {
+                return issuesView(category, minLat, maxLat, minLng, maxLng);
+            }
+        }
+        return clusterView(category, minLat, maxLat, minLng, maxLng, zoom);
+    }
+
+    private Map<String, Object> issuesView(String category, double minLat, double maxLat,
+            double minLng, double maxLng) {
+        List<Map<String, Object>> issues = new ArrayList<>();
+        openIssueIndex.forEachInBox(category, minLat, maxLat, minLng, maxLng, (issueCategory, id, lat, lng) -> {
+            // The index can grow between the count and this scan
+            if (issues.size() < maxResults) {
+                Map<String, Object> issue = new LinkedHashMap<>();
+                issue.put("issueId", id);
+                issue.put("category", issueCategory);
+                issue.put("lat", lat);
+                issue.put("lng", lng);
+                issues.add(issue);
+            }
+        });
+
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("mode", "issues");
+        view.put("issues", issues);
+        return view;
+    }
+
+    private Map<String, Object> clusterView(String category, double minLat, double maxLat,
+            double minLng, double maxLng, int zoom) {
+        double cellSize = openIssueIndex.getCellSizeDeg();
+
+        // About an eighth of a 256px tile per cluster at this zoom
+        double targetDeg = 360.0 / (1L << (zoom + 3));
+        int factor = 1;
+        while (cellSize * factor < targetDeg) {
+            factor *= 2;
+        }
+        // Coarsen further until the viewport cannot hold more clusters than the cap
+        while (factor < MAX_CLUSTER_FACTOR && clusterSlots(minLat, maxLat, cellSize * factor)
+                * clusterSlots(minLng, maxLng, cellSize * factor) > maxResults) {
+            factor *= 2;
+        }
+
+        int clusterFactor = factor;
+        Map<Long, double[]> clusters = new HashMap<>();
+        openIssueIndex.forEachCellInBox(category, minLat, maxLat, minLng, maxLng, (row, col, count, sumLat, sumLng) -> {
+            long key = ((long) Math.floorDiv(row, clusterFactor) << 32)
+                    | (Math.floorDiv(col, clusterFactor) & 0xFFFFFFFFL);
+            double[] totals = clusters.computeIfAbsent(key, k -> new double[3]);
+            totals[0] += count;
+            totals[1] += sumLat;
+            totals[2] += sumLng;
+        });
+
+        List<Map<String, Object>> result = new ArrayList<>(clusters.size());
+        for (double[] totals : clusters.values()) {
+            Map<String, Object> cluster = new LinkedHashMap<>();
+            cluster.put("lat", totals[1] / totals[0]);
+            cluster.put("lng", totals[2] / totals[0]);
+            cluster.put("count", (long) totals[0]);
+            result.add(cluster);
+        }
+
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("mode", "clusters");
+        view.put("clusterSizeDeg", cellSize * clusterFactor);
+        view.put("clusters", result);
+        return view;
+    }
+
+    private static long clusterSlots(double min, double max, double clusterDeg) {
+        return (long) Math.floor(max / clusterDeg) - (long) Math.floor(min / clusterDeg) + 1;
+    }
+}
@@ -2,81 +2,182 @@ package com.civicpulse.service;
 
 import com.civicpulse.dao.*;
 import com.civicpulse.model.Issue;
+import com.civicpulse.model.IssueEvent;
+import com.civicpulse.model.IssueFilter;
+import com.civicpulse.model.IssuePage;
 import com.civicpulse.model.IssueTimeline;
+import com.civicpulse.util.ConfigUtil;
+import com.civicpulse.util.DatabaseUtil;
 import com.civicpulse.util.GeoUtil;
 import com.civicpulse.util.IssueIdGenerator;
+import com.civicpulse.util.NodeId;
+import com.civicpulse.util.PageCursor;
+import com.civicpulse.util.SingleFlight;
+import com.civicpulse.util.StripedLock;
 
+import java.io.IOException;
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.Lock;
 
 public class IssueService {
 
     private final IssueDAO issueDAO;
     private final CitizenIssueMapDAO citizenIssueMapDAO;
     private final IssueTimelineDAO timelineDAO;
-    private final DepartmentDAO departmentDAO;
+    private final DedupeLockDAO dedupeLockDAO;
+    private final OpenIssueIndex openIssueIndex;
+    private final AnalyticsEngine analyticsEngine;
+    private final SlaTracker slaTracker;
+    private final HeatmapService heatmapService;
+    private final ReportCountCoalescer reportCountCoalescer;
+    private final EntityCaches entityCaches;
+    private final IssueEventBroker issueEventBroker;
 
-    private static final double DUPLICATE_RADIUS_KM = 0.1; // 100 meters
+    private static final double DUPLICATE_RADIUS_KM = ConfigUtil.getDouble("duplicate.geo.radius.km", 0.1);
+
+    // Duplicate searches lock every cell their radius box touches (at most 2x2 at 100 m)
+    private static final double DEDUPE_CELL_DEG = 0.002;
+
+    // Allowance for clock differences between nodes when comparing creation times
+    private static final long CLOCK_SKEW_MARGIN_MS = 60_000;
+
+    // Shared by every IssueService instance: servlets each create their own
+    private static final StripedLock REPORT_LOCKS = new StripedLock(256);
+
+    // Statuses each target status may be entered from; enforced by the UPDATE itself
+    private static final Map<String, List<String>> ALLOWED_FROM = Map.of(
+            "ASSIGNED", List.of("REPORTED", "ASSIGNED", "IN_PROGRESS"),
+            "IN_PROGRESS", List.of("ASSIGNED", "IN_PROGRESS"),
+            "RESOLVED", List.of("REPORTED", "ASSIGNED", "IN_PROGRESS"));
+
+    // Concurrent track lookups of one issue share a single load; shared by every instance
+    private static final SingleFlight<String, Map<String, Object>> DETAILS_FLIGHTS = new SingleFlight<>();
+    private static final SingleFlight<String, IssueVersion> VERSION_FLIGHTS = new SingleFlight<>();
+
+    // Conditional updates that lose a race re-read and retry this many times in total
+    private static final int MAX_TRANSITION_ATTEMPTS = 3;
+
+    // Report transactions rolled back as deadlock victims run this many times in total
+    private static final int MAX_REPORT_ATTEMPTS = 3;
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
 
     public IssueService() {
         this.issueDAO = new IssueDAO();
         this.citizenIssueMapDAO = new CitizenIssueMapDAO();
         this.timelineDAO = new IssueTimelineDAO();
-        this.departmentDAO = new DepartmentDAO();
+        this.dedupeLockDAO = new DedupeLockDAO();
+        this.openIssueIndex = OpenIssueIndex.getInstance();
+        this.analyticsEngine = AnalyticsEngine.getInstance();
+        this.slaTracker = SlaTracker.getInstance();
+        this.heatmapService = HeatmapService.getInstance();
+        this.reportCountCoalescer = ReportCountCoalescer.getInstance();
+        this.entityCaches = EntityCaches.getInstance();
+        this.issueEventBroker = IssueEventBroker.getInstance();
     }
 
     /**
      * Report a new issue with intelligent duplicate detection
      * Returns map with: issueId, merged (boolean), reportCount
+     * Runs as one transaction so the lookup and merge/create commit together
      */
     public Map<String, Object> reportIssue(Issue newIssue, int citizenId) throws SQLException {
-        Map<String, Object> result = new HashMap<>();
+        // Taken before any lock or transaction: leasing a new ID block needs a pooled
+        // connection of its own, which must never be waited for while holding one
+        String issueId = IssueIdGenerator.generateIssueId(newIssue.getCategory());
+
+        // Reports whose duplicate searches overlap share a cell key and so run one at a
+        // time: in-process first (waiting here holds no connection), then across nodes
+        // via the dedupe_locks rows. The locks are held until the transaction commits.
+        List<String> lockKeys = dedupeLockKeys(newIssue);
+        List<Lock> held = REPORT_LOCKS.lockAll(lockKeys);
+        Map<String, Object> result;
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    result = DatabaseUtil.inTransaction(() -> doReportIssue(newIssue, issueId, citizenId, lockKeys));
+                    break;
+                } catch (SQLException e) {
+                    // Chosen as a deadlock victim by another node; everything was rolled back
+                    if (!DatabaseUtil.isSerializationFailure(e) || attempt >= MAX_REPORT_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            StripedLock.unlockAll(held);
+        }
 
-        // Find potential duplicates
-        double[] boundingBox = GeoUtil.getBoundingBox(
-                newIssue.getLocationLat(),
-                newIssue.getLocationLng(),
-                DUPLICATE_RADIUS_KM);
+        if (Boolean.TRUE.equals(result.get("merged"))) {
+            IssueIdGenerator.release(issueId);
+        }
+        return result;
+    }
 
-        List<Issue> candidates = issueDAO.findNearbyIssues(
-                newIssue.getCategory(),
-                newIssue.getLocationLat(),
-                newIssue.getLocationLng(),
-                boundingBox[0], // minLat
-                boundingBox[1], // maxLat
-                boundingBox[2], // minLng
-                boundingBox[3] // maxLng
-        );
+    /**
+     * Sorted CATEGORY:row:col keys of the grid cells covered by the duplicate search
+     * box; any two reports within the duplicate radius share at least one
+     */
+    private static List<String> dedupeLockKeys(Issue issue) {
+        double[] box = GeoUtil.getBoundingBox(issue.getLocationLat(), issue.getLocationLng(), DUPLICATE_RADIUS_KM);
+        int minRow = (int) Math.floor(box[0] / DEDUPE_CELL_DEG);
+        int maxRow = (int) Math.floor(box[1] / DEDUPE_CELL_DEG);
+        int minCol = (int) Math.floor(box[2] / DEDUPE_CELL_DEG);
+        int maxCol = (int) Math.floor(box[3] / DEDUPE_CELL_DEG);
+
+        List<String> keys = new ArrayList<>();
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                keys.add(issue.getCategory() + ":" + row + ":" + col);
+            }
+        }
+        keys.sort(null);
+        return keys;
+    }
 
-        // Check for exact duplicate
-        Issue duplicate = findDuplicate(newIssue, candidates);
+    private Map<String, Object> doReportIssue(Issue newIssue, String issueId, int citizenId,
+            List<String> lockKeys) throws SQLException {
+        Map<String, Object> result = new HashMap<>();
 
-        if (duplicate != null) {
-            // Merge with existing issue
-            issueDAO.incrementReportCount(duplicate.getIssueId());
-            citizenIssueMapDAO.create(citizenId, duplicate.getIssueId());
+        // The index only lacks issues other nodes created since it was loaded; if any
+        // were created in this area, ask the database instead
+        String nodeId = NodeId.get();
+        long knownBefore = openIssueIndex.isReady()
+                ? openIssueIndex.getLoadStartedAt() - CLOCK_SKEW_MARGIN_MS : Long.MAX_VALUE;
+        boolean indexCurrent = dedupeLockDAO.lock(lockKeys, nodeId, knownBefore);
 
-            // Refresh issue to get updated report count
-            Issue updated = issueDAO.findById(duplicate.getIssueId());
+        // Find the closest open issue of the same category within the duplicate radius
+        String duplicateId = findDuplicateId(newIssue, indexCurrent);
 
-            result.put("issueId", duplicate.getIssueId());
+        if (duplicateId != null) {
+            // Merge with existing issue; the count and citizen mapping are written in batches,
+            // and only a committed report is queued for them
+            int reportCount = reportCountCoalescer.projectedCount(duplicateId, citizenId);
+            DatabaseUtil.afterCommit(() -> reportCountCoalescer.recordMerge(duplicateId, citizenId));
+
+            result.put("issueId", duplicateId);
             result.put("merged", true);
-            result.put("reportCount", updated.getReportCount());
+            result.put("reportCount", reportCount);
             result.put("message", "Your issue has been merged with an existing report");
 
         } else {
             // Create new issue
-            String issueId = IssueIdGenerator.generateIssueId(newIssue.getCategory());
             newIssue.setIssueId(issueId);
             newIssue.setStatus("REPORTED");
             newIssue.setReportCount(1);
 
             issueDAO.create(newIssue);
             citizenIssueMapDAO.create(citizenId, issueId);
+            dedupeLockDAO.markCreated(lockKeys,
+                    indexCurrent ? nodeId : DedupeLockDAO.SHARED_NODE_ID, System.currentTimeMillis());
 
             // Create timeline entry
             IssueTimeline timeline = new IssueTimeline();
@@ -86,6 +187,13 @@ public class IssueService {
             timeline.setRemarks("Issue reported by citizen");
             timelineDAO.create(timeline);
 
+            DatabaseUtil.afterCommit(() -> {
+                openIssueIndex.add(newIssue);
+                analyticsEngine.recordCreated(newIssue.getCategory());
+                heatmapService.recordCreated(issueId, newIssue.getCategory(),
+                        newIssue.getLocationLat(), newIssue.getLocationLng());
+            });
+
             result.put("issueId", issueId);
             result.put("merged", false);
             result.put("reportCount", 1);
@@ -96,9 +204,55 @@ public class IssueService {
     }
 
     /**
-     * Find duplicate issue based on category, location, and status
+     * Find the nearest open issue of the same category within the duplicate radius.
+     * Answered from the in-memory index when it is loaded and current for this area,
+     * and the candidate is confirmed open in the database.
+     */
+    private String findDuplicateId(Issue newIssue, boolean indexCurrent) throws SQLException {
+        if (indexCurrent && openIssueIndex.isReady()) {
+            String nearest = openIssueIndex.findNearest(
+                    newIssue.getCategory(),
+                    newIssue.getLocationLat(),
+                    newIssue.getLocationLng(),
+                    DUPLICATE_RADIUS_KM);
+
+            // The index only hears of resolutions made on this node before the next
+            // resync; a candidate resolved elsewhere is dropped and the database asked
+            if (nearest == null || issueDAO.lockIfOpen(nearest)) {
+                return nearest;
+            }
+            openIssueIndex.remove(nearest);
+        }
+
+        double[] boundingBox = GeoUtil.getBoundingBox(
+                newIssue.getLocationLat(),
+                newIssue.getLocationLng(),
+                DUPLICATE_RADIUS_KM);
+
+        List<Issue> candidates = issueDAO.findNearbyIssues(
+                newIssue.getCategory(),
+                newIssue.getLocationLat(),
+                newIssue.getLocationLng(),
+                boundingBox[0], // minLat
+                boundingBox[1], // maxLat
+                boundingBox[2], // minLng
+                boundingBox[3] // maxLng
+        );
+
+        Issue duplicate = findDuplicate(newIssue, candidates);
+        return duplicate != null ? duplicate.getIssueId() : null;
+    }
+
+    /**
+     * Find duplicate issue based on category, location, and status.
+     * Picks the nearest candidate (smallest ID on ties) so merges are deterministic.
      */
     private Issue findDuplicate(Issue newIssue, List<Issue> candidates) {
+        GeoUtil.RadiusKernel kernel = new GeoUtil.RadiusKernel(
+                newIssue.getLocationLat(), newIssue.getLocationLng(), DUPLICATE_RADIUS_KM);
+        Issue nearest = null;
+        double nearestProximity = Double.POSITIVE_INFINITY;
+
         for (Issue candidate : candidates) {
             // Check if same category (already filtered in query)
             // Check if not resolved
@@ -106,32 +260,42 @@ public class IssueService {
                 continue;
             }
 
-            // Check geo-proximity
-            boolean isNearby = GeoUtil.isWithinRadius(
-                    candidate.getLocationLat(),
-                    candidate.getLocationLng(),
-                    newIssue.getLocationLat(),
-                    newIssue.getLocationLng(),
-                    DUPLICATE_RADIUS_KM);
+            // Check geo-proximity (+Infinity when outside the radius)
+            double proximity = kernel.proximity(candidate.getLocationLat(), candidate.getLocationLng());
+            if (proximity == Double.POSITIVE_INFINITY) {
+                continue;
+            }
 
-            if (isNearby) {
-                return candidate;
+            if (proximity < nearestProximity || (proximity == nearestProximity
+                    && candidate.getIssueId().compareTo(nearest.getIssueId()) < 0)) {
+                nearest = candidate;
+                nearestProximity = proximity;
             }
         }
 
-        return null;
+        return nearest;
     }
 
     /**
-     * Get issue details with timeline
+     * Get issue details with timeline. Concurrent calls for the same issue share one load;
+     * each caller gets its own map, but the issue and timeline in it are shared and read-only.
      */
     public Map<String, Object> getIssueDetails(String issueId) throws SQLException {
-        Issue issue = issueDAO.findById(issueId);
+        Map<String, Object> details = DETAILS_FLIGHTS.execute(issueId, this::loadIssueDetails);
+        return details != null ? new HashMap<>(details) : null;
+    }
 
-        if (issue == null) {
+    private Map<String, Object> loadIssueDetails(String issueId) throws SQLException {
+        Issue cached = entityCaches.findIssue(issueId);
+
+        if (cached == null) {
             return null;
         }
 
+        // Include merges not yet flushed, on a copy since the cached issue is shared
+        Issue issue = new Issue(cached);
+        issue.setReportCount(issue.getReportCount() + reportCountCoalescer.pendingCount(issueId));
+
         List<IssueTimeline> timeline = timelineDAO.findByIssueId(issueId);
 
         Map<String, Object> result = new HashMap<>();
@@ -140,7 +304,7 @@ public class IssueService {
 
         // Get department name if assigned
         if (issue.getDeptId() != null) {
-            var dept = departmentDAO.findById(issue.getDeptId());
+            var dept = entityCaches.findDepartment(issue.getDeptId());
             if (dept != null) {
                 result.put("departmentName", dept.getDeptName());
             }
@@ -150,41 +314,117 @@ public class IssueService {
     }
 
     /**
-     * Get citizen's reported issues
+     * Version of the issue's track response without building it: the (usually cached)
+     * issue row, queued merges and one index-only timeline lookup
+     * @return null if the issue does not exist
      */
-    public List<Issue> getCitizenIssues(int citizenId) throws SQLException {
-        List<String> issueIds = citizenIssueMapDAO.findIssueIdsByCitizen(citizenId);
-
-        List<Issue> issues = new java.util.ArrayList<>();
-        for (String issueId : issueIds) {
-            Issue issue = issueDAO.findById(issueId);
-            if (issue != null) {
-                issues.add(issue);
-            }
+    public IssueVersion getIssueVersion(String issueId) throws SQLException {
+        return VERSION_FLIGHTS.execute(issueId, this::loadIssueVersion);
+    }
+
+    private IssueVersion loadIssueVersion(String issueId) throws SQLException {
+        Issue issue = entityCaches.findIssue(issueId);
+
+        if (issue == null) {
+            return null;
         }
 
-        return issues;
+        return IssueVersion.of(issue, reportCountCoalescer.pendingCount(issueId),
+                timelineDAO.findLatestId(issueId));
+    }
+
+    /**
+     * Version of a response built by getIssueDetails; equal to getIssueVersion at the same moment
+     */
+    @SuppressWarnings("unchecked")
+    public static IssueVersion versionOf(Map<String, Object> issueDetails) {
+        Issue issue = (Issue) issueDetails.get("issue");
+        int latestTimelineId = 0;
+        for (IssueTimeline entry : (List<IssueTimeline>) issueDetails.get("timeline")) {
+            latestTimelineId = Math.max(latestTimelineId, entry.getTimelineId());
+        }
+        // The issue already includes queued merges
+        return IssueVersion.of(issue, 0, latestTimelineId);
+    }
+
+    /**
+     * Get citizen's reported issues, newest first, one page per call
+     * @param cursor nextCursor from the previous page, or null for the first page
+     */
+    public IssuePage getCitizenIssues(int citizenId, String cursor, int limit) throws SQLException {
+        return issueDAO.findByCitizen(citizenId, PageCursor.decode(cursor), clampPageSize(limit));
+    }
+
+    private static int clampPageSize(int limit) {
+        if (limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
     }
 
     /**
      * Update issue status (Admin/Department)
+     * @throws IllegalArgumentException if the status is not one an issue can be moved to
+     * @throws IllegalStateException if the issue's current status does not allow the move,
+     *         or it kept changing concurrently
      */
     public void updateIssueStatus(String issueId, String newStatus, int updatedBy,
             String remarks, String proofImageUrl) throws SQLException {
-        Issue issue = issueDAO.findById(issueId);
+        List<String> allowedFrom = ALLOWED_FROM.get(newStatus);
+        if (allowedFrom == null) {
+            throw new IllegalArgumentException("Invalid status: " + newStatus);
+        }
+
+        // Each attempt is its own transaction so a retry reads the latest committed row
+        for (int attempt = 1; ; attempt++) {
+            boolean applied = DatabaseUtil.inTransaction(() ->
+                    doUpdateIssueStatus(issueId, newStatus, allowedFrom, updatedBy, remarks, proofImageUrl));
+            if (applied) {
+                return;
+            }
+            if (attempt == MAX_TRANSITION_ATTEMPTS) {
+                throw new IllegalStateException("Issue is being updated concurrently, please retry");
+            }
+        }
+    }
+
+    /**
+     * @return false if the issue changed between the read and the conditional update
+     */
+    private boolean doUpdateIssueStatus(String issueId, String newStatus, List<String> allowedFrom,
+            int updatedBy, String remarks, String proofImageUrl) throws SQLException {
+        Issue issue = entityCaches.findIssue(issueId);
 
         if (issue == null) {
             throw new SQLException("Issue not found");
         }
 
-        // Update issue status
-        issue.setStatus(newStatus);
+        String oldStatus = issue.getStatus();
+        if (!allowedFrom.contains(oldStatus)) {
+            throw new IllegalStateException("Cannot change status from " + oldStatus + " to " + newStatus);
+        }
 
-        if ("RESOLVED".equals(newStatus)) {
-            issue.setResolvedAt(new Timestamp(System.currentTimeMillis()));
+        long resolvedAt = System.currentTimeMillis();
+        boolean resolving = "RESOLVED".equals(newStatus);
+        boolean applied = issueDAO.transitionStatus(issueId, issue.getVersion(), allowedFrom, newStatus,
+                resolving ? new Timestamp(resolvedAt) : null);
+        // Either way the cached row is out of date: changed by this update or by the one it lost to
+        entityCaches.invalidateIssue(issueId);
+        if (!applied) {
+            return false;
         }
 
-        issueDAO.update(issue);
+        // The version check guarantees oldStatus is what this update replaced
+        DatabaseUtil.afterCommit(() -> {
+            analyticsEngine.recordTransition(
+                    issue.getCategory(), oldStatus, issue.getDeptId(), newStatus, issue.getDeptId());
+            heatmapService.recordTransition(issueId, issue.getCategory(),
+                    issue.getLocationLat(), issue.getLocationLng(), oldStatus, newStatus);
+            if (resolving) {
+                openIssueIndex.remove(issueId);
+                slaTracker.recordResolved(issue.getCategory(), issue.getDeptId(), issue.getCreatedAt(), resolvedAt);
+            }
+        });
 
         // Create timeline entry
         IssueTimeline timeline = new IssueTimeline();
@@ -194,24 +434,64 @@ public class IssueService {
         timeline.setRemarks(remarks);
         timeline.setProofImageUrl(proofImageUrl);
         timelineDAO.create(timeline);
+
+        // Other nodes' subscribers get it from the broker's timeline poll
+        DatabaseUtil.afterCommit(() -> issueEventBroker.publish(new IssueEvent(timeline.getTimelineId(),
+                issueId, newStatus, issue.getDeptId(), remarks, System.currentTimeMillis())));
+        return true;
     }
 
     /**
      * Assign issue to department (Admin only)
+     * @throws IllegalStateException if the issue is resolved, or it kept changing concurrently
      */
     public void assignIssueToDepartment(String issueId, int deptId, int adminId) throws SQLException {
-        Issue issue = issueDAO.findById(issueId);
+        for (int attempt = 1; ; attempt++) {
+            boolean applied = DatabaseUtil.inTransaction(() -> doAssignIssueToDepartment(issueId, deptId, adminId));
+            if (applied) {
+                return;
+            }
+            if (attempt == MAX_TRANSITION_ATTEMPTS) {
+                throw new IllegalStateException("Issue is being updated concurrently, please retry");
+            }
+        }
+    }
+
+    /**
+     * @return false if the issue changed between the read and the conditional update
+     */
+    private boolean doAssignIssueToDepartment(String issueId, int deptId, int adminId) throws SQLException {
+        Issue issue = entityCaches.findIssue(issueId);
 
         if (issue == null) {
             throw new SQLException("Issue not found");
         }
 
-        issue.setDeptId(deptId);
-        issue.setStatus("ASSIGNED");
-        issueDAO.update(issue);
+        List<String> allowedFrom = ALLOWED_FROM.get("ASSIGNED");
+        String oldStatus = issue.getStatus();
+        if (!allowedFrom.contains(oldStatus)) {
+            throw new IllegalStateException("Cannot assign an issue that is " + oldStatus);
+        }
+
+        boolean applied = issueDAO.assignDepartment(issueId, issue.getVersion(), allowedFrom, deptId);
+        entityCaches.invalidateIssue(issueId);
+        if (!applied) {
+            return false;
+        }
+
+        Integer oldDeptId = issue.getDeptId();
+        long assignedAt = System.currentTimeMillis();
+        DatabaseUtil.afterCommit(() -> {
+            analyticsEngine.recordTransition(issue.getCategory(), oldStatus, oldDeptId, "ASSIGNED", deptId);
+            heatmapService.recordTransition(issueId, issue.getCategory(),
+                    issue.getLocationLat(), issue.getLocationLng(), oldStatus, "ASSIGNED");
+            if ("REPORTED".equals(oldStatus)) {
+                slaTracker.recordAssigned(issue.getCategory(), deptId, issue.getCreatedAt(), assignedAt);
+            }
+        });
 
         // Create timeline entry
-        var dept = departmentDAO.findById(deptId);
+        var dept = entityCaches.findDepartment(deptId);
         String remarks = "Assigned to " + (dept != null ? dept.getDeptName() : "department");
 
         IssueTimeline timeline = new IssueTimeline();
@@ -220,62 +500,91 @@ public class IssueService {
         timeline.setUpdatedBy(adminId);
         timeline.setRemarks(remarks);
         timelineDAO.create(timeline);
+
+        DatabaseUtil.afterCommit(() -> issueEventBroker.publish(new IssueEvent(timeline.getTimelineId(),
+                issueId, "ASSIGNED", deptId, remarks, System.currentTimeMillis())));
+        return true;
     }
 
     /**
-     * Get all issues (Admin)
+     * Get one page of issues matching the filter (Admin), newest first
+     * @param cursor nextCursor from the previous page, or null for the first page
      */
-    public List<Issue> getAllIssues() throws SQLException {
-        return issueDAO.findAll();
+    public IssuePage getIssues(IssueFilter filter, String cursor, int limit) throws SQLException {
+        return issueDAO.findPage(filter, PageCursor.decode(cursor), clampPageSize(limit));
     }
 
     /**
-     * Get department issues
+     * Stream one page of issues matching the filter to the handler as rows are fetched
+     * @return cursor for the next page, or null on the last page
      */
-    public List<Issue> getDepartmentIssues(int deptId) throws SQLException {
-        return issueDAO.findByDepartment(deptId);
+    public String streamIssues(IssueFilter filter, String cursor, int limit, IssueRowHandler handler)
+            throws SQLException, IOException {
+        return issueDAO.streamPage(filter, PageCursor.decode(cursor), clampPageSize(limit), handler);
     }
 
     /**
-     * Get analytics data (Admin)
+     * Stream every issue matching the filter (Admin export), newest first. Runs on a
+     * dedicated connection: the download can take far longer than any pooled borrow.
      */
-    public Map<String, Object> getAnalytics() throws SQLException {
-        List<Issue> allIssues = issueDAO.findAll();
+    public void exportIssues(IssueFilter filter, IssueRowHandler handler) throws SQLException, IOException {
+        try (Connection conn = DatabaseUtil.openDedicatedConnection()) {
+            issueDAO.streamPage(conn, filter, null, 0, handler);
+        }
+    }
+
+    /**
+     * Get one page of a department's issues; the filter's department is forced to deptId
+     */
+    public IssuePage getDepartmentIssues(int deptId, IssueFilter filter, String cursor, int limit)
+            throws SQLException {
+        filter.setDeptId(deptId);
+        return issueDAO.findPage(filter, PageCursor.decode(cursor), clampPageSize(limit));
+    }
 
-        Map<String, Object> analytics = new HashMap<>();
+    /**
+     * Get analytics data (Admin) from the in-memory counters
+     */
+    public Map<String, Object> getAnalytics() throws SQLException {
+        if (analyticsEngine.isReady()) {
+            return analyticsEngine.snapshot();
+        }
+        return analyticsEngine.loadSnapshot();
+    }
 
-        int total = allIssues.size();
-        int reported = 0, assigned = 0, inProgress = 0, resolved = 0;
-        Map<String, Integer> byCategory = new HashMap<>();
+    /**
+     * Validators for conditional GETs of an issue's track response.
+     *
+     * The ETag covers everything the response can change with: the row version
+     * (status and department), the report count including queued merges, the
+     * newest timeline entry and updated_at. Last-Modified is updated_at, which
+     * only has second precision, so If-None-Match is the reliable check.
+     */
+    public static final class IssueVersion {
+        private final String etag;
+        private final long lastModified;
 
-        for (Issue issue : allIssues) {
-            switch (issue.getStatus()) {
-                case "REPORTED":
-                    reported++;
-                    break;
-                case "ASSIGNED":
-                    assigned++;
-                    break;
-                case "IN_PROGRESS":
-                    inProgress++;
-                    break;
-                case "RESOLVED":
-                    resolved++;
-                    break;
-            }
+        private IssueVersion(String etag, long lastModified) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
 
-            byCategory.put(issue.getCategory(),
-                    byCategory.getOrDefault(issue.getCategory(), 0) + 1);
+        static IssueVersion of(Issue issue, int pendingMerges, int latestTimelineId) {
+            long updatedAt = issue.getUpdatedAt() != null ? issue.getUpdatedAt().getTime() : 0;
+            String etag = "\"" + issue.getVersion() + "-" + (issue.getReportCount() + pendingMerges)
+                    + "-" + latestTimelineId + "-" + Long.toString(updatedAt, 36) + "\"";
+            return new IssueVersion(etag, updatedAt);
         }
 
-        analytics.put("totalIssues", total);
-        analytics.put("reported", reported);
-        analytics.put("assigned", assigned);
-        analytics.put("inProgress", inProgress);
-        analytics.put("resolved", resolved);
-        analytics.put("pending", reported + assigned + inProgress);
-        analytics.put("byCategory", byCategory);
+        public String getEtag() {
+            return etag;
+        }
 
-        return analytics;
+        /**
+         * @return epoch millis, 0 if unknown
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
     }
 }
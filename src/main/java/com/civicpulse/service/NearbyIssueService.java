@@ -0,0 +1,126 @@
+package com.civicpulse.service;
+
+import com.civicpulse.dao.IssueDAO;
+import com.civicpulse.model.Issue;
+import com.civicpulse.util.ConfigUtil;
+import com.civicpulse.util.GeoUtil;
+import com.civicpulse.util.SpatialGrid;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Nearest open issues of a category around a point, so citizens can support an
+ * existing report instead of filing a duplicate.
+ *
+ * The k nearest IDs come from a best-first search over the in-memory open issue
+ * index and only those rows are then loaded by primary key. Until the index
+ * has loaded, the database bounding-box query used for duplicate detection
+ * answers instead.
+ */
+public class NearbyIssueService {
+
+    private final IssueDAO issueDAO;
+    private final OpenIssueIndex openIssueIndex;
+    private final int defaultLimit;
+    private final int maxLimit;
+    private final double defaultRadiusKm;
+    private final double maxRadiusKm;
+
+    public NearbyIssueService() {
+        this.issueDAO = new IssueDAO();
+        this.openIssueIndex = OpenIssueIndex.getInstance();
+
+        this.defaultLimit = ConfigUtil.getInt("nearby.default.k", 5);
+        this.maxLimit = ConfigUtil.getInt("nearby.max.k", 20);
+        this.defaultRadiusKm = ConfigUtil.getDouble("nearby.default.radius.km", 0.5);
+        this.maxRadiusKm = ConfigUtil.getDouble("nearby.max.radius.km", 2.0);
+    }
+
+    /**
+     * Up to k open issues of the category within radiusKm, closest first
+     * @param k number of issues, or 0 for the default
+     * @param radiusKm search radius, or 0 for the default
+     * @throws IllegalArgumentException if the point, k or radius is out of range
+     */
+    public List<Map<String, Object>> findNearby(String category, double lat, double lng, int k, double radiusKm)
+            throws SQLException {
+        if (category == null) {
+            throw new IllegalArgumentException("category is required");
+        }
+        if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            throw new IllegalArgumentException("Location outside valid coordinates");
+        }
+        if (k < 0 || k > maxLimit) {
+            throw new IllegalArgumentException("k must be between 1 and " + maxLimit);
+        }
+        if (radiusKm < 0 || radiusKm > maxRadiusKm) {
+            throw new IllegalArgumentException("radiusKm must be at most " + maxRadiusKm);
+        }
+        int limit = k == 0 ? defaultLimit : k;
+        double radius = radiusKm == 0 ? defaultRadiusKm : radiusKm;
+
+        if (!openIssueIndex.isReady()) {
+            return findNearbyFromDatabase(category, lat, lng, limit, radius);
+        }
+
+        List<SpatialGrid.Neighbor> neighbors = openIssueIndex.findNearestK(category, lat, lng, limit, radius);
+        List<String> ids = new ArrayList<>(neighbors.size());
+        for (SpatialGrid.Neighbor neighbor : neighbors) {
+            ids.add(neighbor.getId());
+        }
+
+        Map<String, Issue> byId = new HashMap<>();
+        for (Issue issue : issueDAO.findByIds(ids)) {
+            byId.put(issue.getIssueId(), issue);
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>(neighbors.size());
+        for (SpatialGrid.Neighbor neighbor : neighbors) {
+            Issue issue = byId.get(neighbor.getId());
+            // Skip issues resolved since the index last saw them
+            if (issue != null && !"RESOLVED".equals(issue.getStatus())) {
+                result.add(toSummary(issue, neighbor.getDistanceKm()));
+            }
+        }
+        return result;
+    }
+
+    private List<Map<String, Object>> findNearbyFromDatabase(String category, double lat, double lng,
+            int limit, double radiusKm) throws SQLException {
+        double[] box = GeoUtil.getBoundingBox(lat, lng, radiusKm);
+        GeoUtil.RadiusKernel kernel = new GeoUtil.RadiusKernel(lat, lng, radiusKm);
+
+        // Candidates come back ordered by projected distance
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Issue issue : issueDAO.findNearbyIssues(category, lat, lng, box[0], box[1], box[2], box[3])) {
+            if (result.size() == limit) {
+                break;
+            }
+            if (kernel.contains(issue.getLocationLat(), issue.getLocationLng())) {
+                result.add(toSummary(issue, kernel.distanceKm(issue.getLocationLat(), issue.getLocationLng())));
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Object> toSummary(Issue issue, double distanceKm) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("issueId", issue.getIssueId());
+        summary.put("category", issue.getCategory());
+        summary.put("status", issue.getStatus());
+        summary.put("address", issue.getAddress());
+        summary.put("description", issue.getDescription());
+        summary.put("imageUrl", issue.getImageUrl());
+        summary.put("reportCount", issue.getReportCount());
+        summary.put("createdAt", issue.getCreatedAt());
+        summary.put("lat", issue.getLocationLat());
+        summary.put("lng", issue.getLocationLng());
+        summary.put("distanceKm", distanceKm);
+        return summary;
+    }
+}
@@ -0,0 +1,228 @@
+package com.civicpulse.service;
+
+import com.civicpulse.dao.IssueDAO;
+import com.civicpulse.model.Issue;
+import com.civicpulse.util.ConfigUtil;
+import com.civicpulse.util.SpatialGrid;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * In-process spatial index of every non-RESOLVED issue, one grid per category.
+ *
+ * Loaded from the database in the background at startup and rebuilt
+ * periodically so issues created on other nodes are picked up; in between,
+ * IssueService keeps it in step on create/resolve. Until the first load
+ * completes {@link #isReady()} is false and callers must use the database.
+ */
+public class OpenIssueIndex {
+
+    // ~550 m cells: a 100 m duplicate search touches at most four cells
+    private static final double CELL_SIZE_DEG = 0.005;
+
+    private static final OpenIssueIndex INSTANCE = new OpenIssueIndex();
+
+    private final IssueDAO issueDAO = new IssueDAO();
+    private final Object mutationLock = new Object();
+    private final long resyncMinutes;
+
+    private volatile Map<String, SpatialGrid> grids = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    private volatile long loadStartedAt; // when the load behind the current index began
+    private List<Consumer<Map<String, SpatialGrid>>> rebuildLog; // guarded by mutationLock
+    private ScheduledExecutorService scheduler;
+
+    private OpenIssueIndex() {
+        this.resyncMinutes = loadResyncMinutes();
+    }
+
+    public static OpenIssueIndex getInstance() {
+        return INSTANCE;
+    }
+
+    private static long loadResyncMinutes() {
+        return ConfigUtil.getLong("spatial.index.resync.minutes", 15);
+    }
+
+    /**
+     * Load the index in the background and schedule periodic resyncs
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "civicpulse-open-issue-index");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::rebuildQuietly, 0, resyncMinutes, TimeUnit.MINUTES);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Start time (epoch millis) of the database load behind the current index;
+     * issues committed before then are in it
+     */
+    public long getLoadStartedAt() {
+        return loadStartedAt;
+    }
+
+    public int size() {
+        int total = 0;
+        for (SpatialGrid grid : grids.values()) {
+            total += grid.size();
+        }
+        return total;
+    }
+
+    /**
+     * Closest open issue of the category within radiusKm, or null
+     */
+    public String findNearest(String category, double lat, double lng, double radiusKm) {
+        SpatialGrid grid = grids.get(category);
+        return grid == null ? null : grid.nearest(lat, lng, radiusKm);
+    }
+
+    /**
+     * Up to k open issues of the category within radiusKm, closest first
+     */
+    public List<SpatialGrid.Neighbor> findNearestK(String category, double lat, double lng, int k, double radiusKm) {
+        SpatialGrid grid = grids.get(category);
+        return grid == null ? List.of() : grid.nearestK(lat, lng, k, radiusKm);
+    }
+
+    /**
+     * Callback for open issues found by a window scan
+     */
+    @FunctionalInterface
+    public interface IssuePointVisitor {
+        void visit(String category, String issueId, double lat, double lng);
+    }
+
+    public double getCellSizeDeg() {
+        return CELL_SIZE_DEG;
+    }
+
+    /**
+     * Visit open issues inside the window; a null category means every category
+     */
+    public void forEachInBox(String category, double minLat, double maxLat, double minLng, double maxLng,
+            IssuePointVisitor visitor) {
+        for (Map.Entry<String, SpatialGrid> entry : grids.entrySet()) {
+            String gridCategory = entry.getKey();
+            if (category == null || category.equals(gridCategory)) {
+                entry.getValue().forEachInBox(minLat, maxLat, minLng, maxLng,
+                        (id, lat, lng) -> visitor.visit(gridCategory, id, lat, lng));
+            }
+        }
+    }
+
+    /**
+     * Visit per-cell counts of open issues inside the window; a null category means every category
+     */
+    public void forEachCellInBox(String category, double minLat, double maxLat, double minLng, double maxLng,
+            SpatialGrid.CellVisitor visitor) {
+        for (Map.Entry<String, SpatialGrid> entry : grids.entrySet()) {
+            if (category == null || category.equals(entry.getKey())) {
+                entry.getValue().forEachCellInBox(minLat, maxLat, minLng, maxLng, visitor);
+            }
+        }
+    }
+
+    /**
+     * Track a newly created (or reopened) issue
+     */
+    public void add(Issue issue) {
+        String id = issue.getIssueId();
+        String category = issue.getCategory();
+        double lat = issue.getLocationLat();
+        double lng = issue.getLocationLng();
+        mutate(target -> gridFor(target, category).put(id, lat, lng));
+    }
+
+    /**
+     * Stop tracking an issue (resolved or deleted)
+     */
+    public void remove(String issueId) {
+        mutate(target -> {
+            for (SpatialGrid grid : target.values()) {
+                if (grid.remove(issueId)) {
+                    return;
+                }
+            }
+        });
+    }
+
+    private void mutate(Consumer<Map<String, SpatialGrid>> mutation) {
+        synchronized (mutationLock) {
+            mutation.accept(grids);
+            if (rebuildLog != null) {
+                rebuildLog.add(mutation);
+            }
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reload every open issue from the database and swap the new index in.
+     * Mutations that arrive while the load runs are replayed onto the new index.
+     */
+    public void rebuild() throws SQLException, IOException {
+        synchronized (mutationLock) {
+            rebuildLog = new ArrayList<>();
+        }
+
+        long startedAt = System.currentTimeMillis();
+        Map<String, SpatialGrid> fresh = new ConcurrentHashMap<>();
+        try {
+            issueDAO.streamOpenIssues(issue -> gridFor(fresh, issue.getCategory())
+                    .put(issue.getIssueId(), issue.getLocationLat(), issue.getLocationLng()));
+        } catch (SQLException | IOException | RuntimeException e) {
+            synchronized (mutationLock) {
+                rebuildLog = null;
+            }
+            throw e;
+        }
+
+        synchronized (mutationLock) {
+            for (Consumer<Map<String, SpatialGrid>> mutation : rebuildLog) {
+                mutation.accept(fresh);
+            }
+            rebuildLog = null;
+            grids = fresh;
+            loadStartedAt = startedAt;
+            ready = true;
+        }
+    }
+
+    private static SpatialGrid gridFor(Map<String, SpatialGrid> target, String category) {
+        return target.computeIfAbsent(category, c -> new SpatialGrid(CELL_SIZE_DEG));
+    }
+}
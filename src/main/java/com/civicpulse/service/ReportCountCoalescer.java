@@ -0,0 +1,250 @@
+package com.civicpulse.service;
+
+import com.civicpulse.dao.CitizenIssueMapDAO;
+import com.civicpulse.dao.IssueDAO;
+import com.civicpulse.util.ConfigUtil;
+import com.civicpulse.util.DatabaseUtil;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batches the writes of duplicate-report merges.
+ *
+ * A merge used to lock the issue row for a report_count + 1 UPDATE, insert the
+ * citizen mapping and re-read the row for the new count, so a viral issue
+ * serialized every reporter on one InnoDB row. Merges are now queued per issue
+ * in memory, once the report's transaction commits, and answered with the
+ * projected count (last flushed count plus distinct queued reporters). Every
+ * report.coalesce.flush.ms the queue of each issue is
+ * written in one short transaction: one multi-row INSERT IGNORE of the
+ * mappings and one UPDATE adding the number actually inserted, so repeat
+ * reporters are still counted once. A crash loses at most one interval of
+ * merges; stop() flushes what is queued.
+ */
+public class ReportCountCoalescer {
+
+    private static final ReportCountCoalescer INSTANCE = new ReportCountCoalescer();
+
+    private static final int UNKNOWN_COUNT = -1;
+
+    private final IssueDAO issueDAO = new IssueDAO();
+    private final CitizenIssueMapDAO citizenIssueMapDAO = new CitizenIssueMapDAO();
+    private final EntityCaches entityCaches = EntityCaches.getInstance();
+    private final long flushMillis;
+    private final long idleMillis;
+
+    private final Map<String, Accumulator> accumulators = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    private ReportCountCoalescer() {
+        this.flushMillis = ConfigUtil.getLong("report.coalesce.flush.ms", 1000);
+        this.idleMillis = TimeUnit.MINUTES.toMillis(
+                ConfigUtil.getLong("report.coalesce.idle.minutes", 10));
+    }
+
+    public static ReportCountCoalescer getInstance() {
+        return INSTANCE;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "civicpulse-report-coalescer");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the background task and write out anything still queued
+     */
+    public void stop() {
+        synchronized (this) {
+            if (scheduler == null) {
+                return;
+            }
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        flushQuietly();
+    }
+
+    /**
+     * Report count the issue will have once the citizen's merge is queued. Queues
+     * nothing, so it is safe inside a transaction that may still roll back; call
+     * {@link #recordMerge(String, int)} after commit.
+     * @throws SQLException if the issue's current count cannot be read
+     */
+    public int projectedCount(String issueId, int citizenId) throws SQLException {
+        while (true) {
+            Accumulator accumulator = accumulators.get(issueId);
+            Integer count = null;
+            if (accumulator == null || !accumulator.hasCount()) {
+                count = issueDAO.findReportCount(issueId);
+                if (count == null) {
+                    throw new SQLException("Issue not found");
+                }
+            }
+            if (accumulator == null) {
+                int loaded = count;
+                accumulator = accumulators.computeIfAbsent(issueId, id -> new Accumulator(loaded));
+            }
+
+            synchronized (accumulator) {
+                // Evicted by flush() between the lookup and the lock; start over
+                if (accumulator.retired) {
+                    continue;
+                }
+                // Only while nothing is being written, so the count cannot include a batch
+                if (accumulator.flushedCount == UNKNOWN_COUNT && count != null && accumulator.inFlight == 0) {
+                    accumulator.flushedCount = count;
+                }
+                // Keeps it from being evicted before the merge is queued
+                accumulator.lastTouched = System.currentTimeMillis();
+
+                int base = accumulator.flushedCount != UNKNOWN_COUNT ? accumulator.flushedCount : count;
+                int queued = accumulator.pending.size() + (accumulator.pending.contains(citizenId) ? 0 : 1);
+                return base + accumulator.inFlight + queued;
+            }
+        }
+    }
+
+    /**
+     * Queue a citizen's report as merged into the issue; a citizen already queued
+     * for it is queued once. Call after the report's transaction commits.
+     */
+    public void recordMerge(String issueId, int citizenId) {
+        while (true) {
+            // Count unknown if evicted since projectedCount(); the next flush reads it
+            Accumulator accumulator = accumulators.computeIfAbsent(issueId, id -> new Accumulator(UNKNOWN_COUNT));
+            synchronized (accumulator) {
+                if (accumulator.retired) {
+                    continue;
+                }
+                accumulator.pending.add(citizenId);
+                accumulator.lastTouched = System.currentTimeMillis();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Merges queued for the issue but not yet written
+     */
+    public int pendingCount(String issueId) {
+        Accumulator accumulator = accumulators.get(issueId);
+        if (accumulator == null) {
+            return 0;
+        }
+        synchronized (accumulator) {
+            return accumulator.pending.size() + accumulator.inFlight;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Write every issue's queued merges, one transaction per issue, and drop
+     * accumulators that have been idle; a failed issue keeps its queue for the next pass
+     */
+    public void flush() throws SQLException {
+        SQLException firstFailure = null;
+        long idleBefore = System.currentTimeMillis() - idleMillis;
+
+        for (Map.Entry<String, Accumulator> entry : accumulators.entrySet()) {
+            String issueId = entry.getKey();
+            Accumulator accumulator = entry.getValue();
+
+            Set<Integer> batch;
+            synchronized (accumulator) {
+                if (accumulator.pending.isEmpty()) {
+                    if (accumulator.lastTouched < idleBefore) {
+                        accumulator.retired = true;
+                        accumulators.remove(issueId, accumulator);
+                    }
+                    continue;
+                }
+                batch = accumulator.pending;
+                accumulator.pending = new LinkedHashSet<>();
+                accumulator.inFlight = batch.size();
+            }
+
+            try {
+                int count = DatabaseUtil.inTransaction(() -> {
+                    int inserted = citizenIssueMapDAO.createAll(issueId, new ArrayList<>(batch));
+                    if (inserted > 0) {
+                        issueDAO.addReportCount(issueId, inserted);
+                        entityCaches.invalidateIssue(issueId);
+                    }
+                    Integer current = issueDAO.findReportCount(issueId);
+                    return current == null ? 0 : current;
+                });
+                synchronized (accumulator) {
+                    accumulator.flushedCount = count;
+                    accumulator.inFlight = 0;
+                }
+            } catch (SQLException | RuntimeException e) {
+                synchronized (accumulator) {
+                    batch.addAll(accumulator.pending);
+                    accumulator.pending = batch;
+                    accumulator.inFlight = 0;
+                }
+                if (firstFailure == null) {
+                    firstFailure = e instanceof SQLException ? (SQLException) e : new SQLException(e);
+                }
+            }
+        }
+
+        if (firstFailure != null) {
+            throw firstFailure;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        int issues = 0;
+        int pending = 0;
+        for (Accumulator accumulator : accumulators.values()) {
+            issues++;
+            synchronized (accumulator) {
+                pending += accumulator.pending.size();
+            }
+        }
+        return Map.of("trackedIssues", issues, "pendingMerges", pending);
+    }
+
+    /**
+     * Distinct citizens queued for one issue and its count as of the last flush
+     */
+    private static final class Accumulator {
+        int flushedCount; // UNKNOWN_COUNT until read or flushed
+        Set<Integer> pending = new LinkedHashSet<>();
+        int inFlight;
+        boolean retired;
+        long lastTouched = System.currentTimeMillis();
+
+        Accumulator(int flushedCount) {
+            this.flushedCount = flushedCount;
+        }
+
+        synchronized boolean hasCount() {
+            return flushedCount != UNKNOWN_COUNT;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.civicpulse.service;
+
+import com.civicpulse.dao.IssueRollupDAO;
+import com.civicpulse.model.TrendPoint;
+import com.civicpulse.util.ConfigUtil;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains the issue_rollups time series behind the trend charts.
+ *
+ * A background task folds new issue_timeline entries into hourly buckets
+ * every few seconds and, once an hour, compacts hourly buckets older than the
+ * retention window into daily ones. Trend queries read only the rollups, so
+ * their cost depends on the number of buckets, not on the number of events.
+ */
+public class RollupService {
+
+    private static final long SECONDS_PER_HOUR = 3600;
+    private static final long SECONDS_PER_DAY = 86400;
+
+    // Upper bounds on buckets per query
+    private static final long MAX_HOURLY_BUCKETS = 24 * 31;
+    private static final long MAX_DAILY_BUCKETS = 366 * 2;
+
+    private static final RollupService INSTANCE = new RollupService();
+
+    private final IssueRollupDAO rollupDAO = new IssueRollupDAO();
+    private final long foldIntervalSeconds;
+    private final int settleSeconds;
+    private final int batchSize;
+    private final int hourlyRetentionDays;
+
+    private long lastCompactionMillis;
+    private ScheduledExecutorService scheduler;
+
+    private RollupService() {
+        this.foldIntervalSeconds = ConfigUtil.getLong("rollup.fold.interval.seconds", 60);
+        this.settleSeconds = ConfigUtil.getInt("rollup.settle.seconds", 60);
+        this.batchSize = ConfigUtil.getInt("rollup.batch.size", 50000);
+        this.hourlyRetentionDays = ConfigUtil.getInt("rollup.hourly.retention.days", 14);
+    }
+
+    public static RollupService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Schedule folding and compaction in the background
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "civicpulse-rollups");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::runQuietly, 0, foldIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private void runQuietly() {
+        try {
+            fold();
+            if (System.currentTimeMillis() - lastCompactionMillis >= SECONDS_PER_HOUR * 1000) {
+                compact();
+                lastCompactionMillis = System.currentTimeMillis();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Fold every settled timeline entry into the hourly rollups, batch by batch
+     * @return number of entries folded
+     */
+    public int fold() throws SQLException {
+        int total = 0;
+        int folded;
+        do {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            folded = rollupDAO.foldTimeline(settleSeconds, batchSize);
+            total += folded;
+        } while (folded == batchSize);
+        return total;
+    }
+
+    /**
+     * Merge hourly buckets older than the retention window into daily buckets
+     * @return number of hourly rows compacted
+     */
+    public int compact() throws SQLException {
+        long today = System.currentTimeMillis() / 1000 / SECONDS_PER_DAY * SECONDS_PER_DAY;
+        return rollupDAO.compactHourly(today - hourlyRetentionDays * SECONDS_PER_DAY);
+    }
+
+    /**
+     * Event counts per bucket over [fromMillis, toMillis)
+     * @param hourly true for hourly buckets (only available within the hourly retention window)
+     * @param groupBy null, "category" or "department"
+     * @throws IllegalArgumentException if the range is empty, too long, or groupBy is unknown
+     */
+    public List<TrendPoint> getTrend(boolean hourly, long fromMillis, long toMillis,
+            String category, Integer deptId, String groupBy) throws SQLException {
+        long bucketSeconds = hourly ? SECONDS_PER_HOUR : SECONDS_PER_DAY;
+        long maxBuckets = hourly ? MAX_HOURLY_BUCKETS : MAX_DAILY_BUCKETS;
+
+        // Align to bucket boundaries so partial buckets are not cut in half
+        long from = Math.floorDiv(fromMillis / 1000, bucketSeconds) * bucketSeconds;
+        long to = Math.floorDiv(toMillis / 1000 + bucketSeconds - 1, bucketSeconds) * bucketSeconds;
+        if (to <= from) {
+            throw new IllegalArgumentException("Range end must be after range start");
+        }
+        if ((to - from) / bucketSeconds > maxBuckets) {
+            throw new IllegalArgumentException("Range too long: at most " + maxBuckets
+                    + (hourly ? " hourly" : " daily") + " buckets");
+        }
+
+        boolean byCategory = false;
+        boolean byDepartment = false;
+        if (groupBy != null && !groupBy.isEmpty()) {
+            switch (groupBy) {
+                case "category":
+                    byCategory = true;
+                    break;
+                case "department":
+                    byDepartment = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid groupBy: " + groupBy);
+            }
+        }
+
+        return rollupDAO.findTrend(hourly, from, to, category, deptId, byCategory, byDepartment);
+    }
+}
@@ -0,0 +1,424 @@
+package com.civicpulse.service;
+
+import com.civicpulse.dao.ResolutionSketchDAO;
+import com.civicpulse.dao.WatermarkDAO;
+import com.civicpulse.model.ResolutionSketch;
+import com.civicpulse.util.ConfigUtil;
+import com.civicpulse.util.DatabaseUtil;
+import com.civicpulse.util.NodeId;
+import com.civicpulse.util.QuantileSketch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Report-to-assignment and report-to-resolution time percentiles per
+ * department and category.
+ *
+ * Each node keeps one {@link QuantileSketch} per (day, metric, category,
+ * department) for the events it handled since its last flush, and periodically
+ * merges them into its rows of resolution_sketches (compact blobs under its own
+ * node ID), so a restarted node with a fixed ID adds to what it stored before.
+ * Reports merge the stored sketches of every node and day in the range (plus
+ * this node's unflushed events), so they never rescan issues or the timeline.
+ * History from before the earliest node started recording is folded in once
+ * by {@link #backfill()}.
+ */
+public class SlaTracker {
+
+    private static final long SECONDS_PER_DAY = 86400;
+    private static final long MAX_REPORT_DAYS = 366;
+    private static final String BACKFILL_WATERMARK = "sla_backfill";
+    private static final String BACKFILL_NODE_ID = "backfill";
+    private static final String LIVE_START_WATERMARK = "sla_live_start";
+
+    private static final SlaTracker INSTANCE = new SlaTracker();
+
+    private final ResolutionSketchDAO sketchDAO = new ResolutionSketchDAO();
+    private final WatermarkDAO watermarkDAO = new WatermarkDAO();
+    private final String nodeId;
+    private final long flushSeconds;
+    private volatile long liveSince; // 0 until this node has registered its start
+
+    // Events recorded since the last flush; guarded by this
+    private Map<SketchKey, QuantileSketch> pending = new HashMap<>();
+    // Serializes flushes with the report's read of pending and stored sketches
+    private final Object flushLock = new Object();
+    private ScheduledExecutorService scheduler;
+
+    private SlaTracker() {
+        this.flushSeconds = ConfigUtil.getLong("sla.sketch.flush.seconds", 60);
+        this.nodeId = NodeId.get();
+    }
+
+    public static SlaTracker getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Register this node's start, back-fill history in the background and
+     * schedule periodic flushes
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "civicpulse-sla-tracker");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.execute(() -> {
+            try {
+                registerLiveStart();
+                backfill();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushSeconds, flushSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop the background task and write out anything not yet persisted
+     */
+    public void stop() {
+        synchronized (this) {
+            if (scheduler == null) {
+                return;
+            }
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        flushQuietly();
+    }
+
+    /**
+     * Record the time from report to first assignment
+     */
+    public void recordAssigned(String category, Integer deptId, Timestamp reportedAt, long assignedAtMillis) {
+        record(ResolutionSketch.METRIC_ASSIGN, category, deptId, reportedAt, assignedAtMillis);
+    }
+
+    /**
+     * Record the time from report to resolution
+     */
+    public void recordResolved(String category, Integer deptId, Timestamp reportedAt, long resolvedAtMillis) {
+        record(ResolutionSketch.METRIC_RESOLVE, category, deptId, reportedAt, resolvedAtMillis);
+    }
+
+    private synchronized void record(String metric, String category, Integer deptId,
+            Timestamp start, long endMillis) {
+        // Events before the node registered are left to the back-fill
+        if (start == null || liveSince == 0 || endMillis < liveSince) {
+            return;
+        }
+        SketchKey key = new SketchKey(dayOf(endMillis), metric, category, deptId == null ? 0 : deptId);
+        pending.computeIfAbsent(key, k -> new QuantileSketch())
+                .add(Math.max(0, endMillis - start.getTime()) / 1000.0);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Merge the events recorded since the last flush into this node's stored
+     * sketches; on failure they are kept for the next flush
+     */
+    public void flush() throws SQLException {
+        synchronized (flushLock) {
+            Map<SketchKey, QuantileSketch> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new HashMap<>();
+            }
+
+            try {
+                DatabaseUtil.inTransaction(() -> {
+                    mergeIntoStored(batch);
+                    return null;
+                });
+            } catch (SQLException | RuntimeException e) {
+                synchronized (this) {
+                    for (Map.Entry<SketchKey, QuantileSketch> entry : batch.entrySet()) {
+                        pending.computeIfAbsent(entry.getKey(), k -> new QuantileSketch()).merge(entry.getValue());
+                    }
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void mergeIntoStored(Map<SketchKey, QuantileSketch> batch) throws SQLException {
+        List<ResolutionSketch> keys = new ArrayList<>(batch.size());
+        for (SketchKey key : batch.keySet()) {
+            keys.add(new ResolutionSketch(nodeId, key.windowStart, key.metric, key.category, key.deptId, null));
+        }
+
+        List<ResolutionSketch> merged = new ArrayList<>(keys.size());
+        for (ResolutionSketch row : sketchDAO.lockAll(keys)) {
+            SketchKey key = new SketchKey(row.getWindowStart(), row.getMetric(), row.getCategory(), row.getDeptId());
+            QuantileSketch sketch = decode(row.getSketch());
+            sketch.merge(batch.get(key));
+            merged.add(new ResolutionSketch(nodeId, key.windowStart, key.metric, key.category, key.deptId,
+                    sketch.toBytes()));
+        }
+        sketchDAO.saveAll(merged);
+    }
+
+    /**
+     * Stored sketch blob; rows just created by {@link ResolutionSketchDAO#lockAll} are empty
+     */
+    private static QuantileSketch decode(byte[] data) {
+        if (data.length == 0) {
+            return new QuantileSketch();
+        }
+        try {
+            return QuantileSketch.fromBytes(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Start recording live events, and lower the cluster-wide live start to now
+     * if no node registered earlier. The back-fill ends at that point, so no event
+     * is both back-filled and recorded live by a node that started before it ran.
+     */
+    void registerLiveStart() throws SQLException {
+        long now = DatabaseUtil.inTransaction(() -> {
+            long registeredAt = System.currentTimeMillis();
+            long earliest = watermarkDAO.lock(LIVE_START_WATERMARK);
+            if (earliest == 0 || registeredAt < earliest) {
+                watermarkDAO.update(LIVE_START_WATERMARK, registeredAt);
+            }
+            return registeredAt;
+        });
+        liveSince = now;
+    }
+
+    /**
+     * Build sketches for every assignment and resolution before the earliest
+     * registered live start and store them under a shared node ID. Runs once per
+     * database: the first node to take the watermark lock does the work.
+     */
+    public void backfill() throws SQLException {
+        DatabaseUtil.inTransaction(() -> {
+            if (watermarkDAO.lock(BACKFILL_WATERMARK) != 0) {
+                return null;
+            }
+            // Locked until commit, so no node can register an earlier start meanwhile
+            long cutoff = watermarkDAO.lock(LIVE_START_WATERMARK);
+            if (cutoff == 0) {
+                return null;
+            }
+
+            Map<SketchKey, QuantileSketch> history = new HashMap<>();
+            sketchDAO.forEachHistoricalDuration(new Timestamp(cutoff), (metric, category, deptId, start, end) -> {
+                if (start == null || end == null) {
+                    return;
+                }
+                SketchKey key = new SketchKey(dayOf(end.getTime()), metric, category, deptId == null ? 0 : deptId);
+                history.computeIfAbsent(key, k -> new QuantileSketch())
+                        .add(Math.max(0, end.getTime() - start.getTime()) / 1000.0);
+            });
+
+            List<ResolutionSketch> rows = new ArrayList<>();
+            for (Map.Entry<SketchKey, QuantileSketch> entry : history.entrySet()) {
+                SketchKey key = entry.getKey();
+                rows.add(new ResolutionSketch(BACKFILL_NODE_ID, key.windowStart, key.metric, key.category,
+                        key.deptId, entry.getValue().toBytes()));
+            }
+            if (!rows.isEmpty()) {
+                sketchDAO.saveAll(rows);
+            }
+
+            watermarkDAO.update(BACKFILL_WATERMARK, cutoff);
+            return null;
+        });
+    }
+
+    /**
+     * Percentiles per (department, category) and per department over the days
+     * overlapping [fromMillis, toMillis), merged across every node
+     * @throws IllegalArgumentException if the range is empty or longer than a year
+     */
+    public Map<String, Object> getReport(long fromMillis, long toMillis, String category, Integer deptId)
+            throws SQLException, IOException {
+        long from = dayOf(fromMillis);
+        long to = dayOf(toMillis + SECONDS_PER_DAY * 1000 - 1);
+        if (to <= from) {
+            throw new IllegalArgumentException("Range end must be after range start");
+        }
+        if ((to - from) / SECONDS_PER_DAY > MAX_REPORT_DAYS) {
+            throw new IllegalArgumentException("Range too long: at most " + MAX_REPORT_DAYS + " days");
+        }
+
+        // Stored rows plus this node's unflushed events; holding the flush lock keeps
+        // a flush from moving events into the rows between the two reads
+        Map<SketchKey, QuantileSketch> local = new HashMap<>();
+        List<ResolutionSketch> rows;
+        synchronized (flushLock) {
+            synchronized (this) {
+                for (Map.Entry<SketchKey, QuantileSketch> entry : pending.entrySet()) {
+                    SketchKey key = entry.getKey();
+                    if (key.windowStart >= from && key.windowStart < to
+                            && (category == null || category.equals(key.category))
+                            && (deptId == null || deptId == key.deptId)) {
+                        QuantileSketch copy = new QuantileSketch();
+                        copy.merge(entry.getValue());
+                        local.put(key, copy);
+                    }
+                }
+            }
+            rows = sketchDAO.findByWindow(from, to, category, deptId);
+        }
+
+        Map<GroupKey, QuantileSketch[]> byGroup = new TreeMap<>();
+        Map<GroupKey, QuantileSketch[]> byDepartment = new TreeMap<>();
+
+        for (ResolutionSketch row : rows) {
+            SketchKey key = new SketchKey(row.getWindowStart(), row.getMetric(), row.getCategory(), row.getDeptId());
+            add(byGroup, byDepartment, key, decode(row.getSketch()));
+        }
+        for (Map.Entry<SketchKey, QuantileSketch> entry : local.entrySet()) {
+            add(byGroup, byDepartment, entry.getKey(), entry.getValue());
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("from", from * 1000);
+        report.put("to", to * 1000);
+        report.put("byCategory", summarize(byGroup));
+        report.put("byDepartment", summarize(byDepartment));
+        return report;
+    }
+
+    private static void add(Map<GroupKey, QuantileSketch[]> byGroup, Map<GroupKey, QuantileSketch[]> byDepartment,
+            SketchKey key, QuantileSketch sketch) {
+        int slot = ResolutionSketch.METRIC_ASSIGN.equals(key.metric) ? 0 : 1;
+        mergeInto(byGroup, new GroupKey(key.deptId, key.category), slot, sketch);
+        mergeInto(byDepartment, new GroupKey(key.deptId, null), slot, sketch);
+    }
+
+    private static void mergeInto(Map<GroupKey, QuantileSketch[]> target, GroupKey key, int slot,
+            QuantileSketch sketch) {
+        QuantileSketch[] pair = target.computeIfAbsent(key,
+                k -> new QuantileSketch[] {new QuantileSketch(), new QuantileSketch()});
+        pair[slot].merge(sketch);
+    }
+
+    private static List<Map<String, Object>> summarize(Map<GroupKey, QuantileSketch[]> groups) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Map.Entry<GroupKey, QuantileSketch[]> entry : groups.entrySet()) {
+            GroupKey key = entry.getKey();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("deptId", key.deptId == 0 ? null : key.deptId);
+            if (key.category != null) {
+                row.put("category", key.category);
+            }
+            row.put("timeToAssign", percentiles(entry.getValue()[0]));
+            row.put("timeToResolve", percentiles(entry.getValue()[1]));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static Map<String, Object> percentiles(QuantileSketch sketch) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", sketch.getCount());
+        result.put("meanHours", hours(sketch.getMean()));
+        result.put("p50Hours", hours(sketch.quantile(0.5)));
+        result.put("p90Hours", hours(sketch.quantile(0.9)));
+        result.put("p99Hours", hours(sketch.quantile(0.99)));
+        return result;
+    }
+
+    private static Double hours(double seconds) {
+        if (Double.isNaN(seconds)) {
+            return null;
+        }
+        return Math.round(seconds / 36.0) / 100.0;
+    }
+
+    private static long dayOf(long epochMillis) {
+        return Math.floorDiv(epochMillis / 1000, SECONDS_PER_DAY) * SECONDS_PER_DAY;
+    }
+
+    /**
+     * Sketch identity: UTC day, metric, category and department (0 = unassigned)
+     */
+    private static final class SketchKey {
+        final long windowStart;
+        final String metric;
+        final String category;
+        final int deptId;
+
+        SketchKey(long windowStart, String metric, String category, int deptId) {
+            this.windowStart = windowStart;
+            this.metric = metric;
+            this.category = category;
+            this.deptId = deptId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SketchKey)) {
+                return false;
+            }
+            SketchKey other = (SketchKey) o;
+            return windowStart == other.windowStart && deptId == other.deptId
+                    && metric.equals(other.metric) && category.equals(other.category);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(windowStart, metric, category, deptId);
+        }
+    }
+
+    /**
+     * Report row identity; category is null for per-department totals
+     */
+    private static final class GroupKey implements Comparable<GroupKey> {
+        final int deptId;
+        final String category;
+
+        GroupKey(int deptId, String category) {
+            this.deptId = deptId;
+            this.category = category;
+        }
+
+        @Override
+        public int compareTo(GroupKey other) {
+            int byDept = Integer.compare(deptId, other.deptId);
+            if (byDept != 0) {
+                return byDept;
+            }
+            return Comparator.nullsFirst(Comparator.<String>naturalOrder()).compare(category, other.category);
+        }
+    }
+}
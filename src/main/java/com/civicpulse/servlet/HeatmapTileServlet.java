@@ -0,0 +1,86 @@
+package com.civicpulse.servlet;
+
+import com.civicpulse.service.HeatmapService;
+import com.civicpulse.util.JsonUtil;
+import com.civicpulse.util.RequestUtil;
+import com.google.gson.Gson;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Heatmap tiles: /api/issues/heatmap/{z}/{x}/{y}.png or .bin
+ */
+@WebServlet("/api/issues/heatmap/*")
+public class HeatmapTileServlet extends HttpServlet {
+
+    private static final Pattern TILE_PATH = Pattern.compile("^/(\\d{1,2})/(\\d{1,9})/(\\d{1,9})\\.(png|bin)$");
+
+    private final HeatmapService heatmapService = HeatmapService.getInstance();
+    private final Gson gson = JsonUtil.GSON;
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        try {
+            if (!heatmapService.isReady()) {
+                writeError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                        "Heatmap is still loading, please retry shortly");
+                response.setHeader("Retry-After", "5");
+                return;
+            }
+
+            String pathInfo = request.getPathInfo();
+            Matcher matcher = TILE_PATH.matcher(pathInfo == null ? "" : pathInfo);
+            if (!matcher.matches()) {
+                writeError(response, HttpServletResponse.SC_NOT_FOUND,
+                        "Expected /api/issues/heatmap/{z}/{x}/{y}.png or .bin");
+                return;
+            }
+
+            HeatmapService.EncodedTile tile = heatmapService.getTile(
+                    RequestUtil.parseCategory(request),
+                    RequestUtil.parseStatus(request),
+                    Integer.parseInt(matcher.group(1)),
+                    Integer.parseInt(matcher.group(2)),
+                    Integer.parseInt(matcher.group(3)),
+                    matcher.group(4));
+
+            // Tiles change within seconds; clients revalidate with the ETag instead of refetching
+            response.setHeader("ETag", tile.getEtag());
+            response.setHeader("Cache-Control", "public, no-cache");
+            if (tile.getEtag().equals(request.getHeader("If-None-Match"))) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(tile.getContentType());
+            response.setContentLength(tile.getBytes().length);
+            response.getOutputStream().write(tile.getBytes());
+
+        } catch (IllegalArgumentException e) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, "Invalid tile request: " + e.getMessage());
+        } catch (Exception e) {
+            writeError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                    "Failed to render heatmap tile: " + e.getMessage());
+        }
+    }
+
+    private void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(gson.toJson(Map.of(
+                "success", false,
+                "message", message)));
+    }
+}
@@ -0,0 +1,145 @@
+package com.civicpulse.servlet;
+
+import com.civicpulse.filter.AuthenticationFilter;
+import com.civicpulse.model.AuthPrincipal;
+import com.civicpulse.service.IssueEventBroker;
+import com.civicpulse.util.ConfigUtil;
+import com.civicpulse.util.JsonUtil;
+import com.google.gson.Gson;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Server-Sent Events stream of status changes:
+ * /api/issues/events?issueIds=ID1,ID2 and/or ?deptId=N (department staff or admin)
+ */
+@WebServlet(urlPatterns = "/api/issues/events", asyncSupported = true)
+public class IssueEventsServlet extends HttpServlet {
+
+    private static final int MAX_ISSUE_ID_LENGTH = 20;
+
+    private final IssueEventBroker broker = IssueEventBroker.getInstance();
+    private final Gson gson = JsonUtil.GSON;
+    private final int maxIssues;
+
+    public IssueEventsServlet() {
+        this.maxIssues = ConfigUtil.getInt("issue.events.max.issues", 50);
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        Set<String> issueIds;
+        Integer deptId;
+        try {
+            issueIds = parseIssueIds(request.getParameter("issueIds"));
+            String dept = request.getParameter("deptId");
+            deptId = dept == null || dept.isEmpty() ? null : Integer.parseInt(dept);
+        } catch (IllegalArgumentException e) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, "Invalid subscription: " + e.getMessage());
+            return;
+        }
+        if (issueIds.isEmpty() && deptId == null) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, "issueIds or deptId is required");
+            return;
+        }
+
+        if (deptId != null) {
+            AuthPrincipal principal = AuthenticationFilter.getPrincipal(request);
+            if (principal == null) {
+                writeError(response, HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized");
+                return;
+            }
+            if (!principal.hasRole("ADMIN")
+                    && !(principal.hasRole("DEPARTMENT") && deptId.equals(principal.getDeptId()))) {
+                writeError(response, HttpServletResponse.SC_FORBIDDEN, "Access to this department denied");
+                return;
+            }
+        }
+
+        if (!broker.isRunning() || !broker.hasCapacity()) {
+            response.setHeader("Retry-After", "5");
+            writeError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                    "Event stream unavailable, please retry shortly");
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("X-Accel-Buffering", "no"); // stop nginx from buffering the stream
+        setCorsHeaders(response);
+
+        AsyncContext async = request.startAsync();
+        broker.open(async, issueIds, deptId, parseLastEventId(request));
+    }
+
+    private Set<String> parseIssueIds(String param) {
+        Set<String> issueIds = new LinkedHashSet<>();
+        if (param == null || param.isEmpty()) {
+            return issueIds;
+        }
+        for (String issueId : param.split(",")) {
+            issueId = issueId.trim();
+            if (issueId.isEmpty() || issueId.length() > MAX_ISSUE_ID_LENGTH) {
+                throw new IllegalArgumentException("bad issue ID '" + issueId + "'");
+            }
+            issueIds.add(issueId);
+        }
+        if (issueIds.size() > maxIssues) {
+            throw new IllegalArgumentException("at most " + maxIssues + " issues per stream");
+        }
+        return issueIds;
+    }
+
+    /**
+     * Last-Event-ID header as sent by EventSource on reconnect, or the lastEventId parameter
+     */
+    private static Long parseLastEventId(HttpServletRequest request) {
+        String lastEventId = request.getHeader("Last-Event-ID");
+        if (lastEventId == null) {
+            lastEventId = request.getParameter("lastEventId");
+        }
+        if (lastEventId == null || lastEventId.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null; // Not one of ours; stream new events only
+        }
+    }
+
+    private void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(gson.toJson(Map.of(
+                "success", false,
+                "message", message)));
+    }
+
+    @Override
+    protected void doOptions(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        setCorsHeaders(response);
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+
+    private void setCorsHeaders(HttpServletResponse response) {
+        response.setHeader("Access-Control-Allow-Origin", "*");
+        response.setHeader("Access-Control-Allow-Methods", "GET, OPTIONS");
+        response.setHeader("Access-Control-Allow-Headers", "Authorization, Last-Event-ID");
+    }
+}
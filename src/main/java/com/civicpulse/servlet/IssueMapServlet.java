@@ -0,0 +1,63 @@
+package com.civicpulse.servlet;
+
+import com.civicpulse.service.IssueMapService;
+import com.civicpulse.util.JsonUtil;
+import com.civicpulse.util.RequestUtil;
+import com.google.gson.Gson;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+@WebServlet("/api/issues/map")
+public class IssueMapServlet extends HttpServlet {
+
+    private final IssueMapService issueMapService = new IssueMapService();
+    private final Gson gson = JsonUtil.GSON;
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        try {
+            if (!issueMapService.isReady()) {
+                response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                response.setHeader("Retry-After", "5");
+                response.getWriter().write(gson.toJson(Map.of(
+                        "success", false,
+                        "message", "Map data is still loading, please retry shortly")));
+                return;
+            }
+
+            Map<String, Object> view = issueMapService.getMapView(
+                    RequestUtil.parseCategory(request),
+                    RequestUtil.parseRequiredDouble(request, "minLat"),
+                    RequestUtil.parseRequiredDouble(request, "maxLat"),
+                    RequestUtil.parseRequiredDouble(request, "minLng"),
+                    RequestUtil.parseRequiredDouble(request, "maxLng"),
+                    (int) RequestUtil.parseRequiredDouble(request, "zoom"));
+            view.put("success", true);
+
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.getWriter().write(gson.toJson(view));
+
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            response.getWriter().write(gson.toJson(Map.of(
+                    "success", false,
+                    "message", "Invalid query parameters: " + e.getMessage())));
+        } catch (Exception e) {
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            response.getWriter().write(gson.toJson(Map.of(
+                    "success", false,
+                    "message", "Failed to fetch map data: " + e.getMessage())));
+        }
+    }
+}
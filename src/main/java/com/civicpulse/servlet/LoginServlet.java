@@ -1,8 +1,11 @@
 package com.civicpulse.servlet;
 
 import com.civicpulse.service.AuthService;
+import com.civicpulse.service.AuthWorkerPool;
+import com.civicpulse.util.JsonUtil;
 import com.google.gson.Gson;
 
+import javax.servlet.AsyncContext;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
@@ -12,11 +15,12 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.Map;
 
-@WebServlet("/api/auth/login")
+@WebServlet(urlPatterns = "/api/auth/login", asyncSupported = true)
 public class LoginServlet extends HttpServlet {
 
     private final AuthService authService = new AuthService();
-    private final Gson gson = new Gson();
+    private final AuthWorkerPool authWorkers = AuthWorkerPool.getInstance();
+    private final Gson gson = JsonUtil.GSON;
 
     @Override
     protected void doPost(HttpServletRequest request, HttpServletResponse response)
@@ -25,6 +29,15 @@ public class LoginServlet extends HttpServlet {
         response.setContentType("application/json");
         response.setCharacterEncoding("UTF-8");
 
+        // BCrypt runs on the auth worker pool, not on the container thread
+        AsyncContext async = request.startAsync();
+        if (!authWorkers.submit(async, () -> login(request))) {
+            authWorkers.writeBusy(response);
+            async.complete();
+        }
+    }
+
+    private AuthWorkerPool.Reply login(HttpServletRequest request) {
         try {
             // Parse JSON request
             BufferedReader reader = request.getReader();
@@ -36,20 +49,16 @@ public class LoginServlet extends HttpServlet {
             // Login user
             Map<String, Object> result = authService.login(identifier, password);
 
-            if ((Boolean) result.get("success")) {
-                response.setStatus(HttpServletResponse.SC_OK);
-            } else {
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            }
-
-            response.getWriter().write(gson.toJson(result));
+            int status = (Boolean) result.get("success")
+                    ? HttpServletResponse.SC_OK
+                    : HttpServletResponse.SC_UNAUTHORIZED;
+            return new AuthWorkerPool.Reply(status, result);
 
         } catch (Exception e) {
-            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             Map<String, Object> error = Map.of(
                     "success", false,
                     "message", "Login failed: " + e.getMessage());
-            response.getWriter().write(gson.toJson(error));
+            return new AuthWorkerPool.Reply(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, error);
         }
     }
 
@@ -1,9 +1,13 @@
 package com.civicpulse.servlet;
 
+import com.civicpulse.filter.AuthenticationFilter;
 import com.civicpulse.model.Issue;
+import com.civicpulse.model.IssuePage;
 import com.civicpulse.service.IssueService;
-import com.civicpulse.util.JWTUtil;
+import com.civicpulse.util.JsonUtil;
+import com.civicpulse.util.RequestUtil;
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -11,14 +15,13 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.List;
 import java.util.Map;
 
 @WebServlet("/api/issues/my-issues")
 public class MyIssuesServlet extends HttpServlet {
 
     private final IssueService issueService = new IssueService();
-    private final Gson gson = new Gson();
+    private final Gson gson = JsonUtil.GSON;
 
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
@@ -28,35 +31,32 @@ public class MyIssuesServlet extends HttpServlet {
         response.setCharacterEncoding("UTF-8");
 
         try {
-            // Validate JWT token
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.getWriter().write(gson.toJson(Map.of(
-                        "success", false,
-                        "message", "Unauthorized")));
-                return;
-            }
+            // Caller was authenticated by AuthenticationFilter
+            Integer userId = AuthenticationFilter.getPrincipal(request).getUserId();
 
-            String token = authHeader.substring(7);
-            Integer userId = JWTUtil.getUserIdFromToken(token);
+            // Get one page of the citizen's issues
+            String cursor = request.getParameter("cursor");
+            int limit = RequestUtil.parseLimit(request, IssueService.DEFAULT_PAGE_SIZE);
+            IssuePage page = issueService.getCitizenIssues(userId, cursor, limit);
 
-            if (userId == null) {
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.getWriter().write(gson.toJson(Map.of(
-                        "success", false,
-                        "message", "Invalid token")));
-                return;
+            response.setStatus(HttpServletResponse.SC_OK);
+            JsonWriter json = gson.newJsonWriter(response.getWriter());
+            json.beginObject();
+            json.name("success").value(true);
+            json.name("issues").beginArray();
+            for (Issue issue : page.getIssues()) {
+                gson.toJson(issue, Issue.class, json);
             }
+            json.endArray();
+            json.name("nextCursor").value(page.getNextCursor());
+            json.endObject();
+            json.flush();
 
-            // Get citizen's issues
-            List<Issue> issues = issueService.getCitizenIssues(userId);
-
-            response.setStatus(HttpServletResponse.SC_OK);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             response.getWriter().write(gson.toJson(Map.of(
-                    "success", true,
-                    "issues", issues)));
-
+                    "success", false,
+                    "message", "Invalid paging parameters")));
         } catch (Exception e) {
             response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             response.getWriter().write(gson.toJson(Map.of(
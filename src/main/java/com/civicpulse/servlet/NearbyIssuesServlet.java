@@ -0,0 +1,58 @@
+package com.civicpulse.servlet;
+
+import com.civicpulse.service.NearbyIssueService;
+import com.civicpulse.util.JsonUtil;
+import com.civicpulse.util.RequestUtil;
+import com.google.gson.Gson;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+@WebServlet("/api/issues/nearby")
+public class NearbyIssuesServlet extends HttpServlet {
+
+    private final NearbyIssueService nearbyIssueService = new NearbyIssueService();
+    private final Gson gson = JsonUtil.GSON;
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        try {
+            String k = request.getParameter("k");
+            String radiusKm = request.getParameter("radiusKm");
+
+            List<Map<String, Object>> issues = nearbyIssueService.findNearby(
+                    RequestUtil.parseCategory(request),
+                    RequestUtil.parseRequiredDouble(request, "lat"),
+                    RequestUtil.parseRequiredDouble(request, "lng"),
+                    k == null || k.isEmpty() ? 0 : Integer.parseInt(k),
+                    radiusKm == null || radiusKm.isEmpty() ? 0 : RequestUtil.parseRequiredDouble(request, "radiusKm"));
+
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.getWriter().write(gson.toJson(Map.of(
+                    "success", true,
+                    "issues", issues)));
+
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            response.getWriter().write(gson.toJson(Map.of(
+                    "success", false,
+                    "message", "Invalid query parameters: " + e.getMessage())));
+        } catch (Exception e) {
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            response.getWriter().write(gson.toJson(Map.of(
+                    "success", false,
+                    "message", "Failed to fetch nearby issues: " + e.getMessage())));
+        }
+    }
+}
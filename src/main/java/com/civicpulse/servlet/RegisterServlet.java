@@ -1,8 +1,11 @@
 package com.civicpulse.servlet;
 
 import com.civicpulse.service.AuthService;
+import com.civicpulse.service.AuthWorkerPool;
+import com.civicpulse.util.JsonUtil;
 import com.google.gson.Gson;
 
+import javax.servlet.AsyncContext;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
@@ -12,11 +15,12 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.Map;
 
-@WebServlet("/api/auth/register")
+@WebServlet(urlPatterns = "/api/auth/register", asyncSupported = true)
 public class RegisterServlet extends HttpServlet {
 
     private final AuthService authService = new AuthService();
-    private final Gson gson = new Gson();
+    private final AuthWorkerPool authWorkers = AuthWorkerPool.getInstance();
+    private final Gson gson = JsonUtil.GSON;
 
     @Override
     protected void doPost(HttpServletRequest request, HttpServletResponse response)
@@ -25,6 +29,15 @@ public class RegisterServlet extends HttpServlet {
         response.setContentType("application/json");
         response.setCharacterEncoding("UTF-8");
 
+        // BCrypt runs on the auth worker pool, not on the container thread
+        AsyncContext async = request.startAsync();
+        if (!authWorkers.submit(async, () -> register(request))) {
+            authWorkers.writeBusy(response);
+            async.complete();
+        }
+    }
+
+    private AuthWorkerPool.Reply register(HttpServletRequest request) {
         try {
             // Parse JSON request
             BufferedReader reader = request.getReader();
@@ -38,20 +51,16 @@ public class RegisterServlet extends HttpServlet {
             // Register user
             Map<String, Object> result = authService.register(name, email, phone, password);
 
-            if ((Boolean) result.get("success")) {
-                response.setStatus(HttpServletResponse.SC_CREATED);
-            } else {
-                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
-            }
-
-            response.getWriter().write(gson.toJson(result));
+            int status = (Boolean) result.get("success")
+                    ? HttpServletResponse.SC_CREATED
+                    : HttpServletResponse.SC_BAD_REQUEST;
+            return new AuthWorkerPool.Reply(status, result);
 
         } catch (Exception e) {
-            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             Map<String, Object> error = Map.of(
                     "success", false,
                     "message", "Registration failed: " + e.getMessage());
-            response.getWriter().write(gson.toJson(error));
+            return new AuthWorkerPool.Reply(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, error);
         }
     }
 
@@ -1,8 +1,9 @@
 package com.civicpulse.servlet;
 
+import com.civicpulse.filter.AuthenticationFilter;
 import com.civicpulse.model.Issue;
 import com.civicpulse.service.IssueService;
-import com.civicpulse.util.JWTUtil;
+import com.civicpulse.util.JsonUtil;
 import com.google.gson.Gson;
 
 import javax.servlet.ServletException;
@@ -27,7 +28,7 @@ import java.util.Map;
 public class ReportIssueServlet extends HttpServlet {
 
     private final IssueService issueService = new IssueService();
-    private final Gson gson = new Gson();
+    private final Gson gson = JsonUtil.GSON;
     private static final String UPLOAD_DIR = "/tmp/civicpulse/uploads";
 
     @Override
@@ -47,26 +48,8 @@ public class ReportIssueServlet extends HttpServlet {
         response.setCharacterEncoding("UTF-8");
 
         try {
-            // Validate JWT token
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.getWriter().write(gson.toJson(Map.of(
-                        "success", false,
-                        "message", "Unauthorized")));
-                return;
-            }
-
-            String token = authHeader.substring(7);
-            Integer userId = JWTUtil.getUserIdFromToken(token);
-
-            if (userId == null) {
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.getWriter().write(gson.toJson(Map.of(
-                        "success", false,
-                        "message", "Invalid token")));
-                return;
-            }
+            // Caller was authenticated by AuthenticationFilter
+            Integer userId = AuthenticationFilter.getPrincipal(request).getUserId();
 
             // Parse form data
             String category = request.getParameter("category");
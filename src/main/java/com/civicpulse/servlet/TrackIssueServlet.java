@@ -1,21 +1,43 @@
 package com.civicpulse.servlet;
 
+import com.civicpulse.model.Issue;
+import com.civicpulse.model.IssueTimeline;
 import com.civicpulse.service.IssueService;
+import com.civicpulse.util.ConfigUtil;
+import com.civicpulse.util.EntityCache;
+import com.civicpulse.util.JsonUtil;
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
 import java.util.Map;
 
 @WebServlet("/api/issues/track/*")
 public class TrackIssueServlet extends HttpServlet {
 
     private final IssueService issueService = new IssueService();
-    private final Gson gson = new Gson();
+    private final Gson gson = JsonUtil.GSON;
+
+    // Serialized responses reused for a short window, so a spike on one issue costs
+    // one load and one serialization per window rather than per request
+    private final EntityCache<String, TrackBody> bodies;
+
+    public TrackIssueServlet() {
+        this.bodies = new EntityCache<>(
+                ConfigUtil.getInt("track.response.cache.max.entries", 1024),
+                ConfigUtil.getLong("track.response.cache.ms", 1000));
+    }
 
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
@@ -37,10 +59,23 @@ public class TrackIssueServlet extends HttpServlet {
 
             String issueId = pathInfo.substring(1); // Remove leading slash
 
+            // Pollers mostly already hold the current version; answer them without building the response
+            TrackBody cached = bodies.getIfPresent(issueId);
+            IssueService.IssueVersion version = cached != null
+                    ? cached.version : issueService.getIssueVersion(issueId);
+            if (version != null && isNotModified(request, version)) {
+                setValidators(response, version);
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+
             // Get issue details
-            Map<String, Object> issueDetails = issueService.getIssueDetails(issueId);
+            TrackBody body = cached;
+            if (body == null && version != null) {
+                body = bodies.get(issueId, this::buildBody);
+            }
 
-            if (issueDetails == null) {
+            if (body == null) {
                 response.setStatus(HttpServletResponse.SC_NOT_FOUND);
                 response.getWriter().write(gson.toJson(Map.of(
                         "success", false,
@@ -48,9 +83,10 @@ public class TrackIssueServlet extends HttpServlet {
                 return;
             }
 
-            issueDetails.put("success", true);
+            setValidators(response, body.version);
             response.setStatus(HttpServletResponse.SC_OK);
-            response.getWriter().write(gson.toJson(issueDetails));
+            response.setContentLength(body.bytes.length);
+            response.getOutputStream().write(body.bytes);
 
         } catch (Exception e) {
             response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
@@ -60,6 +96,73 @@ public class TrackIssueServlet extends HttpServlet {
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private TrackBody buildBody(String issueId) throws SQLException {
+        Map<String, Object> issueDetails = issueService.getIssueDetails(issueId);
+        if (issueDetails == null) {
+            return null;
+        }
+
+        // Tag what was actually built, in case the issue changed since the probe
+        IssueService.IssueVersion version = IssueService.versionOf(issueDetails);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(2048);
+        try (JsonWriter json = gson.newJsonWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8))) {
+            json.beginObject();
+            json.name("success").value(true);
+            json.name("issue");
+            gson.toJson(issueDetails.get("issue"), Issue.class, json);
+            json.name("timeline").beginArray();
+            for (IssueTimeline entry : (List<IssueTimeline>) issueDetails.get("timeline")) {
+                gson.toJson(entry, IssueTimeline.class, json);
+            }
+            json.endArray();
+            json.name("departmentName").value((String) issueDetails.get("departmentName"));
+            json.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new TrackBody(bytes.toByteArray(), version);
+    }
+
+    /**
+     * If-None-Match decides when present (weak comparison); If-Modified-Since only otherwise
+     */
+    private static boolean isNotModified(HttpServletRequest request, IssueService.IssueVersion version) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(version.getEtag())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader("If-Modified-Since");
+        } catch (IllegalArgumentException e) {
+            return false; // Unparseable dates are ignored
+        }
+        // HTTP dates have second precision
+        return ifModifiedSince >= 0 && version.getLastModified() > 0
+                && version.getLastModified() / 1000 <= ifModifiedSince / 1000;
+    }
+
+    private static void setValidators(HttpServletResponse response, IssueService.IssueVersion version) {
+        response.setHeader("ETag", version.getEtag());
+        if (version.getLastModified() > 0) {
+            response.setDateHeader("Last-Modified", version.getLastModified());
+        }
+        // Shared caches may store the response but must revalidate every time
+        response.setHeader("Cache-Control", "public, no-cache");
+    }
+
     @Override
     protected void doOptions(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
@@ -70,6 +173,16 @@ public class TrackIssueServlet extends HttpServlet {
     private void setCorsHeaders(HttpServletResponse response) {
         response.setHeader("Access-Control-Allow-Origin", "*");
         response.setHeader("Access-Control-Allow-Methods", "GET, OPTIONS");
-        response.setHeader("Access-Control-Allow-Headers", "Content-Type");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type, If-None-Match, If-Modified-Since");
+    }
+
+    private static final class TrackBody {
+        final byte[] bytes;
+        final IssueService.IssueVersion version;
+
+        TrackBody(byte[] bytes, IssueService.IssueVersion version) {
+            this.bytes = bytes;
+            this.version = version;
+        }
     }
 }
@@ -0,0 +1,89 @@
+package com.civicpulse.servlet.admin;
+
+import com.civicpulse.model.Issue;
+import com.civicpulse.model.IssueFilter;
+import com.civicpulse.service.IssueService;
+import com.civicpulse.util.ConfigUtil;
+import com.civicpulse.util.JsonUtil;
+import com.civicpulse.util.RequestUtil;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+@WebServlet("/api/admin/issues/export")
+public class AdminIssueExportServlet extends HttpServlet {
+
+    private final IssueService issueService = new IssueService();
+    private final Gson gson = JsonUtil.GSON;
+
+    // Each running export holds a database connection of its own until the download ends
+    private final Semaphore exportSlots = new Semaphore(ConfigUtil.getInt("export.max.concurrent", 2));
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        if (!exportSlots.tryAcquire()) {
+            response.setHeader("Retry-After", "30");
+            writeError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                    "Too many exports running, please retry shortly");
+            return;
+        }
+
+        try {
+            IssueFilter filter = RequestUtil.parseIssueFilter(request);
+
+            // Rows are written as they are fetched, so heap use does not grow with the export size
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setHeader("Content-Disposition", "attachment; filename=\"issues.json\"");
+            JsonWriter json = gson.newJsonWriter(response.getWriter());
+            json.beginObject();
+            json.name("success").value(true);
+            json.name("issues").beginArray();
+
+            int[] count = {0};
+            issueService.exportIssues(filter, issue -> {
+                gson.toJson(issue, Issue.class, json);
+                count[0]++;
+            });
+
+            json.endArray();
+            json.name("count").value(count[0]);
+            json.endObject();
+            json.flush();
+
+        } catch (IllegalArgumentException e) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST,
+                    "Invalid query parameters: " + e.getMessage());
+        } catch (Exception e) {
+            writeError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                    "Failed to export issues: " + e.getMessage());
+        } finally {
+            exportSlots.release();
+        }
+    }
+
+    private void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        if (response.isCommitted()) {
+            // Part of the export is already on the wire; abort the stream
+            throw new IOException(message);
+        }
+        response.resetBuffer();
+        response.setHeader("Content-Disposition", null);
+        response.setStatus(status);
+        response.getWriter().write(gson.toJson(Map.of(
+                "success", false,
+                "message", message)));
+    }
+}
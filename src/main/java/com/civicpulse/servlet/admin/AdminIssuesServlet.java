@@ -1,9 +1,12 @@
 package com.civicpulse.servlet.admin;
 
 import com.civicpulse.model.Issue;
+import com.civicpulse.model.IssueFilter;
 import com.civicpulse.service.IssueService;
-import com.civicpulse.util.JWTUtil;
+import com.civicpulse.util.JsonUtil;
+import com.civicpulse.util.RequestUtil;
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -11,14 +14,13 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.List;
 import java.util.Map;
 
 @WebServlet("/api/admin/issues")
 public class AdminIssuesServlet extends HttpServlet {
 
     private final IssueService issueService = new IssueService();
-    private final Gson gson = new Gson();
+    private final Gson gson = JsonUtil.GSON;
 
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
@@ -28,41 +30,47 @@ public class AdminIssuesServlet extends HttpServlet {
         response.setCharacterEncoding("UTF-8");
 
         try {
-            // Validate JWT token and role
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.getWriter().write(gson.toJson(Map.of(
-                        "success", false,
-                        "message", "Unauthorized")));
-                return;
-            }
+            // Stream one page of matching issues straight from the result set
+            IssueFilter filter = RequestUtil.parseIssueFilter(request);
+            String cursor = request.getParameter("cursor");
+            int limit = RequestUtil.parseLimit(request, IssueService.DEFAULT_PAGE_SIZE);
 
-            String token = authHeader.substring(7);
-            String role = JWTUtil.getRoleFromToken(token);
-
-            if (!"ADMIN".equals(role)) {
-                response.setStatus(HttpServletResponse.SC_FORBIDDEN);
-                response.getWriter().write(gson.toJson(Map.of(
-                        "success", false,
-                        "message", "Admin access required")));
-                return;
-            }
+            response.setStatus(HttpServletResponse.SC_OK);
+            JsonWriter json = gson.newJsonWriter(response.getWriter());
+            json.beginObject();
+            json.name("success").value(true);
+            json.name("issues").beginArray();
 
-            // Get all issues
-            List<Issue> issues = issueService.getAllIssues();
+            int[] count = {0};
+            String nextCursor = issueService.streamIssues(filter, cursor, limit, issue -> {
+                gson.toJson(issue, Issue.class, json);
+                count[0]++;
+            });
 
-            response.setStatus(HttpServletResponse.SC_OK);
-            response.getWriter().write(gson.toJson(Map.of(
-                    "success", true,
-                    "total", issues.size(),
-                    "issues", issues)));
+            json.endArray();
+            json.name("count").value(count[0]);
+            json.name("nextCursor").value(nextCursor);
+            json.endObject();
+            json.flush();
 
+        } catch (IllegalArgumentException e) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST,
+                    "Invalid query parameters: " + e.getMessage());
         } catch (Exception e) {
-            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-            response.getWriter().write(gson.toJson(Map.of(
-                    "success", false,
-                    "message", "Failed to fetch issues: " + e.getMessage())));
+            writeError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                    "Failed to fetch issues: " + e.getMessage());
+        }
+    }
+
+    private void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        if (response.isCommitted()) {
+            // Part of the listing is already on the wire; abort the stream
+            throw new IOException(message);
         }
+        response.resetBuffer();
+        response.setStatus(status);
+        response.getWriter().write(gson.toJson(Map.of(
+                "success", false,
+                "message", message)));
     }
 }
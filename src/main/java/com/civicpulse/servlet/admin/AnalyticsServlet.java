@@ -1,7 +1,7 @@
 package com.civicpulse.servlet.admin;
 
 import com.civicpulse.service.IssueService;
-import com.civicpulse.util.JWTUtil;
+import com.civicpulse.util.JsonUtil;
 import com.google.gson.Gson;
 
 import javax.servlet.ServletException;
@@ -16,7 +16,7 @@ import java.util.Map;
 public class AnalyticsServlet extends HttpServlet {
 
     private final IssueService issueService = new IssueService();
-    private final Gson gson = new Gson();
+    private final Gson gson = JsonUtil.GSON;
 
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
@@ -26,27 +26,6 @@ public class AnalyticsServlet extends HttpServlet {
         response.setCharacterEncoding("UTF-8");
 
         try {
-            // Validate JWT token and role
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.getWriter().write(gson.toJson(Map.of(
-                        "success", false,
-                        "message", "Unauthorized")));
-                return;
-            }
-
-            String token = authHeader.substring(7);
-            String role = JWTUtil.getRoleFromToken(token);
-
-            if (!"ADMIN".equals(role)) {
-                response.setStatus(HttpServletResponse.SC_FORBIDDEN);
-                response.getWriter().write(gson.toJson(Map.of(
-                        "success", false,
-                        "message", "Admin access required")));
-                return;
-            }
-
             // Get analytics
             Map<String, Object> analytics = issueService.getAnalytics();
             analytics.put("success", true);
@@ -1,7 +1,8 @@
 package com.civicpulse.servlet.admin;
 
+import com.civicpulse.filter.AuthenticationFilter;
 import com.civicpulse.service.IssueService;
-import com.civicpulse.util.JWTUtil;
+import com.civicpulse.util.JsonUtil;
 import com.google.gson.Gson;
 
 import javax.servlet.ServletException;
@@ -17,7 +18,7 @@ import java.util.Map;
 public class AssignIssueServlet extends HttpServlet {
 
     private final IssueService issueService = new IssueService();
-    private final Gson gson = new Gson();
+    private final Gson gson = JsonUtil.GSON;
 
     @Override
     protected void doPut(HttpServletRequest request, HttpServletResponse response)
@@ -27,27 +28,8 @@ public class AssignIssueServlet extends HttpServlet {
         response.setCharacterEncoding("UTF-8");
 
         try {
-            // Validate JWT token and role
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.getWriter().write(gson.toJson(Map.of(
-                        "success", false,
-                        "message", "Unauthorized")));
-                return;
-            }
-
-            String token = authHeader.substring(7);
-            String role = JWTUtil.getRoleFromToken(token);
-            Integer adminId = JWTUtil.getUserIdFromToken(token);
-
-            if (!"ADMIN".equals(role)) {
-                response.setStatus(HttpServletResponse.SC_FORBIDDEN);
-                response.getWriter().write(gson.toJson(Map.of(
-                        "success", false,
-                        "message", "Admin access required")));
-                return;
-            }
+            // Caller was authenticated by AuthenticationFilter
+            Integer adminId = AuthenticationFilter.getPrincipal(request).getUserId();
 
             // Extract issue ID from path
             String pathInfo = request.getPathInfo();
@@ -66,6 +48,16 @@ public class AssignIssueServlet extends HttpServlet {
                     "success", true,
                     "message", "Issue assigned successfully")));
 
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            response.getWriter().write(gson.toJson(Map.of(
+                    "success", false,
+                    "message", "Failed to assign issue: " + e.getMessage())));
+        } catch (IllegalStateException e) {
+            response.setStatus(HttpServletResponse.SC_CONFLICT);
+            response.getWriter().write(gson.toJson(Map.of(
+                    "success", false,
+                    "message", e.getMessage())));
         } catch (Exception e) {
             response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             response.getWriter().write(gson.toJson(Map.of(
@@ -0,0 +1,58 @@
+package com.civicpulse.servlet.admin;
+
+import com.civicpulse.service.AuthWorkerPool;
+import com.civicpulse.service.EntityCaches;
+import com.civicpulse.service.IssueEventBroker;
+import com.civicpulse.service.OpenIssueIndex;
+import com.civicpulse.service.ReportCountCoalescer;
+import com.civicpulse.util.DatabaseUtil;
+import com.civicpulse.util.JsonUtil;
+import com.google.gson.Gson;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@WebServlet("/api/admin/metrics")
+public class MetricsServlet extends HttpServlet {
+
+    private final Gson gson = JsonUtil.GSON;
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        try {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("success", true);
+            metrics.put("connectionPool", DatabaseUtil.getPoolStats());
+
+            OpenIssueIndex index = OpenIssueIndex.getInstance();
+            Map<String, Object> indexStats = new LinkedHashMap<>();
+            indexStats.put("ready", index.isReady());
+            indexStats.put("size", index.size());
+            metrics.put("openIssueIndex", indexStats);
+            metrics.put("authWorkers", AuthWorkerPool.getInstance().getStats());
+            metrics.put("reportCoalescer", ReportCountCoalescer.getInstance().getStats());
+            metrics.put("entityCaches", EntityCaches.getInstance().getStats());
+            metrics.put("issueEvents", IssueEventBroker.getInstance().getStats());
+
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.getWriter().write(gson.toJson(metrics));
+
+        } catch (Exception e) {
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            response.getWriter().write(gson.toJson(Map.of(
+                    "success", false,
+                    "message", "Failed to fetch metrics: " + e.getMessage())));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.civicpulse.servlet.admin;
+
+import com.civicpulse.service.SlaTracker;
+import com.civicpulse.util.JsonUtil;
+import com.civicpulse.util.RequestUtil;
+import com.google.gson.Gson;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.Map;
+
+@WebServlet("/api/admin/analytics/sla")
+public class SlaReportServlet extends HttpServlet {
+
+    private static final long DAY_MS = 86_400_000L;
+
+    private final SlaTracker slaTracker = SlaTracker.getInstance();
+    private final Gson gson = JsonUtil.GSON;
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        try {
+            // Default to the last 30 days
+            Timestamp to = RequestUtil.parseTime(request, "to", true);
+            Timestamp from = RequestUtil.parseTime(request, "from", false);
+            long toMillis = to != null ? to.getTime() : System.currentTimeMillis();
+            long fromMillis = from != null ? from.getTime() : toMillis - 30 * DAY_MS;
+
+            Map<String, Object> report = slaTracker.getReport(fromMillis, toMillis,
+                    RequestUtil.parseCategory(request), RequestUtil.parseDeptId(request));
+            report.put("success", true);
+
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.getWriter().write(gson.toJson(report));
+
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            response.getWriter().write(gson.toJson(Map.of(
+                    "success", false,
+                    "message", "Invalid query parameters: " + e.getMessage())));
+        } catch (Exception e) {
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            response.getWriter().write(gson.toJson(Map.of(
+                    "success", false,
+                    "message", "Failed to fetch SLA report: " + e.getMessage())));
+        }
+    }
+}
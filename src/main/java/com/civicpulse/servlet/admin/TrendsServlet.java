@@ -0,0 +1,76 @@
+package com.civicpulse.servlet.admin;
+
+import com.civicpulse.model.TrendPoint;
+import com.civicpulse.service.RollupService;
+import com.civicpulse.util.JsonUtil;
+import com.civicpulse.util.RequestUtil;
+import com.google.gson.Gson;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@WebServlet("/api/admin/analytics/trends")
+public class TrendsServlet extends HttpServlet {
+
+    private static final long HOUR_MS = 3_600_000L;
+    private static final long DAY_MS = 24 * HOUR_MS;
+
+    private final RollupService rollupService = RollupService.getInstance();
+    private final Gson gson = JsonUtil.GSON;
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        try {
+            String bucket = request.getParameter("bucket");
+            if (bucket == null || bucket.isEmpty()) {
+                bucket = "day";
+            }
+            if (!"hour".equals(bucket) && !"day".equals(bucket)) {
+                throw new IllegalArgumentException("Invalid bucket: " + bucket);
+            }
+            boolean hourly = "hour".equals(bucket);
+
+            // Default to the last 48 hours or the last 30 days
+            Timestamp to = RequestUtil.parseTime(request, "to", true);
+            Timestamp from = RequestUtil.parseTime(request, "from", false);
+            long toMillis = to != null ? to.getTime() : System.currentTimeMillis();
+            long fromMillis = from != null ? from.getTime() : toMillis - (hourly ? 48 * HOUR_MS : 30 * DAY_MS);
+
+            List<TrendPoint> points = rollupService.getTrend(hourly, fromMillis, toMillis,
+                    RequestUtil.parseCategory(request), RequestUtil.parseDeptId(request),
+                    request.getParameter("groupBy"));
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("success", true);
+            result.put("bucket", bucket);
+            result.put("points", points);
+
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.getWriter().write(gson.toJson(result));
+
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            response.getWriter().write(gson.toJson(Map.of(
+                    "success", false,
+                    "message", "Invalid query parameters: " + e.getMessage())));
+        } catch (Exception e) {
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            response.getWriter().write(gson.toJson(Map.of(
+                    "success", false,
+                    "message", "Failed to fetch trends: " + e.getMessage())));
+        }
+    }
+}
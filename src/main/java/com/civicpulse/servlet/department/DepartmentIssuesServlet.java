@@ -1,11 +1,17 @@
 package com.civicpulse.servlet.department;
 
+import com.civicpulse.filter.AuthenticationFilter;
+import com.civicpulse.model.AuthPrincipal;
 import com.civicpulse.model.Issue;
+import com.civicpulse.model.IssueFilter;
+import com.civicpulse.model.IssuePage;
 import com.civicpulse.model.User;
 import com.civicpulse.service.AuthService;
 import com.civicpulse.service.IssueService;
-import com.civicpulse.util.JWTUtil;
+import com.civicpulse.util.JsonUtil;
+import com.civicpulse.util.RequestUtil;
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -13,7 +19,6 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.List;
 import java.util.Map;
 
 @WebServlet("/api/department/issues")
@@ -21,7 +26,7 @@ public class DepartmentIssuesServlet extends HttpServlet {
 
     private final IssueService issueService = new IssueService();
     private final AuthService authService = new AuthService();
-    private final Gson gson = new Gson();
+    private final Gson gson = JsonUtil.GSON;
 
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
@@ -31,31 +36,15 @@ public class DepartmentIssuesServlet extends HttpServlet {
         response.setCharacterEncoding("UTF-8");
 
         try {
-            // Validate JWT token and role
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.getWriter().write(gson.toJson(Map.of(
-                        "success", false,
-                        "message", "Unauthorized")));
-                return;
-            }
+            AuthPrincipal principal = AuthenticationFilter.getPrincipal(request);
 
-            String token = authHeader.substring(7);
-            String role = JWTUtil.getRoleFromToken(token);
-            Integer userId = JWTUtil.getUserIdFromToken(token);
-
-            if (!"DEPARTMENT".equals(role)) {
-                response.setStatus(HttpServletResponse.SC_FORBIDDEN);
-                response.getWriter().write(gson.toJson(Map.of(
-                        "success", false,
-                        "message", "Department access required")));
-                return;
+            // Department comes from the token; older tokens lack the claim
+            Integer deptId = principal.getDeptId();
+            if (deptId == null) {
+                User user = authService.getUserById(principal.getUserId());
+                deptId = user != null ? user.getDeptId() : null;
             }
-
-            // Get user's department
-            User user = authService.getUserById(userId);
-            if (user.getDeptId() == null) {
+            if (deptId == null) {
                 response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
                 response.getWriter().write(gson.toJson(Map.of(
                         "success", false,
@@ -63,14 +52,30 @@ public class DepartmentIssuesServlet extends HttpServlet {
                 return;
             }
 
-            // Get department issues
-            List<Issue> issues = issueService.getDepartmentIssues(user.getDeptId());
+            // Get one page of department issues
+            IssueFilter filter = RequestUtil.parseIssueFilter(request);
+            String cursor = request.getParameter("cursor");
+            int limit = RequestUtil.parseLimit(request, IssueService.DEFAULT_PAGE_SIZE);
+            IssuePage page = issueService.getDepartmentIssues(deptId, filter, cursor, limit);
 
             response.setStatus(HttpServletResponse.SC_OK);
-            response.getWriter().write(gson.toJson(Map.of(
-                    "success", true,
-                    "issues", issues)));
+            JsonWriter json = gson.newJsonWriter(response.getWriter());
+            json.beginObject();
+            json.name("success").value(true);
+            json.name("issues").beginArray();
+            for (Issue issue : page.getIssues()) {
+                gson.toJson(issue, Issue.class, json);
+            }
+            json.endArray();
+            json.name("nextCursor").value(page.getNextCursor());
+            json.endObject();
+            json.flush();
 
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            response.getWriter().write(gson.toJson(Map.of(
+                    "success", false,
+                    "message", "Invalid query parameters: " + e.getMessage())));
         } catch (Exception e) {
             response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             response.getWriter().write(gson.toJson(Map.of(
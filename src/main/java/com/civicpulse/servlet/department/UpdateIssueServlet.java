@@ -1,7 +1,8 @@
 package com.civicpulse.servlet.department;
 
+import com.civicpulse.filter.AuthenticationFilter;
 import com.civicpulse.service.IssueService;
-import com.civicpulse.util.JWTUtil;
+import com.civicpulse.util.JsonUtil;
 import com.google.gson.Gson;
 
 import javax.servlet.ServletException;
@@ -17,7 +18,7 @@ import java.util.Map;
 public class UpdateIssueServlet extends HttpServlet {
 
     private final IssueService issueService = new IssueService();
-    private final Gson gson = new Gson();
+    private final Gson gson = JsonUtil.GSON;
 
     @Override
     protected void doPut(HttpServletRequest request, HttpServletResponse response)
@@ -27,27 +28,8 @@ public class UpdateIssueServlet extends HttpServlet {
         response.setCharacterEncoding("UTF-8");
 
         try {
-            // Validate JWT token and role
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.getWriter().write(gson.toJson(Map.of(
-                        "success", false,
-                        "message", "Unauthorized")));
-                return;
-            }
-
-            String token = authHeader.substring(7);
-            String role = JWTUtil.getRoleFromToken(token);
-            Integer userId = JWTUtil.getUserIdFromToken(token);
-
-            if (!"DEPARTMENT".equals(role) && !"ADMIN".equals(role)) {
-                response.setStatus(HttpServletResponse.SC_FORBIDDEN);
-                response.getWriter().write(gson.toJson(Map.of(
-                        "success", false,
-                        "message", "Department or Admin access required")));
-                return;
-            }
+            // Caller was authenticated by AuthenticationFilter
+            Integer userId = AuthenticationFilter.getPrincipal(request).getUserId();
 
             // Extract issue ID from path
             String pathInfo = request.getPathInfo();
@@ -69,6 +51,16 @@ public class UpdateIssueServlet extends HttpServlet {
                     "success", true,
                     "message", "Issue updated successfully")));
 
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            response.getWriter().write(gson.toJson(Map.of(
+                    "success", false,
+                    "message", "Failed to update issue: " + e.getMessage())));
+        } catch (IllegalStateException e) {
+            response.setStatus(HttpServletResponse.SC_CONFLICT);
+            response.getWriter().write(gson.toJson(Map.of(
+                    "success", false,
+                    "message", e.getMessage())));
         } catch (Exception e) {
             response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             response.getWriter().write(gson.toJson(Map.of(
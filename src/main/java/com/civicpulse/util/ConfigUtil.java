@@ -0,0 +1,62 @@
+package com.civicpulse.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Application settings from config.properties, read once per class loader.
+ * A missing file leaves every setting at its default; required settings
+ * ({@link #getRequired(String)}) then fail fast.
+ */
+public final class ConfigUtil {
+
+    private static final String RESOURCE = "config.properties";
+    private static final Properties PROPS = new Properties();
+    private static boolean loaded;
+
+    static {
+        try (InputStream input = ConfigUtil.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (input != null) {
+                PROPS.load(input);
+                loaded = true;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private ConfigUtil() {}
+
+    public static String get(String key, String defaultValue) {
+        return PROPS.getProperty(key, defaultValue);
+    }
+
+    /**
+     * Setting that has no sensible default (credentials, secrets)
+     */
+    public static String getRequired(String key) {
+        String value = PROPS.getProperty(key);
+        if (value == null) {
+            throw new IllegalStateException(loaded
+                    ? "Missing " + key + " in " + RESOURCE
+                    : "Unable to find " + RESOURCE);
+        }
+        return value;
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = PROPS.getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = PROPS.getProperty(key);
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    public static double getDouble(String key, double defaultValue) {
+        String value = PROPS.getProperty(key);
+        return value == null ? defaultValue : Double.parseDouble(value.trim());
+    }
+}
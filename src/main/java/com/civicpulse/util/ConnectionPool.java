@@ -0,0 +1,392 @@
+package com.civicpulse.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.SQLWarning;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded JDBC connection pool.
+ *
+ * Connections are handed out as proxies whose close() returns the physical
+ * connection to the pool. Idle connections are reused LIFO, validated on
+ * borrow, evicted after the idle timeout (down to the minimum size), and
+ * connections held longer than the leak threshold are reported, at most
+ * once per leak report interval.
+ */
+public class ConnectionPool {
+
+    // Skip the validation ping for connections returned very recently
+    private static final long VALIDATION_BYPASS_MS = 500;
+    private static final long HOUSEKEEPING_INTERVAL_MS = 30_000;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int minIdle;
+    private final int maxSize;
+    private final long borrowTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long leakThresholdMs;
+    private final long leakReportIntervalMs;
+    private final boolean captureBorrowSites;
+    private final int validationTimeoutSeconds;
+    private final LongSupplier clock;
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong leakReportCount = new AtomicLong();
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+    private final ScheduledExecutorService housekeeper;
+
+    private volatile boolean shutdown;
+
+    // Leak report rate limiting; only touched by the housekeeper thread
+    private boolean leakReportedYet;
+    private long lastLeakReportAt;
+    private int unreportedLeaks;
+
+    public ConnectionPool(String url, String username, String password, int minIdle, int maxSize,
+            long borrowTimeoutMs, long idleTimeoutMs, long leakThresholdMs, long leakReportIntervalMs,
+            boolean captureBorrowSites, int validationTimeoutSeconds) {
+        this(url, username, password, minIdle, maxSize, borrowTimeoutMs, idleTimeoutMs, leakThresholdMs,
+                leakReportIntervalMs, captureBorrowSites, validationTimeoutSeconds, System::currentTimeMillis);
+    }
+
+    ConnectionPool(String url, String username, String password, int minIdle, int maxSize,
+            long borrowTimeoutMs, long idleTimeoutMs, long leakThresholdMs, long leakReportIntervalMs,
+            boolean captureBorrowSites, int validationTimeoutSeconds, LongSupplier clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.minIdle = Math.max(0, Math.min(minIdle, maxSize));
+        this.maxSize = maxSize;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.leakThresholdMs = leakThresholdMs;
+        this.leakReportIntervalMs = leakReportIntervalMs;
+        this.captureBorrowSites = captureBorrowSites;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.clock = clock;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "civicpulse-db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        this.housekeeper.scheduleWithFixedDelay(this::housekeep,
+                HOUSEKEEPING_INTERVAL_MS, HOUSEKEEPING_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection, waiting up to the borrow timeout for a free slot
+     */
+    public Connection getConnection() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+
+        long start = System.nanoTime();
+        waiters.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waiters.decrementAndGet();
+        }
+        waitTimes.record(System.nanoTime() - start);
+
+        if (!acquired) {
+            timeoutCount.incrementAndGet();
+            throw new SQLTransientConnectionException("Timed out after " + borrowTimeoutMs
+                    + " ms waiting for a database connection (active=" + active.size()
+                    + ", max=" + maxSize + ")");
+        }
+
+        try {
+            PooledConnection pooled = takeIdleOrCreate();
+            pooled.borrowedAt = clock.getAsLong();
+            pooled.borrowSite = leakThresholdMs > 0 && captureBorrowSites ? new Throwable() : null;
+            pooled.leakReported = false;
+            active.add(pooled);
+            borrowCount.incrementAndGet();
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Open a physical connection outside the pool, for long reads that would
+     * otherwise hold a pool slot (and be reported as leaks); the caller closes it
+     */
+    public Connection openDedicated() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+        return DriverManager.getConnection(url, username, password);
+    }
+
+    private PooledConnection takeIdleOrCreate() throws SQLException {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            destroy(pooled);
+        }
+
+        Connection physical = DriverManager.getConnection(url, username, password);
+        totalConnections.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        if (clock.getAsLong() - pooled.lastReturnedAt < VALIDATION_BYPASS_MS) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        if (!active.remove(pooled)) {
+            return;
+        }
+
+        boolean reusable = !shutdown;
+        try {
+            if (reusable && pooled.physical.isClosed()) {
+                reusable = false;
+            }
+            if (reusable && !pooled.physical.getAutoCommit()) {
+                // Never hand out a connection with an open transaction
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            reusable = false;
+        }
+
+        if (reusable) {
+            pooled.lastReturnedAt = clock.getAsLong();
+            idle.offerFirst(pooled);
+        } else {
+            destroy(pooled);
+        }
+        permits.release();
+    }
+
+    private void destroy(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            // Already broken; nothing else to do
+        }
+    }
+
+    void housekeep() {
+        try {
+            long now = clock.getAsLong();
+
+            // Evict idle connections (oldest first) while above the minimum
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && idle.size() > minIdle) {
+                PooledConnection pooled = it.next();
+                if (now - pooled.lastReturnedAt > idleTimeoutMs && idle.remove(pooled)) {
+                    destroy(pooled);
+                }
+            }
+
+            // Top the idle set back up to the minimum
+            while (!shutdown && idle.size() < minIdle && totalConnections.get() < maxSize
+                    && permits.tryAcquire()) {
+                try {
+                    Connection physical = DriverManager.getConnection(url, username, password);
+                    totalConnections.incrementAndGet();
+                    PooledConnection pooled = new PooledConnection(physical);
+                    pooled.lastReturnedAt = now;
+                    idle.offerLast(pooled);
+                } finally {
+                    permits.release();
+                }
+            }
+
+            // Leak detection
+            if (leakThresholdMs > 0) {
+                for (PooledConnection pooled : active) {
+                    if (!pooled.leakReported && now - pooled.borrowedAt > leakThresholdMs) {
+                        pooled.leakReported = true;
+                        leakCount.incrementAndGet();
+                        reportLeak(pooled, now);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Report a leaked connection with the stack that borrowed it. Leaks found
+     * within the report interval of the last report are only counted, and the
+     * count is carried in the next report.
+     */
+    private void reportLeak(PooledConnection pooled, long now) {
+        if (leakReportedYet && now - lastLeakReportAt < leakReportIntervalMs) {
+            unreportedLeaks++;
+            return;
+        }
+
+        String message = "Possible connection leak: connection held for " + (now - pooled.borrowedAt) + " ms";
+        if (unreportedLeaks > 0) {
+            message += " (" + unreportedLeaks + " more leaks since the last report)";
+        }
+        SQLWarning leak = new SQLWarning(message);
+        leak.setStackTrace(pooled.borrowSite != null ? pooled.borrowSite.getStackTrace() : new StackTraceElement[0]);
+        printLeak(leak);
+        leakReportCount.incrementAndGet();
+
+        leakReportedYet = true;
+        lastLeakReportAt = now;
+        unreportedLeaks = 0;
+    }
+
+    void printLeak(SQLWarning leak) {
+        leak.printStackTrace();
+    }
+
+    /**
+     * Close all idle connections and stop accepting borrows
+     */
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    /**
+     * Live pool statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("active", active.size());
+        stats.put("idle", idle.size());
+        stats.put("total", totalConnections.get());
+        stats.put("waiters", waiters.get());
+        stats.put("minIdle", minIdle);
+        stats.put("maxSize", maxSize);
+        stats.put("borrowed", borrowCount.get());
+        stats.put("timeouts", timeoutCount.get());
+        stats.put("leaksDetected", leakCount.get());
+        stats.put("leaksReported", leakReportCount.get());
+        stats.put("waitTime", waitTimes.snapshot());
+        return stats;
+    }
+
+    /**
+     * Pool bookkeeping for one physical connection
+     */
+    private class PooledConnection {
+        final Connection physical;
+        volatile long borrowedAt;
+        volatile long lastReturnedAt;
+        volatile Throwable borrowSite;
+        volatile boolean leakReported;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class},
+                    new Handle(this));
+        }
+    }
+
+    /**
+     * Borrower-facing view of a pooled connection; close() returns it to the pool
+     */
+    private class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean closed;
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -1,48 +1,217 @@
 package com.civicpulse.util;
 
-import java.io.IOException;
-import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.Properties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 public class DatabaseUtil {
     private static String DB_URL;
     private static String DB_USERNAME;
     private static String DB_PASSWORD;
     private static String DB_DRIVER;
+    private static int POOL_MIN_IDLE;
+    private static int POOL_MAX_SIZE;
+    private static long POOL_BORROW_TIMEOUT_MS;
+    private static long POOL_IDLE_TIMEOUT_MS;
+    private static long POOL_LEAK_THRESHOLD_MS;
+    private static long POOL_LEAK_REPORT_INTERVAL_MS;
+    private static boolean POOL_LEAK_STACK_TRACES;
+    private static int POOL_VALIDATION_TIMEOUT_SECONDS;
+
+    private static ConnectionPool pool;
+
+    // Connection of the unit of work running on the current thread, if any
+    private static final ThreadLocal<Connection> TX_CONNECTION = new ThreadLocal<>();
+    private static final ThreadLocal<List<Runnable>> TX_AFTER_COMMIT = new ThreadLocal<>();
 
     static {
         try {
             loadProperties();
             Class.forName(DB_DRIVER);
+            pool = new ConnectionPool(DB_URL, DB_USERNAME, DB_PASSWORD, POOL_MIN_IDLE, POOL_MAX_SIZE,
+                    POOL_BORROW_TIMEOUT_MS, POOL_IDLE_TIMEOUT_MS, POOL_LEAK_THRESHOLD_MS,
+                    POOL_LEAK_REPORT_INTERVAL_MS, POOL_LEAK_STACK_TRACES, POOL_VALIDATION_TIMEOUT_SECONDS);
         } catch (ClassNotFoundException e) {
             throw new RuntimeException("MySQL Driver not found", e);
-        } catch (IOException e) {
+        } catch (IllegalStateException e) {
             throw new RuntimeException("Failed to load database configuration", e);
         }
     }
 
-    private static void loadProperties() throws IOException {
-        Properties props = new Properties();
-        InputStream input = DatabaseUtil.class.getClassLoader()
-                .getResourceAsStream("config.properties");
-        
-        if (input == null) {
-            throw new IOException("Unable to find config.properties");
-        }
-        
-        props.load(input);
-        DB_URL = props.getProperty("db.url");
-        DB_USERNAME = props.getProperty("db.username");
-        DB_PASSWORD = props.getProperty("db.password");
-        DB_DRIVER = props.getProperty("db.driver");
-        input.close();
+    private static void loadProperties() {
+        DB_URL = ConfigUtil.getRequired("db.url");
+        DB_USERNAME = ConfigUtil.getRequired("db.username");
+        DB_PASSWORD = ConfigUtil.getRequired("db.password");
+        DB_DRIVER = ConfigUtil.getRequired("db.driver");
+        POOL_MAX_SIZE = ConfigUtil.getInt("db.pool.size", 10);
+        POOL_MIN_IDLE = ConfigUtil.getInt("db.pool.min.idle", 2);
+        POOL_BORROW_TIMEOUT_MS = ConfigUtil.getLong("db.pool.borrow.timeout.ms", 5000);
+        POOL_IDLE_TIMEOUT_MS = ConfigUtil.getLong("db.pool.idle.timeout.ms", 600000);
+        POOL_LEAK_THRESHOLD_MS = ConfigUtil.getLong("db.pool.leak.threshold.ms", 30000);
+        POOL_LEAK_REPORT_INTERVAL_MS = ConfigUtil.getLong("db.pool.leak.report.interval.ms", 60000);
+        POOL_LEAK_STACK_TRACES = Boolean.parseBoolean(ConfigUtil.get("db.pool.leak.stack.traces", "true"));
+        POOL_VALIDATION_TIMEOUT_SECONDS = ConfigUtil.getInt("db.pool.validation.timeout.seconds", 2);
     }
 
+    /**
+     * Borrow a pooled connection; closing it returns it to the pool.
+     * Inside {@link #inTransaction(TransactionCallback)} this returns the
+     * transaction's connection, and closing it is a no-op.
+     */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL, DB_USERNAME, DB_PASSWORD);
+        Connection txConn = TX_CONNECTION.get();
+        if (txConn != null) {
+            return joinedView(txConn);
+        }
+        return pool.getConnection();
+    }
+
+    /**
+     * Borrow a pooled connection that never joins the current unit of work.
+     * For short, self-committing statements (e.g. sequence leases) whose locks
+     * must not be held until the surrounding transaction ends.
+     */
+    public static Connection getStandaloneConnection() throws SQLException {
+        return pool.getConnection();
+    }
+
+    /**
+     * Open a connection outside the pool for a long streaming read whose pace is
+     * set by a client (e.g. exports). Callers cap how many are open and close it.
+     */
+    public static Connection openDedicatedConnection() throws SQLException {
+        return pool.openDedicated();
+    }
+
+    /**
+     * True if the database rolled the transaction back to break a deadlock or
+     * serialization conflict (SQLState 40001); running it again may succeed
+     */
+    public static boolean isSerializationFailure(SQLException e) {
+        return "40001".equals(e.getSQLState());
+    }
+
+    /**
+     * Run work as a single unit of work: every DAO call made on this thread
+     * shares one connection and the whole thing commits once. Nested calls
+     * join the outer transaction.
+     */
+    public static <T> T inTransaction(TransactionCallback<T> work) throws SQLException {
+        if (TX_CONNECTION.get() != null) {
+            return work.execute();
+        }
+
+        Connection conn = pool.getConnection();
+        List<Runnable> afterCommit = new ArrayList<>();
+        T result;
+        try {
+            conn.setAutoCommit(false);
+            TX_CONNECTION.set(conn);
+            TX_AFTER_COMMIT.set(afterCommit);
+
+            result = work.execute();
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            rollback(conn);
+            throw e;
+        } finally {
+            TX_CONNECTION.remove();
+            TX_AFTER_COMMIT.remove();
+            try {
+                conn.setAutoCommit(true);
+            } catch (SQLException e) {
+                // The pool discards connections it cannot reset
+            }
+            closeConnection(conn);
+        }
+
+        for (Runnable action : afterCommit) {
+            runQuietly(action);
+        }
+        return result;
+    }
+
+    /**
+     * Run an action once the current unit of work commits (immediately when
+     * there is none). Used to keep in-memory state in step with the database;
+     * the action is dropped if the transaction rolls back.
+     */
+    public static void afterCommit(Runnable action) {
+        List<Runnable> actions = TX_AFTER_COMMIT.get();
+        if (actions != null) {
+            actions.add(action);
+        } else {
+            runQuietly(action);
+        }
+    }
+
+    private static void runQuietly(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Whether the current thread is inside a unit of work
+     */
+    public static boolean isInTransaction() {
+        return TX_CONNECTION.get() != null;
+    }
+
+    /**
+     * View of the transaction connection that DAOs can close freely without
+     * ending the transaction or changing its commit mode
+     */
+    private static Connection joinedView(Connection txConn) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            return null;
+                        case "commit":
+                        case "setAutoCommit":
+                            throw new SQLException("Transaction is managed by DatabaseUtil.inTransaction");
+                        case "rollback":
+                            // Rolling back to a savepoint is fine; a full rollback is not
+                            if (args == null) {
+                                throw new SQLException("Transaction is managed by DatabaseUtil.inTransaction");
+                            }
+                            break;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(txConn, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    /**
+     * Live connection pool statistics (active, idle, waiters, wait-time histogram)
+     */
+    public static Map<String, Object> getPoolStats() {
+        return pool.getStats();
+    }
+
+    /**
+     * Close idle pooled connections (called on application shutdown)
+     */
+    public static void shutdown() {
+        pool.shutdown();
     }
 
     public static void closeConnection(Connection conn) {
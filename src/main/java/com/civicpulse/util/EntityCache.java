@@ -0,0 +1,256 @@
+package com.civicpulse.util;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded read-through cache with per-entry TTL and frequency-aware eviction
+ * (a simplified W-TinyLFU).
+ *
+ * New entries enter a small LRU window (1% of capacity). When the window
+ * overflows, its oldest entry competes with the least recently used entry of
+ * the main region, and whichever a count-min sketch of recent access
+ * frequencies rates higher stays. One-off lookups therefore pass through the
+ * window without pushing out keys that are read repeatedly. The sketch halves
+ * its counters periodically so old popularity fades.
+ *
+ * Loads run outside the lock; a load that overlaps an invalidation is returned
+ * but not cached, so an invalidation is never undone by a slow reader.
+ * Cached values are shared and must not be modified by callers.
+ */
+public class EntityCache<K, V> {
+
+    /**
+     * Loads a value on a miss; returns null if it does not exist (not cached)
+     */
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        V load(K key) throws SQLException;
+    }
+
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final long ttlMillis;
+    private final FrequencySketch sketch;
+    private final LongSupplier clock;
+
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<K, Entry<V>> window = new LinkedHashMap<>(16, 0.75f, true); // guarded by this
+    private final LinkedHashMap<K, Entry<V>> main = new LinkedHashMap<>(16, 0.75f, true); // guarded by this
+    private long invalidations; // guarded by this
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public EntityCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, System::currentTimeMillis);
+    }
+
+    EntityCache(int maxEntries, long ttlMillis, LongSupplier clock) {
+        if (maxEntries < 2) {
+            throw new IllegalArgumentException("Cache must hold at least two entries");
+        }
+        this.windowCapacity = Math.max(1, maxEntries / 100);
+        this.mainCapacity = maxEntries - windowCapacity;
+        this.ttlMillis = ttlMillis;
+        this.sketch = new FrequencySketch(maxEntries);
+        this.clock = clock;
+    }
+
+    /**
+     * Cached value for the key, loading (and caching) it on a miss or after expiry
+     */
+    public V get(K key, Loader<K, V> loader) throws SQLException {
+        long generation;
+        synchronized (this) {
+            sketch.increment(key);
+            Entry<V> entry = window.get(key);
+            if (entry == null) {
+                entry = main.get(key);
+            }
+            if (entry != null) {
+                if (clock.getAsLong() - entry.loadedAt < ttlMillis) {
+                    hits.increment();
+                    return entry.value;
+                }
+                window.remove(key);
+                main.remove(key);
+                expirations.increment();
+            }
+            generation = invalidations;
+        }
+
+        misses.increment();
+        V value = loader.load(key);
+        if (value == null) {
+            return null;
+        }
+
+        synchronized (this) {
+            if (generation == invalidations && !window.containsKey(key) && !main.containsKey(key)) {
+                window.put(key, new Entry<>(value, clock.getAsLong()));
+                if (window.size() > windowCapacity) {
+                    evictFromWindow();
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Cached value for the key, or null if absent or expired; never loads
+     */
+    public V getIfPresent(K key) {
+        synchronized (this) {
+            sketch.increment(key);
+            Entry<V> entry = window.get(key);
+            if (entry == null) {
+                entry = main.get(key);
+            }
+            if (entry != null && clock.getAsLong() - entry.loadedAt < ttlMillis) {
+                hits.increment();
+                return entry.value;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Drop the key so the next read reloads it
+     */
+    public synchronized void invalidate(K key) {
+        invalidations++;
+        window.remove(key);
+        main.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        invalidations++;
+        window.clear();
+        main.clear();
+    }
+
+    /**
+     * Move the window's oldest entry to the main region if it has room, otherwise
+     * keep whichever of it and the main region's LRU entry is accessed more often
+     */
+    private void evictFromWindow() {
+        Iterator<Map.Entry<K, Entry<V>>> windowOldest = window.entrySet().iterator();
+        Map.Entry<K, Entry<V>> candidate = windowOldest.next();
+        windowOldest.remove();
+
+        if (main.size() < mainCapacity) {
+            main.put(candidate.getKey(), candidate.getValue());
+            return;
+        }
+
+        Iterator<Map.Entry<K, Entry<V>>> mainOldest = main.entrySet().iterator();
+        Map.Entry<K, Entry<V>> victim = mainOldest.next();
+        if (sketch.frequency(candidate.getKey()) > sketch.frequency(victim.getKey())) {
+            mainOldest.remove();
+            main.put(candidate.getKey(), candidate.getValue());
+        }
+        evictions.increment();
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        int size;
+        synchronized (this) {
+            size = window.size() + main.size();
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("capacity", windowCapacity + mainCapacity);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        return stats;
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long loadedAt;
+
+        Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * Count-min sketch of access frequencies: four hashed counters per key,
+     * saturating at 15, all halved after every 10 x capacity increments
+     */
+    private static final class FrequencySketch {
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = {0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F};
+
+        private final byte[][] counters;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int capacity) {
+            int width = Integer.highestOneBit(Math.max(16, capacity - 1)) << 1;
+            this.counters = new byte[DEPTH][width];
+            this.mask = width - 1;
+            this.sampleSize = 10 * capacity;
+        }
+
+        void increment(Object key) {
+            int hash = spread(key.hashCode());
+            for (int i = 0; i < DEPTH; i++) {
+                int index = indexOf(hash, i);
+                if (counters[i][index] < MAX_COUNT) {
+                    counters[i][index]++;
+                }
+            }
+            if (++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int min = MAX_COUNT;
+            for (int i = 0; i < DEPTH; i++) {
+                min = Math.min(min, counters[i][indexOf(hash, i)]);
+            }
+            return min;
+        }
+
+        private int indexOf(int hash, int row) {
+            int h = hash * SEEDS[row];
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        private void reset() {
+            for (byte[] row : counters) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = (byte) (row[i] >> 1);
+                }
+            }
+            additions /= 2;
+        }
+
+        private static int spread(int hash) {
+            hash ^= hash >>> 17;
+            hash *= 0xED5AD4BB;
+            hash ^= hash >>> 11;
+            return hash;
+        }
+    }
+}
@@ -1,9 +1,22 @@
 package com.civicpulse.util;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class GeoUtil {
     
     private static final int EARTH_RADIUS_KM = 6371;
 
+    // Mean length of one degree of latitude (and of longitude at the equator)
+    private static final double KM_PER_DEGREE = 2 * Math.PI * EARTH_RADIUS_KM / 360.0;
+
+    // Above this radius the flat-earth approximation drifts; fall back to Haversine
+    private static final double EQUIRECTANGULAR_MAX_RADIUS_KM = 10.0;
+
+    // Bits per axis in a Morton (Z-order) code; 26 bits gives ~0.3 m latitude resolution
+    public static final int MORTON_BITS = 26;
+    private static final long MORTON_AXIS_CELLS = 1L << MORTON_BITS;
+
     /**
      * Calculate distance between two GPS coordinates using Haversine formula
      * @return distance in kilometers
@@ -25,8 +38,7 @@ public class GeoUtil {
      * Check if two locations are within specified radius
      */
     public static boolean isWithinRadius(double lat1, double lon1, double lat2, double lon2, double radiusKm) {
-        double distance = calculateDistance(lat1, lon1, lat2, lon2);
-        return distance <= radiusKm;
+        return new RadiusKernel(lat1, lon1, radiusKm).contains(lat2, lon2);
     }
 
     /**
@@ -44,4 +56,158 @@ public class GeoUtil {
             lng + lngDelta   // maxLng
         };
     }
+
+    /**
+     * Morton (Z-order) code of a coordinate: quantized latitude and longitude bits
+     * interleaved so nearby points share long prefixes. Stored as issues.geo_cell.
+     */
+    public static long mortonCode(double lat, double lng) {
+        return interleave(quantizeLat(lat), quantizeLng(lng));
+    }
+
+    /**
+     * Contiguous geo_cell ranges that together cover the lat/lng window.
+     * Picks the finest Z-order level at which the window spans at most maxRanges
+     * cells, then merges adjacent cells. Returns pairs of [low, high] (inclusive).
+     */
+    public static List<long[]> mortonRanges(double minLat, double maxLat, double minLng, double maxLng,
+            int maxRanges) {
+        long minY = quantizeLat(minLat);
+        long maxY = quantizeLat(maxLat);
+        long minX = quantizeLng(minLng);
+        long maxX = quantizeLng(maxLng);
+
+        // Coarsen until the window covers few enough cells
+        int shift = 0;
+        while (shift < MORTON_BITS
+                && ((maxY >> shift) - (minY >> shift) + 1) * ((maxX >> shift) - (minX >> shift) + 1) > maxRanges) {
+            shift++;
+        }
+
+        List<Long> prefixes = new ArrayList<>();
+        for (long y = minY >> shift; y <= maxY >> shift; y++) {
+            for (long x = minX >> shift; x <= maxX >> shift; x++) {
+                prefixes.add(interleave(y, x));
+            }
+        }
+        prefixes.sort(null);
+
+        // Each cell at this level is one contiguous run of full-resolution codes
+        int suffixBits = 2 * shift;
+        List<long[]> ranges = new ArrayList<>();
+        for (long prefix : prefixes) {
+            long low = prefix << suffixBits;
+            long high = low | ((1L << suffixBits) - 1);
+            long[] last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+            if (last != null && last[1] + 1 == low) {
+                last[1] = high;
+            } else {
+                ranges.add(new long[] {low, high});
+            }
+        }
+
+        return ranges;
+    }
+
+    private static long quantizeLat(double lat) {
+        return clampCell((long) Math.floor((lat + 90.0) / 180.0 * MORTON_AXIS_CELLS));
+    }
+
+    private static long quantizeLng(double lng) {
+        return clampCell((long) Math.floor((lng + 180.0) / 360.0 * MORTON_AXIS_CELLS));
+    }
+
+    private static long clampCell(long cell) {
+        return Math.max(0, Math.min(MORTON_AXIS_CELLS - 1, cell));
+    }
+
+    /**
+     * Interleave bits: latitude (y) in odd positions, longitude (x) in even positions
+     */
+    private static long interleave(long y, long x) {
+        return (spreadBits(y) << 1) | spreadBits(x);
+    }
+
+    private static long spreadBits(long v) {
+        v &= 0xFFFFFFFFL;
+        v = (v | (v << 16)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v << 8)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v << 2)) & 0x3333333333333333L;
+        v = (v | (v << 1)) & 0x5555555555555555L;
+        return v;
+    }
+
+    /**
+     * Allocation-free "within radius of a query point" test.
+     *
+     * Everything that depends only on the query point (cos(lat), the radius in
+     * squared degrees) is computed once. For small radii each candidate costs a
+     * few multiplications: an equirectangular projection compared against the
+     * squared radius, accurate to centimetres at 100 m. Radii above 10 km use
+     * Haversine.
+     */
+    public static final class RadiusKernel {
+        private final double lat;
+        private final double lng;
+        private final double radiusKm;
+        private final double cosLat;
+        private final double radiusDegSquared;
+        private final boolean haversine;
+
+        public RadiusKernel(double lat, double lng, double radiusKm) {
+            this.lat = lat;
+            this.lng = lng;
+            this.radiusKm = radiusKm;
+            this.cosLat = Math.cos(Math.toRadians(lat));
+            double radiusDeg = radiusKm / KM_PER_DEGREE;
+            this.radiusDegSquared = radiusDeg * radiusDeg;
+            this.haversine = radiusKm > EQUIRECTANGULAR_MAX_RADIUS_KM;
+        }
+
+        /**
+         * Monotonic distance measure to the point, or +Infinity if it lies outside the
+         * radius. Only meaningful for comparing candidates of the same kernel.
+         */
+        public double proximity(double pLat, double pLng) {
+            if (haversine) {
+                double distance = calculateDistance(lat, lng, pLat, pLng);
+                return distance <= radiusKm ? distance : Double.POSITIVE_INFINITY;
+            }
+
+            double dLat = pLat - lat;
+            double dLng = pLng - lng;
+            if (dLng > 180.0) {
+                dLng -= 360.0;
+            } else if (dLng < -180.0) {
+                dLng += 360.0;
+            }
+            dLng *= cosLat;
+
+            double squared = dLat * dLat + dLng * dLng;
+            return squared <= radiusDegSquared ? squared : Double.POSITIVE_INFINITY;
+        }
+
+        public boolean contains(double pLat, double pLng) {
+            return proximity(pLat, pLng) != Double.POSITIVE_INFINITY;
+        }
+
+        /**
+         * Distance in kilometres (approximate for small radii, Haversine otherwise)
+         */
+        public double distanceKm(double pLat, double pLng) {
+            if (haversine) {
+                return calculateDistance(lat, lng, pLat, pLng);
+            }
+            double dLat = pLat - lat;
+            double dLng = pLng - lng;
+            if (dLng > 180.0) {
+                dLng -= 360.0;
+            } else if (dLng < -180.0) {
+                dLng += 360.0;
+            }
+            dLng *= cosLat;
+            return Math.sqrt(dLat * dLat + dLng * dLng) * KM_PER_DEGREE;
+        }
+    }
 }
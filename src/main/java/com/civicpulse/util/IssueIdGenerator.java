@@ -1,30 +1,114 @@
 package com.civicpulse.util;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.concurrent.atomic.AtomicInteger;
+import com.civicpulse.dao.IssueSequenceDAO;
 
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issue ID allocator backed by a cluster-wide counter table (hi/lo).
+ *
+ * Each node leases blocks of sequence numbers per (category, day) from
+ * issue_id_sequences and hands them out with a lock-free increment, so IDs
+ * never collide across nodes or restarts. Only the thread that exhausts a
+ * block goes to the database, on a connection of its own, so callers take IDs
+ * before starting a transaction and {@link #release(String)} the ones they end
+ * up not using; unused numbers left in a block are simply skipped.
+ */
 public class IssueIdGenerator {
-    
-    private static final AtomicInteger sequence = new AtomicInteger(0);
-    private static String lastDate = "";
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.BASIC_ISO_DATE; // yyyyMMdd
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private static final IssueSequenceDAO sequenceDAO = new IssueSequenceDAO();
+    private static final ConcurrentHashMap<String, SequenceBlock> blocks = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Object> leaseLocks = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Queue<Long>> released = new ConcurrentHashMap<>();
+    private static final int BLOCK_SIZE = ConfigUtil.getInt("issue.id.block.size", 20);
+
+    private static volatile DayStamp today = DayStamp.forDate(LocalDate.now(ZONE));
 
     /**
      * Generate unique issue ID in format: CIVIC-{CATEGORY_CODE}-{YYYYMMDD}-{SEQUENCE}
      * Example: CIVIC-RD-20260210-0001
      */
-    public static synchronized String generateIssueId(String category) {
+    public static String generateIssueId(String category) throws SQLException {
         String categoryCode = getCategoryCode(category);
-        String dateStr = new SimpleDateFormat("yyyyMMdd").format(new Date());
-        
-        // Reset sequence if date changed
-        if (!dateStr.equals(lastDate)) {
-            sequence.set(0);
-            lastDate = dateStr;
-        }
-        
-        int seq = sequence.incrementAndGet();
-        return String.format("CIVIC-%s-%s-%04d", categoryCode, dateStr, seq);
+        String dateStr = currentDay().formatted;
+
+        long seq = nextSequence(categoryCode, dateStr);
+
+        StringBuilder id = new StringBuilder(24)
+                .append("CIVIC-").append(categoryCode).append('-').append(dateStr).append('-');
+        String digits = Long.toString(seq);
+        for (int i = digits.length(); i < 4; i++) {
+            id.append('0');
+        }
+        return id.append(digits).toString();
+    }
+
+    /**
+     * Hand back an ID from {@link #generateIssueId(String)} that was never stored,
+     * so its number is given out again. IDs from an earlier day are dropped.
+     */
+    public static void release(String issueId) {
+        String[] parts = issueId.split("-");
+        if (parts.length != 4 || !parts[2].equals(currentDay().formatted)) {
+            return;
+        }
+        released.computeIfAbsent(parts[1] + parts[2], k -> new ConcurrentLinkedQueue<>())
+                .offer(Long.parseLong(parts[3]));
+    }
+
+    /**
+     * Today's date string, recomputed only when the clock passes midnight
+     */
+    private static DayStamp currentDay() {
+        DayStamp day = today;
+        if (System.currentTimeMillis() >= day.nextMidnightMillis) {
+            // Racing threads compute the same value; last write wins harmlessly
+            day = DayStamp.forDate(LocalDate.now(ZONE));
+            today = day;
+            String suffix = day.formatted;
+            blocks.keySet().removeIf(key -> !key.endsWith(suffix));
+            leaseLocks.keySet().removeIf(key -> !key.endsWith(suffix));
+            released.keySet().removeIf(key -> !key.endsWith(suffix));
+        }
+        return day;
+    }
+
+    private static long nextSequence(String categoryCode, String dateStr) throws SQLException {
+        String key = categoryCode + dateStr;
+
+        Queue<Long> returned = released.get(key);
+        Long reused = returned != null ? returned.poll() : null;
+        if (reused != null) {
+            return reused;
+        }
+
+        while (true) {
+            SequenceBlock block = blocks.get(key);
+            if (block != null) {
+                long seq = block.take();
+                if (seq > 0) {
+                    return seq;
+                }
+            }
+
+            // Block missing or exhausted: one thread per key leases the next one
+            synchronized (leaseLocks.computeIfAbsent(key, k -> new Object())) {
+                if (blocks.get(key) == block) {
+                    long high = sequenceDAO.leaseBlock(categoryCode, dateStr, BLOCK_SIZE);
+                    blocks.put(key, new SequenceBlock(high - BLOCK_SIZE + 1, high));
+                }
+            }
+        }
     }
 
     /**
@@ -44,4 +128,43 @@ public class IssueIdGenerator {
                 return "XX";
         }
     }
+
+    /**
+     * A leased range of sequence numbers [next, end]
+     */
+    private static final class SequenceBlock {
+        private final AtomicLong next;
+        private final long end;
+
+        SequenceBlock(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+
+        /**
+         * Next number in the block, or -1 once it is used up
+         */
+        long take() {
+            long seq = next.getAndIncrement();
+            return seq <= end ? seq : -1;
+        }
+    }
+
+    /**
+     * Cached yyyyMMdd string plus the instant it stops being valid
+     */
+    private static final class DayStamp {
+        final String formatted;
+        final long nextMidnightMillis;
+
+        private DayStamp(String formatted, long nextMidnightMillis) {
+            this.formatted = formatted;
+            this.nextMidnightMillis = nextMidnightMillis;
+        }
+
+        static DayStamp forDate(LocalDate date) {
+            return new DayStamp(date.format(DAY_FORMAT),
+                    date.plusDays(1).atStartOfDay(ZONE).toInstant().toEpochMilli());
+        }
+    }
 }
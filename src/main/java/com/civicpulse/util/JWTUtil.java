@@ -1,57 +1,73 @@
 package com.civicpulse.util;
 
+import com.civicpulse.model.AuthPrincipal;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 
-import java.io.IOException;
-import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
-import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class JWTUtil {
     private static String SECRET_KEY;
     private static long EXPIRATION_TIME;
+    private static long CACHE_TTL_MS;
+    private static int CACHE_MAX_ENTRIES;
     private static Key key;
 
+    // Parsers are immutable and thread-safe; build once instead of per call
+    private static JwtParser parser;
+
+    // Recently verified tokens, keyed by SHA-256 of the token
+    private static final ConcurrentHashMap<String, CachedPrincipal> verifiedTokens = new ConcurrentHashMap<>();
+
     static {
         try {
             loadProperties();
             key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
-        } catch (IOException e) {
+            parser = Jwts.parserBuilder().setSigningKey(key).build();
+        } catch (IllegalStateException e) {
             throw new RuntimeException("Failed to load JWT configuration", e);
         }
     }
 
-    private static void loadProperties() throws IOException {
-        Properties props = new Properties();
-        InputStream input = JWTUtil.class.getClassLoader()
-                .getResourceAsStream("config.properties");
-        
-        if (input == null) {
-            throw new IOException("Unable to find config.properties");
-        }
-        
-        props.load(input);
-        SECRET_KEY = props.getProperty("jwt.secret");
-        EXPIRATION_TIME = Long.parseLong(props.getProperty("jwt.expiration"));
-        input.close();
+    private static void loadProperties() {
+        SECRET_KEY = ConfigUtil.getRequired("jwt.secret");
+        EXPIRATION_TIME = Long.parseLong(ConfigUtil.getRequired("jwt.expiration"));
+        CACHE_TTL_MS = ConfigUtil.getLong("jwt.cache.ttl.ms", 60000);
+        CACHE_MAX_ENTRIES = ConfigUtil.getInt("jwt.cache.max.entries", 10000);
     }
 
     /**
      * Generate JWT token for a user
      */
     public static String generateToken(int userId, String role, String name) {
-        return Jwts.builder()
+        return generateToken(userId, role, name, null);
+    }
+
+    /**
+     * Generate JWT token for a user, embedding the department so requests
+     * never need a user lookup to find it
+     */
+    public static String generateToken(int userId, String role, String name, Integer deptId) {
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(String.valueOf(userId))
                 .claim("role", role)
                 .claim("name", name)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(key, SignatureAlgorithm.HS512)
-                .compact();
+                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME));
+        if (deptId != null) {
+            builder.claim("deptId", deptId);
+        }
+        return builder.signWith(key, SignatureAlgorithm.HS512).compact();
     }
 
     /**
@@ -59,36 +75,72 @@ public class JWTUtil {
      */
     public static Claims validateToken(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return parser.parseClaimsJws(token).getBody();
         } catch (Exception e) {
             return null;
         }
     }
 
     /**
-     * Extract user ID from token
+     * Verify a token once and return the caller's principal, or null if the
+     * token is invalid or expired. Verified tokens are cached briefly so
+     * repeat requests skip the signature check.
      */
-    public static Integer getUserIdFromToken(String token) {
+    public static AuthPrincipal authenticate(String token) {
+        String cacheKey = sha256(token);
+        long now = System.currentTimeMillis();
+
+        CachedPrincipal cached = verifiedTokens.get(cacheKey);
+        if (cached != null) {
+            if (now < cached.expiresAt) {
+                return cached.principal;
+            }
+            verifiedTokens.remove(cacheKey, cached);
+        }
+
         Claims claims = validateToken(token);
-        if (claims != null) {
-            return Integer.parseInt(claims.getSubject());
+        if (claims == null) {
+            return null;
+        }
+
+        Number deptId = claims.get("deptId", Number.class);
+        AuthPrincipal principal = new AuthPrincipal(
+                Integer.parseInt(claims.getSubject()),
+                claims.get("role", String.class),
+                deptId != null ? deptId.intValue() : null,
+                claims.get("name", String.class));
+
+        // Never cache past the token's own expiry
+        long expiresAt = now + CACHE_TTL_MS;
+        if (claims.getExpiration() != null) {
+            expiresAt = Math.min(expiresAt, claims.getExpiration().getTime());
+        }
+
+        if (verifiedTokens.size() >= CACHE_MAX_ENTRIES) {
+            verifiedTokens.values().removeIf(entry -> entry.expiresAt <= now);
+            if (verifiedTokens.size() >= CACHE_MAX_ENTRIES) {
+                verifiedTokens.clear();
+            }
         }
-        return null;
+        verifiedTokens.put(cacheKey, new CachedPrincipal(principal, expiresAt));
+
+        return principal;
+    }
+
+    /**
+     * Extract user ID from token
+     */
+    public static Integer getUserIdFromToken(String token) {
+        AuthPrincipal principal = authenticate(token);
+        return principal != null ? principal.getUserId() : null;
     }
 
     /**
      * Extract role from token
      */
     public static String getRoleFromToken(String token) {
-        Claims claims = validateToken(token);
-        if (claims != null) {
-            return claims.get("role", String.class);
-        }
-        return null;
+        AuthPrincipal principal = authenticate(token);
+        return principal != null ? principal.getRole() : null;
     }
 
     /**
@@ -101,4 +153,23 @@ public class JWTUtil {
         }
         return true;
     }
+
+    private static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class CachedPrincipal {
+        final AuthPrincipal principal;
+        final long expiresAt;
+
+        CachedPrincipal(AuthPrincipal principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
@@ -0,0 +1,275 @@
+package com.civicpulse.util;
+
+import com.civicpulse.model.Department;
+import com.civicpulse.model.Issue;
+import com.civicpulse.model.IssueTimeline;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * The application's one Gson instance.
+ *
+ * Issue, IssueTimeline and Department are written by hand-coded streaming
+ * adapters instead of reflection, with the same field names and null
+ * omission as before. Every timestamp, in models and in response maps alike,
+ * is written as epoch milliseconds. Gson is thread-safe, so servlets and
+ * services share this instance rather than each building their own.
+ */
+public final class JsonUtil {
+
+    public static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(Issue.class, new IssueAdapter().nullSafe())
+            .registerTypeAdapter(IssueTimeline.class, new IssueTimelineAdapter().nullSafe())
+            .registerTypeAdapter(Department.class, new DepartmentAdapter().nullSafe())
+            .registerTypeHierarchyAdapter(Date.class, new EpochMillisAdapter().nullSafe())
+            .create();
+
+    private JsonUtil() {}
+
+    private static void writeTimestamp(JsonWriter out, String name, Timestamp value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value.getTime());
+        }
+    }
+
+    private static void writeString(JsonWriter out, String name, String value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    private static String readString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    private static Integer readInteger(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextInt();
+    }
+
+    private static Timestamp readTimestamp(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return new Timestamp(in.nextLong());
+    }
+
+    /**
+     * java.util.Date and subclasses (Timestamp) as epoch millis
+     */
+    private static final class EpochMillisAdapter extends TypeAdapter<Date> {
+        @Override
+        public void write(JsonWriter out, Date value) throws IOException {
+            out.value(value.getTime());
+        }
+
+        @Override
+        public Date read(JsonReader in) throws IOException {
+            return new Timestamp(in.nextLong());
+        }
+    }
+
+    private static final class IssueAdapter extends TypeAdapter<Issue> {
+        @Override
+        public void write(JsonWriter out, Issue issue) throws IOException {
+            out.beginObject();
+            writeString(out, "issueId", issue.getIssueId());
+            writeString(out, "category", issue.getCategory());
+            out.name("locationLat").value(issue.getLocationLat());
+            out.name("locationLng").value(issue.getLocationLng());
+            writeString(out, "address", issue.getAddress());
+            writeString(out, "description", issue.getDescription());
+            writeString(out, "status", issue.getStatus());
+            out.name("reportCount").value(issue.getReportCount());
+            if (issue.getDeptId() != null) {
+                out.name("deptId").value(issue.getDeptId());
+            }
+            writeString(out, "imageUrl", issue.getImageUrl());
+            writeTimestamp(out, "createdAt", issue.getCreatedAt());
+            writeTimestamp(out, "updatedAt", issue.getUpdatedAt());
+            writeTimestamp(out, "resolvedAt", issue.getResolvedAt());
+            out.name("version").value(issue.getVersion());
+            out.endObject();
+        }
+
+        @Override
+        public Issue read(JsonReader in) throws IOException {
+            Issue issue = new Issue();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "issueId":
+                        issue.setIssueId(readString(in));
+                        break;
+                    case "category":
+                        issue.setCategory(readString(in));
+                        break;
+                    case "locationLat":
+                        issue.setLocationLat(in.nextDouble());
+                        break;
+                    case "locationLng":
+                        issue.setLocationLng(in.nextDouble());
+                        break;
+                    case "address":
+                        issue.setAddress(readString(in));
+                        break;
+                    case "description":
+                        issue.setDescription(readString(in));
+                        break;
+                    case "status":
+                        issue.setStatus(readString(in));
+                        break;
+                    case "reportCount":
+                        issue.setReportCount(in.nextInt());
+                        break;
+                    case "deptId":
+                        issue.setDeptId(readInteger(in));
+                        break;
+                    case "imageUrl":
+                        issue.setImageUrl(readString(in));
+                        break;
+                    case "createdAt":
+                        issue.setCreatedAt(readTimestamp(in));
+                        break;
+                    case "updatedAt":
+                        issue.setUpdatedAt(readTimestamp(in));
+                        break;
+                    case "resolvedAt":
+                        issue.setResolvedAt(readTimestamp(in));
+                        break;
+                    case "version":
+                        issue.setVersion(in.nextInt());
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return issue;
+        }
+    }
+
+    private static final class IssueTimelineAdapter extends TypeAdapter<IssueTimeline> {
+        @Override
+        public void write(JsonWriter out, IssueTimeline timeline) throws IOException {
+            out.beginObject();
+            out.name("timelineId").value(timeline.getTimelineId());
+            writeString(out, "issueId", timeline.getIssueId());
+            writeString(out, "status", timeline.getStatus());
+            out.name("updatedBy").value(timeline.getUpdatedBy());
+            writeString(out, "remarks", timeline.getRemarks());
+            writeString(out, "proofImageUrl", timeline.getProofImageUrl());
+            writeTimestamp(out, "createdAt", timeline.getCreatedAt());
+            writeString(out, "updatedByName", timeline.getUpdatedByName());
+            writeString(out, "updatedByRole", timeline.getUpdatedByRole());
+            out.endObject();
+        }
+
+        @Override
+        public IssueTimeline read(JsonReader in) throws IOException {
+            IssueTimeline timeline = new IssueTimeline();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "timelineId":
+                        timeline.setTimelineId(in.nextInt());
+                        break;
+                    case "issueId":
+                        timeline.setIssueId(readString(in));
+                        break;
+                    case "status":
+                        timeline.setStatus(readString(in));
+                        break;
+                    case "updatedBy":
+                        timeline.setUpdatedBy(in.nextInt());
+                        break;
+                    case "remarks":
+                        timeline.setRemarks(readString(in));
+                        break;
+                    case "proofImageUrl":
+                        timeline.setProofImageUrl(readString(in));
+                        break;
+                    case "createdAt":
+                        timeline.setCreatedAt(readTimestamp(in));
+                        break;
+                    case "updatedByName":
+                        timeline.setUpdatedByName(readString(in));
+                        break;
+                    case "updatedByRole":
+                        timeline.setUpdatedByRole(readString(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return timeline;
+        }
+    }
+
+    private static final class DepartmentAdapter extends TypeAdapter<Department> {
+        @Override
+        public void write(JsonWriter out, Department dept) throws IOException {
+            out.beginObject();
+            out.name("deptId").value(dept.getDeptId());
+            writeString(out, "deptName", dept.getDeptName());
+            writeString(out, "deptType", dept.getDeptType());
+            writeString(out, "contactEmail", dept.getContactEmail());
+            writeString(out, "contactPhone", dept.getContactPhone());
+            writeTimestamp(out, "createdAt", dept.getCreatedAt());
+            out.name("isActive").value(dept.isActive());
+            out.endObject();
+        }
+
+        @Override
+        public Department read(JsonReader in) throws IOException {
+            Department dept = new Department();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "deptId":
+                        dept.setDeptId(in.nextInt());
+                        break;
+                    case "deptName":
+                        dept.setDeptName(readString(in));
+                        break;
+                    case "deptType":
+                        dept.setDeptType(readString(in));
+                        break;
+                    case "contactEmail":
+                        dept.setContactEmail(readString(in));
+                        break;
+                    case "contactPhone":
+                        dept.setContactPhone(readString(in));
+                        break;
+                    case "createdAt":
+                        dept.setCreatedAt(readTimestamp(in));
+                        break;
+                    case "isActive":
+                        dept.setActive(in.nextBoolean());
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return dept;
+        }
+    }
+}
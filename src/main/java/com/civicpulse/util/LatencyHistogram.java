@@ -0,0 +1,68 @@
+package com.civicpulse.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free fixed-bucket latency histogram (milliseconds)
+ */
+public class LatencyHistogram {
+
+    private static final long[] BUCKET_BOUNDS_MS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Record one observation measured in nanoseconds
+     */
+    public void record(long nanos) {
+        long millis = nanos / 1_000_000L;
+        int index = BUCKET_BOUNDS_MS.length;
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            if (millis < BUCKET_BOUNDS_MS[i]) {
+                index = i;
+                break;
+            }
+        }
+
+        buckets.incrementAndGet(index);
+        count.increment();
+        totalNanos.add(nanos);
+
+        long currentMax = maxNanos.get();
+        while (nanos > currentMax && !maxNanos.compareAndSet(currentMax, nanos)) {
+            currentMax = maxNanos.get();
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Snapshot of bucket counts plus count/mean/max, suitable for JSON output
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            histogram.put("lt" + BUCKET_BOUNDS_MS[i] + "ms", buckets.get(i));
+        }
+        histogram.put("ge" + BUCKET_BOUNDS_MS[BUCKET_BOUNDS_MS.length - 1] + "ms",
+                buckets.get(BUCKET_BOUNDS_MS.length));
+
+        long n = count.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", n);
+        result.put("meanMs", n == 0 ? 0.0 : totalNanos.sum() / (double) n / 1_000_000.0);
+        result.put("maxMs", maxNanos.get() / 1_000_000.0);
+        result.put("buckets", histogram);
+
+        return result;
+    }
+}
@@ -0,0 +1,35 @@
+package com.civicpulse.util;
+
+import java.io.IOException;
+import java.net.InetAddress;
+
+/**
+ * Identity of this application process among the nodes sharing the database.
+ * Configured with node.id, otherwise host-pid-start so that a restarted node
+ * never reuses an earlier process's ID.
+ */
+public class NodeId {
+
+    private static final int MAX_LENGTH = 64;
+    private static final String NODE_ID = load();
+
+    public static String get() {
+        return NODE_ID;
+    }
+
+    private static String load() {
+        String configured = ConfigUtil.get("node.id", "");
+        if (!configured.isEmpty()) {
+            return configured;
+        }
+
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            host = "node";
+        }
+        String id = host + "-" + ProcessHandle.current().pid() + "-" + Long.toString(System.currentTimeMillis(), 36);
+        return id.length() <= MAX_LENGTH ? id : id.substring(id.length() - MAX_LENGTH);
+    }
+}
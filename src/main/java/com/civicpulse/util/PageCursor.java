@@ -0,0 +1,54 @@
+package com.civicpulse.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor: a sort timestamp plus a unique tie-breaker key.
+ * Encoded as URL-safe Base64 so clients treat it as a token.
+ */
+public class PageCursor {
+
+    private final long timestamp;
+    private final String key;
+
+    public PageCursor(long timestamp, String key) {
+        this.timestamp = timestamp;
+        this.key = key;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String encode() {
+        String raw = timestamp + "|" + key;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor token; returns null for a missing token
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            if (sep <= 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new PageCursor(Long.parseLong(raw.substring(0, sep)), raw.substring(sep + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
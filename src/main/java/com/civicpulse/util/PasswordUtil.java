@@ -2,25 +2,38 @@ package com.civicpulse.util;
 
 import org.mindrot.jbcrypt.BCrypt;
 
+import java.util.Map;
+
 public class PasswordUtil {
     
     private static final int BCRYPT_ROUNDS = 12;
 
+    // Time spent in BCrypt (hash and verify)
+    private static final LatencyHistogram hashTimes = new LatencyHistogram();
+
     /**
      * Hash a plain text password using BCrypt
      */
     public static String hashPassword(String plainPassword) {
-        return BCrypt.hashpw(plainPassword, BCrypt.gensalt(BCRYPT_ROUNDS));
+        long start = System.nanoTime();
+        try {
+            return BCrypt.hashpw(plainPassword, BCrypt.gensalt(BCRYPT_ROUNDS));
+        } finally {
+            hashTimes.record(System.nanoTime() - start);
+        }
     }
 
     /**
      * Verify a plain text password against a hashed password
      */
     public static boolean verifyPassword(String plainPassword, String hashedPassword) {
+        long start = System.nanoTime();
         try {
             return BCrypt.checkpw(plainPassword, hashedPassword);
         } catch (Exception e) {
             return false;
+        } finally {
+            hashTimes.record(System.nanoTime() - start);
         }
     }
 
@@ -33,4 +46,11 @@ public class PasswordUtil {
         }
         return true;
     }
+
+    /**
+     * Latency of BCrypt hash/verify calls
+     */
+    public static Map<String, Object> getHashStats() {
+        return hashTimes.snapshot();
+    }
 }
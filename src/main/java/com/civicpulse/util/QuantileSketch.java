@@ -0,0 +1,267 @@
+package com.civicpulse.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch for non-negative values (DDSketch-style).
+ *
+ * Values are counted in logarithmic buckets whose width grows with the value,
+ * so every quantile is answered within a fixed relative error (1% by default)
+ * using a few hundred counters at most. Two sketches with the same accuracy
+ * merge exactly by adding bucket counts, which is what lets per-node, per-day
+ * sketches be combined into any report. Not thread-safe.
+ */
+public class QuantileSketch {
+
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+    // Values below this are counted as zero
+    private static final double MIN_INDEXABLE_VALUE = 1e-3;
+    private static final byte FORMAT_VERSION = 1;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+
+    private long[] counts = new long[0]; // counts[i] belongs to bucket index offset + i
+    private int offset;
+    private long zeroCount;
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    public QuantileSketch(double relativeAccuracy) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("Relative accuracy must be in (0, 1)");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    /**
+     * Record one observation
+     * @throws IllegalArgumentException if the value is negative or not a number
+     */
+    public void add(double value) {
+        if (!(value >= 0) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Value must be a finite non-negative number: " + value);
+        }
+
+        if (value < MIN_INDEXABLE_VALUE) {
+            zeroCount++;
+        } else {
+            int index = (int) Math.ceil(Math.log(value) / logGamma);
+            ensureCapacity(index, index);
+            counts[index - offset]++;
+        }
+
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Add every observation of another sketch to this one
+     * @throws IllegalArgumentException if the sketches use different accuracies
+     */
+    public void merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Cannot merge sketches with different accuracies");
+        }
+        if (other.count == 0) {
+            return;
+        }
+
+        if (other.counts.length > 0) {
+            ensureCapacity(other.offset, other.offset + other.counts.length - 1);
+            for (int i = 0; i < other.counts.length; i++) {
+                counts[other.offset + i - offset] += other.counts[i];
+            }
+        }
+
+        zeroCount += other.zeroCount;
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Estimated value at quantile q (0..1), or NaN when the sketch is empty
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be in [0, 1]: " + q);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+
+        long rank = (long) Math.floor(q * (count - 1));
+        long seen = zeroCount;
+        if (rank < seen) {
+            return min < MIN_INDEXABLE_VALUE ? min : 0;
+        }
+
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (rank < seen) {
+                double value = 2 * Math.pow(gamma, offset + i) / (gamma + 1);
+                return Math.max(min, Math.min(max, value));
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    /**
+     * Compact binary form: header, then (index delta, count) varint pairs for non-empty buckets
+     */
+    public byte[] toBytes() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(FORMAT_VERSION);
+            out.writeDouble(relativeAccuracy);
+            out.writeDouble(sum);
+            out.writeDouble(min);
+            out.writeDouble(max);
+            writeVarLong(out, zeroCount);
+
+            int nonEmpty = 0;
+            for (long c : counts) {
+                if (c != 0) {
+                    nonEmpty++;
+                }
+            }
+            writeVarLong(out, nonEmpty);
+
+            int previous = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    int index = offset + i;
+                    int delta = index - previous;
+                    writeVarLong(out, ((delta << 1) ^ (delta >> 31)) & 0xFFFFFFFFL); // zigzag: indexes may be negative
+                    writeVarLong(out, counts[i]);
+                    previous = index;
+                }
+            }
+
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // In-memory streams never fail
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Rebuild a sketch from {@link #toBytes()}
+     * @throws IOException if the data is truncated or from an unknown format version
+     */
+    public static QuantileSketch fromBytes(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        byte version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported sketch format version " + version);
+        }
+
+        QuantileSketch sketch = new QuantileSketch(in.readDouble());
+        sketch.sum = in.readDouble();
+        sketch.min = in.readDouble();
+        sketch.max = in.readDouble();
+        sketch.zeroCount = readVarLong(in);
+        sketch.count = sketch.zeroCount;
+
+        long nonEmpty = readVarLong(in);
+        int index = 0;
+        for (long i = 0; i < nonEmpty; i++) {
+            int zigzag = (int) readVarLong(in);
+            index += (zigzag >>> 1) ^ -(zigzag & 1);
+            long c = readVarLong(in);
+            sketch.ensureCapacity(index, index);
+            sketch.counts[index - sketch.offset] += c;
+            sketch.count += c;
+        }
+        return sketch;
+    }
+
+    /**
+     * Grow the bucket array so it covers bucket indexes [low, high]
+     */
+    private void ensureCapacity(int low, int high) {
+        if (counts.length == 0) {
+            offset = low;
+            counts = new long[high - low + 1];
+            return;
+        }
+
+        int currentHigh = offset + counts.length - 1;
+        if (low >= offset && high <= currentHigh) {
+            return;
+        }
+
+        int newLow = Math.min(low, offset);
+        int newHigh = Math.max(high, currentHigh);
+        long[] grown = new long[newHigh - newLow + 1];
+        System.arraycopy(counts, 0, grown, offset - newLow, counts.length);
+        counts = grown;
+        offset = newLow;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in sketch data");
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch{" +
+                "count=" + count +
+                ", buckets=" + Arrays.stream(counts).filter(c -> c != 0).count() +
+                ", relativeAccuracy=" + relativeAccuracy +
+                '}';
+    }
+}
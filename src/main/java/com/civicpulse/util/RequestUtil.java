@@ -0,0 +1,133 @@
+package com.civicpulse.util;
+
+import com.civicpulse.model.IssueFilter;
+
+import javax.servlet.http.HttpServletRequest;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Set;
+
+public class RequestUtil {
+
+    private static final Set<String> STATUSES = Set.of("REPORTED", "ASSIGNED", "IN_PROGRESS", "RESOLVED");
+    private static final Set<String> CATEGORIES = Set.of("ROAD", "WATER", "SANITATION", "ELECTRICITY");
+
+    /**
+     * Parse the optional page size parameter
+     * @throws IllegalArgumentException if it is not a number
+     */
+    public static int parseLimit(HttpServletRequest request, int defaultLimit) {
+        String limit = request.getParameter("limit");
+        if (limit == null || limit.isEmpty()) {
+            return defaultLimit;
+        }
+        return Integer.parseInt(limit);
+    }
+
+    /**
+     * Build an issue list filter from query parameters:
+     * status, category, deptId, from, to (yyyy-MM-dd or epoch millis; "to" dates are inclusive)
+     * @throws IllegalArgumentException if a parameter is invalid
+     */
+    public static IssueFilter parseIssueFilter(HttpServletRequest request) {
+        IssueFilter filter = new IssueFilter();
+
+        filter.setStatus(parseStatus(request));
+        filter.setCategory(parseCategory(request));
+        filter.setDeptId(parseDeptId(request));
+        filter.setCreatedFrom(parseTime(request.getParameter("from"), false));
+        filter.setCreatedTo(parseTime(request.getParameter("to"), true));
+
+        return filter;
+    }
+
+    /**
+     * Parse the optional status parameter (upper-cased), or null if absent
+     * @throws IllegalArgumentException if it is not a known status
+     */
+    public static String parseStatus(HttpServletRequest request) {
+        String status = request.getParameter("status");
+        if (status == null || status.isEmpty()) {
+            return null;
+        }
+        status = status.toUpperCase();
+        if (!STATUSES.contains(status)) {
+            throw new IllegalArgumentException("Invalid status: " + status);
+        }
+        return status;
+    }
+
+    /**
+     * Parse the optional category parameter (upper-cased), or null if absent
+     * @throws IllegalArgumentException if it is not a known category
+     */
+    public static String parseCategory(HttpServletRequest request) {
+        String category = request.getParameter("category");
+        if (category == null || category.isEmpty()) {
+            return null;
+        }
+        category = category.toUpperCase();
+        if (!CATEGORIES.contains(category)) {
+            throw new IllegalArgumentException("Invalid category: " + category);
+        }
+        return category;
+    }
+
+    /**
+     * Parse the optional deptId parameter, or null if absent
+     * @throws IllegalArgumentException if it is not a number
+     */
+    public static Integer parseDeptId(HttpServletRequest request) {
+        String deptId = request.getParameter("deptId");
+        if (deptId == null || deptId.isEmpty()) {
+            return null;
+        }
+        return Integer.parseInt(deptId);
+    }
+
+    /**
+     * Parse a required numeric parameter
+     * @throws IllegalArgumentException if it is missing or not a finite number
+     */
+    public static double parseRequiredDouble(HttpServletRequest request, String name) {
+        String value = request.getParameter(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        double parsed = Double.parseDouble(value);
+        if (Double.isNaN(parsed) || Double.isInfinite(parsed)) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+        return parsed;
+    }
+
+    /**
+     * Parse an optional time parameter (yyyy-MM-dd or epoch millis), or null if absent
+     * @param endOfDay treat a plain date as inclusive, i.e. return the following midnight
+     * @throws IllegalArgumentException if the value is not a date or number
+     */
+    public static Timestamp parseTime(HttpServletRequest request, String name, boolean endOfDay) {
+        return parseTime(request.getParameter(name), endOfDay);
+    }
+
+    private static Timestamp parseTime(String value, boolean endOfDay) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+
+        if (value.chars().allMatch(Character::isDigit)) {
+            return new Timestamp(Long.parseLong(value));
+        }
+
+        try {
+            LocalDate date = LocalDate.parse(value);
+            if (endOfDay) {
+                date = date.plusDays(1);
+            }
+            return new Timestamp(date.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli());
+        } catch (java.time.format.DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,464 @@
+package com.civicpulse.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Uniform lat/lng grid of point entries keyed by ID.
+ *
+ * Each cell keeps its points in parallel primitive arrays, so range scans touch
+ * only the few cells overlapping the query window and never allocate per point.
+ * Reads run concurrently; writes take an exclusive lock.
+ */
+public class SpatialGrid {
+
+    // Mean length of one degree of latitude, as in GeoUtil
+    private static final double KM_PER_DEGREE = 2 * Math.PI * 6371 / 360.0;
+
+    private final double cellSizeDeg;
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private final Map<String, Long> cellById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public SpatialGrid(double cellSizeDeg) {
+        this.cellSizeDeg = cellSizeDeg;
+    }
+
+    /**
+     * Callback for points found by a window scan
+     */
+    @FunctionalInterface
+    public interface PointVisitor {
+        void visit(String id, double lat, double lng);
+    }
+
+    /**
+     * Callback for the points of one grid cell that fall inside a window
+     */
+    @FunctionalInterface
+    public interface CellVisitor {
+        void visit(int row, int col, int count, double sumLat, double sumLng);
+    }
+
+    public double getCellSizeDeg() {
+        return cellSizeDeg;
+    }
+
+    /**
+     * Grid row/column index of a coordinate
+     */
+    public int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / cellSizeDeg);
+    }
+
+    /**
+     * Insert a point, replacing any existing entry with the same ID
+     */
+    public void put(String id, double lat, double lng) {
+        long key = cellKey(lat, lng);
+        lock.writeLock().lock();
+        try {
+            Long previous = cellById.put(id, key);
+            if (previous != null) {
+                removeFromCell(previous, id);
+            }
+            cells.computeIfAbsent(key, k -> new Cell()).add(id, lat, lng);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a point; returns false if it was not present
+     */
+    public boolean remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Long key = cellById.remove(id);
+            if (key == null) {
+                return false;
+            }
+            removeFromCell(key, id);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(String id) {
+        lock.readLock().lock();
+        try {
+            return cellById.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return cellById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visit every point inside the lat/lng window (inclusive bounds)
+     */
+    public void forEachInBox(double minLat, double maxLat, double minLng, double maxLng, PointVisitor visitor) {
+        int minRow = cellIndex(minLat);
+        int maxRow = cellIndex(maxLat);
+        int minCol = cellIndex(minLng);
+        int maxCol = cellIndex(maxLng);
+
+        lock.readLock().lock();
+        try {
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int col = minCol; col <= maxCol; col++) {
+                    Cell cell = cells.get(pack(row, col));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < cell.size; i++) {
+                        double lat = cell.lats[i];
+                        double lng = cell.lngs[i];
+                        if (lat >= minLat && lat <= maxLat && lng >= minLng && lng <= maxLng) {
+                            visitor.visit(cell.ids[i], lat, lng);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visit per-cell counts and coordinate sums for the points inside the window
+     * (inclusive bounds). Cells fully inside the window use their running totals,
+     * so the cost depends on the number of occupied cells, not on the number of points.
+     */
+    public void forEachCellInBox(double minLat, double maxLat, double minLng, double maxLng, CellVisitor visitor) {
+        int minRow = cellIndex(minLat);
+        int maxRow = cellIndex(maxLat);
+        int minCol = cellIndex(minLng);
+        int maxCol = cellIndex(maxLng);
+
+        lock.readLock().lock();
+        try {
+            long windowCells = (long) (maxRow - minRow + 1) * (maxCol - minCol + 1);
+            if (windowCells > cells.size()) {
+                // Sparse grid: walk occupied cells instead of the window
+                for (Map.Entry<Long, Cell> entry : cells.entrySet()) {
+                    int row = (int) (entry.getKey() >> 32);
+                    int col = (int) (long) entry.getKey();
+                    if (row >= minRow && row <= maxRow && col >= minCol && col <= maxCol) {
+                        visitCell(entry.getValue(), row, col, minRow, maxRow, minCol, maxCol,
+                                minLat, maxLat, minLng, maxLng, visitor);
+                    }
+                }
+            } else {
+                for (int row = minRow; row <= maxRow; row++) {
+                    for (int col = minCol; col <= maxCol; col++) {
+                        Cell cell = cells.get(pack(row, col));
+                        if (cell != null) {
+                            visitCell(cell, row, col, minRow, maxRow, minCol, maxCol,
+                                    minLat, maxLat, minLng, maxLng, visitor);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void visitCell(Cell cell, int row, int col, int minRow, int maxRow, int minCol, int maxCol,
+            double minLat, double maxLat, double minLng, double maxLng, CellVisitor visitor) {
+        if (row > minRow && row < maxRow && col > minCol && col < maxCol) {
+            visitor.visit(row, col, cell.size, cell.sumLat, cell.sumLng);
+            return;
+        }
+
+        // Edge cell: only some of its points may be inside the window
+        int count = 0;
+        double sumLat = 0;
+        double sumLng = 0;
+        for (int i = 0; i < cell.size; i++) {
+            double lat = cell.lats[i];
+            double lng = cell.lngs[i];
+            if (lat >= minLat && lat <= maxLat && lng >= minLng && lng <= maxLng) {
+                count++;
+                sumLat += lat;
+                sumLng += lng;
+            }
+        }
+        if (count > 0) {
+            visitor.visit(row, col, count, sumLat, sumLng);
+        }
+    }
+
+    /**
+     * ID of the closest point within radiusKm of (lat, lng), or null if none.
+     * Ties on distance resolve to the smallest ID so the answer is deterministic.
+     */
+    public String nearest(double lat, double lng, double radiusKm) {
+        GeoUtil.RadiusKernel kernel = new GeoUtil.RadiusKernel(lat, lng, radiusKm);
+        double[] box = GeoUtil.getBoundingBox(lat, lng, radiusKm);
+        int minRow = cellIndex(box[0]);
+        int maxRow = cellIndex(box[1]);
+        int minCol = cellIndex(box[2]);
+        int maxCol = cellIndex(box[3]);
+
+        String bestId = null;
+        double bestProximity = Double.POSITIVE_INFINITY;
+
+        lock.readLock().lock();
+        try {
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int col = minCol; col <= maxCol; col++) {
+                    Cell cell = cells.get(pack(row, col));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < cell.size; i++) {
+                        double p = kernel.proximity(cell.lats[i], cell.lngs[i]);
+                        if (p < bestProximity || (p == bestProximity && p != Double.POSITIVE_INFINITY
+                                && cell.ids[i].compareTo(bestId) < 0)) {
+                            bestProximity = p;
+                            bestId = cell.ids[i];
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return bestId;
+    }
+
+    /**
+     * Up to k points within radiusKm of (lat, lng), closest first.
+     *
+     * Best-first search: cells and points share one queue ordered by distance,
+     * where a cell's key is the distance to its nearest edge. A cell is expanded
+     * (its points and unvisited neighbours queued) only when it reaches the head
+     * of the queue, so a point popped from the queue is never farther than
+     * anything still queued, and the search stops after k points without
+     * visiting cells beyond the k-th nearest. Distances use the same
+     * equirectangular projection as {@link GeoUtil.RadiusKernel}, so keep
+     * radiusKm to city scale. Ties resolve to the smaller ID.
+     */
+    public List<Neighbor> nearestK(double lat, double lng, int k, double radiusKm) {
+        double cosLat = Math.cos(Math.toRadians(lat));
+        double radiusDeg = radiusKm / KM_PER_DEGREE;
+        double radiusDegSquared = radiusDeg * radiusDeg;
+
+        PriorityQueue<SearchEntry> queue = new PriorityQueue<>();
+        Set<Long> visited = new HashSet<>();
+        List<Neighbor> result = new ArrayList<>(Math.min(k, 64));
+
+        int startRow = cellIndex(lat);
+        int startCol = cellIndex(lng);
+        visited.add(pack(startRow, startCol));
+        queue.add(SearchEntry.cell(0, startRow, startCol));
+
+        lock.readLock().lock();
+        try {
+            while (!queue.isEmpty() && result.size() < k) {
+                SearchEntry entry = queue.poll();
+                if (entry.id != null) {
+                    result.add(new Neighbor(entry.id, entry.lat, entry.lng,
+                            Math.sqrt(entry.distanceSquared) * KM_PER_DEGREE));
+                    continue;
+                }
+
+                Cell cell = cells.get(pack(entry.row, entry.col));
+                if (cell != null) {
+                    for (int i = 0; i < cell.size; i++) {
+                        double dLat = cell.lats[i] - lat;
+                        double dLng = (cell.lngs[i] - lng) * cosLat;
+                        double d = dLat * dLat + dLng * dLng;
+                        if (d <= radiusDegSquared) {
+                            queue.add(SearchEntry.point(d, cell.ids[i], cell.lats[i], cell.lngs[i]));
+                        }
+                    }
+                }
+
+                for (int dRow = -1; dRow <= 1; dRow++) {
+                    for (int dCol = -1; dCol <= 1; dCol++) {
+                        int row = entry.row + dRow;
+                        int col = entry.col + dCol;
+                        if (!visited.add(pack(row, col))) {
+                            continue;
+                        }
+                        double d = cellDistanceSquared(row, col, lat, lng, cosLat);
+                        if (d <= radiusDegSquared) {
+                            queue.add(SearchEntry.cell(d, row, col));
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return result;
+    }
+
+    /**
+     * Squared projected distance (degrees) from a point to the nearest edge of a cell, 0 if inside
+     */
+    private double cellDistanceSquared(int row, int col, double lat, double lng, double cosLat) {
+        double minLat = row * cellSizeDeg;
+        double minLng = col * cellSizeDeg;
+        double dLat = Math.max(0, Math.max(minLat - lat, lat - (minLat + cellSizeDeg)));
+        double dLng = Math.max(0, Math.max(minLng - lng, lng - (minLng + cellSizeDeg))) * cosLat;
+        return dLat * dLat + dLng * dLng;
+    }
+
+    private void removeFromCell(long key, String id) {
+        Cell cell = cells.get(key);
+        if (cell != null && cell.remove(id) && cell.size == 0) {
+            cells.remove(key);
+        }
+    }
+
+    private long cellKey(double lat, double lng) {
+        return pack(cellIndex(lat), cellIndex(lng));
+    }
+
+    private static long pack(int row, int col) {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    /**
+     * A point found by {@link #nearestK}
+     */
+    public static final class Neighbor {
+        private final String id;
+        private final double lat;
+        private final double lng;
+        private final double distanceKm;
+
+        Neighbor(String id, double lat, double lng, double distanceKm) {
+            this.id = id;
+            this.lat = lat;
+            this.lng = lng;
+            this.distanceKm = distanceKm;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public double getLat() {
+            return lat;
+        }
+
+        public double getLng() {
+            return lng;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+
+    /**
+     * Queue entry of the nearest-neighbour search: a point (id set) or a cell to expand.
+     * At equal distance cells come first, so every point at that distance is
+     * queued before any is taken, then smaller IDs first.
+     */
+    private static final class SearchEntry implements Comparable<SearchEntry> {
+        final double distanceSquared;
+        final String id;
+        final double lat;
+        final double lng;
+        final int row;
+        final int col;
+
+        private SearchEntry(double distanceSquared, String id, double lat, double lng, int row, int col) {
+            this.distanceSquared = distanceSquared;
+            this.id = id;
+            this.lat = lat;
+            this.lng = lng;
+            this.row = row;
+            this.col = col;
+        }
+
+        static SearchEntry point(double distanceSquared, String id, double lat, double lng) {
+            return new SearchEntry(distanceSquared, id, lat, lng, 0, 0);
+        }
+
+        static SearchEntry cell(double distanceSquared, int row, int col) {
+            return new SearchEntry(distanceSquared, null, 0, 0, row, col);
+        }
+
+        @Override
+        public int compareTo(SearchEntry other) {
+            int byDistance = Double.compare(distanceSquared, other.distanceSquared);
+            if (byDistance != 0) {
+                return byDistance;
+            }
+            if (id == null || other.id == null) {
+                return id == null ? (other.id == null ? 0 : -1) : 1;
+            }
+            return id.compareTo(other.id);
+        }
+    }
+
+    /**
+     * Points of one grid cell in parallel arrays plus running coordinate sums;
+     * removal swaps in the last entry
+     */
+    private static final class Cell {
+        double[] lats = new double[4];
+        double[] lngs = new double[4];
+        String[] ids = new String[4];
+        int size;
+        double sumLat;
+        double sumLng;
+
+        void add(String id, double lat, double lng) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                lats = Arrays.copyOf(lats, capacity);
+                lngs = Arrays.copyOf(lngs, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+            }
+            lats[size] = lat;
+            lngs[size] = lng;
+            ids[size] = id;
+            size++;
+            sumLat += lat;
+            sumLng += lng;
+        }
+
+        boolean remove(String id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i].equals(id)) {
+                    sumLat -= lats[i];
+                    sumLng -= lngs[i];
+                    size--;
+                    lats[i] = lats[size];
+                    lngs[i] = lngs[size];
+                    ids[i] = ids[size];
+                    ids[size] = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.civicpulse.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed array of locks shared by hash, so any number of keys can be locked
+ * without a lock object per key. Keys that share a stripe serialize with each
+ * other; everything else runs in parallel.
+ */
+public class StripedLock {
+
+    private final ReentrantLock[] stripes;
+
+    public StripedLock(int stripeCount) {
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Lock the stripes of all keys, always in ascending stripe order so that two
+     * callers locking overlapping key sets cannot deadlock
+     * @return the locks taken, to pass to {@link #unlockAll(List)}
+     */
+    public List<Lock> lockAll(Collection<?> keys) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (Object key : keys) {
+            indexes.add(Math.floorMod(spread(key.hashCode()), stripes.length));
+        }
+
+        List<Lock> held = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            stripes[index].lock();
+            held.add(stripes[index]);
+        }
+        return held;
+    }
+
+    public static void unlockAll(List<Lock> held) {
+        for (int i = held.size() - 1; i >= 0; i--) {
+            held.get(i).unlock();
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,185 @@
+package com.civicpulse.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Point counts on slippy-map (Web Mercator z/x/y) tiles for every zoom from 0
+ * to maxZoom, kept in several independent layers.
+ *
+ * Each tile is a square of binsPerTile x binsPerTile counters. A point is
+ * located once at maxZoom resolution and its bin at every coarser zoom is a
+ * bit shift of that, so all levels stay exact aggregates of one another.
+ * Adding or removing a point touches one counter per zoom level and marks the
+ * affected tiles dirty. Reads run concurrently; writes take an exclusive lock.
+ */
+public class TilePyramid {
+
+    private final int maxZoom;
+    private final int binShift;
+    private final int binsPerTile;
+    private final List<Map<Long, int[]>> levels = new ArrayList<>();
+    private final Set<TileId> dirty = new HashSet<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param binsPerTile bins along each tile edge; must be a power of two
+     */
+    public TilePyramid(int maxZoom, int binsPerTile) {
+        if (Integer.bitCount(binsPerTile) != 1) {
+            throw new IllegalArgumentException("Bins per tile must be a power of two");
+        }
+        if (maxZoom + Integer.numberOfTrailingZeros(binsPerTile) > 30) {
+            throw new IllegalArgumentException("Zoom too deep for integer bin coordinates");
+        }
+        this.maxZoom = maxZoom;
+        this.binsPerTile = binsPerTile;
+        this.binShift = Integer.numberOfTrailingZeros(binsPerTile);
+        for (int z = 0; z <= maxZoom; z++) {
+            levels.add(new HashMap<>());
+        }
+    }
+
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    public int getBinsPerTile() {
+        return binsPerTile;
+    }
+
+    /**
+     * Add delta (typically +1 or -1) to the point's bin in one layer at every zoom
+     */
+    public void add(int layer, double lat, double lng, int delta) {
+        // Web Mercator clamps latitude to about +/-85.05 degrees
+        double clampedLat = Math.max(-85.05112878, Math.min(85.05112878, lat));
+        double scale = (double) (1L << (maxZoom + binShift));
+        double latRad = Math.toRadians(clampedLat);
+        long maxBin = (long) scale - 1;
+        long globalX = Math.min(maxBin, Math.max(0, (long) Math.floor((lng + 180.0) / 360.0 * scale)));
+        long globalY = Math.min(maxBin, Math.max(0, (long) Math.floor(
+                (1 - Math.log(Math.tan(latRad) + 1 / Math.cos(latRad)) / Math.PI) / 2 * scale)));
+
+        lock.writeLock().lock();
+        try {
+            for (int z = maxZoom; z >= 0; z--) {
+                int shift = maxZoom - z;
+                int binX = (int) (globalX >> shift);
+                int binY = (int) (globalY >> shift);
+                int tileX = binX >> binShift;
+                int tileY = binY >> binShift;
+                long key = tileKey(layer, tileX, tileY);
+
+                Map<Long, int[]> level = levels.get(z);
+                int[] bins = level.computeIfAbsent(key, k -> new int[binsPerTile * binsPerTile]);
+                int index = (binY & (binsPerTile - 1)) * binsPerTile + (binX & (binsPerTile - 1));
+                bins[index] += delta;
+                if (delta < 0 && isEmpty(bins)) {
+                    level.remove(key);
+                }
+                dirty.add(new TileId(layer, z, tileX, tileY));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sum of the given layers' bins for one tile (row-major, y down), or null if all are empty
+     */
+    public int[] sumTile(int[] layers, int z, int x, int y) {
+        if (z < 0 || z > maxZoom) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            Map<Long, int[]> level = levels.get(z);
+            int[] sum = null;
+            for (int layer : layers) {
+                int[] bins = level.get(tileKey(layer, x, y));
+                if (bins == null) {
+                    continue;
+                }
+                if (sum == null) {
+                    sum = bins.clone();
+                } else {
+                    for (int i = 0; i < sum.length; i++) {
+                        sum[i] += bins[i];
+                    }
+                }
+            }
+            return sum;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tiles changed since the last call
+     */
+    public Set<TileId> drainDirty() {
+        lock.writeLock().lock();
+        try {
+            Set<TileId> drained = new HashSet<>(dirty);
+            dirty.clear();
+            return drained;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static boolean isEmpty(int[] bins) {
+        for (int count : bins) {
+            if (count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long tileKey(int layer, int x, int y) {
+        // Layers above 255 or coordinates above 2^28 are not supported (maxZoom <= 25)
+        return ((long) layer << 56) | ((long) x << 28) | y;
+    }
+
+    /**
+     * One tile of one layer
+     */
+    public static final class TileId {
+        public final int layer;
+        public final int z;
+        public final int x;
+        public final int y;
+
+        TileId(int layer, int z, int x, int y) {
+            this.layer = layer;
+            this.z = z;
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TileId)) {
+                return false;
+            }
+            TileId other = (TileId) o;
+            return layer == other.layer && z == other.z && x == other.x && y == other.y;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((layer * 31 + z) * 31 + x) * 31 + y;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.civicpulse.util;
+
+import java.sql.SQLException;
+
+/**
+ * Unit of work executed by {@link DatabaseUtil#inTransaction(TransactionCallback)}
+ */
+@FunctionalInterface
+public interface TransactionCallback<T> {
+    T execute() throws SQLException;
+}
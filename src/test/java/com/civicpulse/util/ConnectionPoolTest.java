@@ -0,0 +1,214 @@
+package com.civicpulse.util;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConnectionPoolTest {
+
+    private static final String URL = "jdbc:civicpulse-test:pool";
+    private static final long LEAK_THRESHOLD_MS = 30_000;
+    private static final long REPORT_INTERVAL_MS = 60_000;
+
+    private long now;
+    private final List<SQLWarning> reports = new ArrayList<>();
+    private ConnectionPool pool;
+
+    @BeforeClass
+    public static void registerDriver() throws SQLException {
+        DriverManager.registerDriver(new FakeDriver());
+    }
+
+    @After
+    public void shutdownPool() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void reportsTheFirstLeak() throws SQLException {
+        // A clock near zero must not be mistaken for a recent report
+        now = 0;
+        pool = newPool(true);
+        pool.getConnection();
+
+        now += LEAK_THRESHOLD_MS + 1;
+        pool.housekeep();
+
+        assertEquals(1, reports.size());
+        assertTrue(reports.get(0).getMessage().contains("held for 30001 ms"));
+        assertEquals(1L, pool.getStats().get("leaksDetected"));
+        assertEquals(1L, pool.getStats().get("leaksReported"));
+    }
+
+    @Test
+    public void reportsEachLeakOnce() throws SQLException {
+        now = 1_000_000;
+        pool = newPool(true);
+        pool.getConnection();
+
+        now += LEAK_THRESHOLD_MS + 1;
+        pool.housekeep();
+        now += REPORT_INTERVAL_MS * 2;
+        pool.housekeep();
+
+        assertEquals(1, reports.size());
+        assertEquals(1L, pool.getStats().get("leaksDetected"));
+    }
+
+    @Test
+    public void countsLeaksWithinTheIntervalAndCarriesTheCount() throws SQLException {
+        now = 1_000_000;
+        pool = newPool(true);
+        pool.getConnection();
+        now += LEAK_THRESHOLD_MS + 1;
+        pool.housekeep();
+
+        pool.getConnection();
+        pool.getConnection();
+        now += LEAK_THRESHOLD_MS + 1;
+        pool.housekeep();
+        assertEquals(1, reports.size());
+
+        pool.getConnection();
+        now += REPORT_INTERVAL_MS;
+        pool.housekeep();
+
+        assertEquals(2, reports.size());
+        assertTrue(reports.get(1).getMessage().contains("(2 more leaks since the last report)"));
+        assertEquals(4L, pool.getStats().get("leaksDetected"));
+        assertEquals(2L, pool.getStats().get("leaksReported"));
+    }
+
+    @Test
+    public void returnedConnectionsAreNotLeaks() throws SQLException {
+        now = 1_000_000;
+        pool = newPool(true);
+        pool.getConnection().close();
+
+        now += LEAK_THRESHOLD_MS + 1;
+        pool.housekeep();
+
+        assertEquals(0, reports.size());
+        assertEquals(0L, pool.getStats().get("leaksDetected"));
+    }
+
+    @Test
+    public void reportCarriesTheBorrowSite() throws SQLException {
+        now = 1_000_000;
+        pool = newPool(true);
+        borrowAndForget();
+
+        now += LEAK_THRESHOLD_MS + 1;
+        pool.housekeep();
+
+        assertEquals(1, reports.size());
+        boolean found = false;
+        for (StackTraceElement frame : reports.get(0).getStackTrace()) {
+            found |= frame.getMethodName().equals("borrowAndForget");
+        }
+        assertTrue(found);
+    }
+
+    @Test
+    public void reportHasNoStackWhenBorrowSitesAreNotCaptured() throws SQLException {
+        now = 1_000_000;
+        pool = newPool(false);
+        borrowAndForget();
+
+        now += LEAK_THRESHOLD_MS + 1;
+        pool.housekeep();
+
+        assertEquals(1, reports.size());
+        assertEquals(0, reports.get(0).getStackTrace().length);
+    }
+
+    private void borrowAndForget() throws SQLException {
+        pool.getConnection();
+    }
+
+    private ConnectionPool newPool(boolean captureBorrowSites) {
+        return new ConnectionPool(URL, "user", "password", 0, 10, 1000, 600_000,
+                LEAK_THRESHOLD_MS, REPORT_INTERVAL_MS, captureBorrowSites, 2, () -> now) {
+            @Override
+            void printLeak(SQLWarning leak) {
+                reports.add(leak);
+            }
+        };
+    }
+
+    /**
+     * Hands out connections that answer the few calls the pool makes
+     */
+    private static class FakeDriver implements Driver {
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "isValid":
+                            case "getAutoCommit":
+                                return true;
+                            case "isClosed":
+                                return false;
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "equals":
+                                return proxy == args[0];
+                            default:
+                                return null;
+                        }
+                    });
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url.startsWith("jdbc:civicpulse-test:");
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+    }
+}
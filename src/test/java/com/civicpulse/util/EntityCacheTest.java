@@ -0,0 +1,213 @@
+package com.civicpulse.util;
+
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class EntityCacheTest {
+
+    private static final long TTL_MS = 30_000;
+
+    private long now = 1_000_000;
+    private final Map<String, Integer> loads = new HashMap<>();
+
+    private final EntityCache.Loader<String, String> loader = key -> {
+        loads.merge(key, 1, Integer::sum);
+        return "value of " + key;
+    };
+
+    @Test
+    public void loadsOnceAndServesHits() throws SQLException {
+        EntityCache<String, String> cache = newCache(100);
+
+        assertEquals("value of a", cache.get("a", loader));
+        assertEquals("value of a", cache.get("a", loader));
+        assertEquals("value of a", cache.getIfPresent("a"));
+
+        assertEquals(1, loadsOf("a"));
+        assertEquals(2L, cache.getStats().get("hits"));
+        assertEquals(1L, cache.getStats().get("misses"));
+    }
+
+    @Test
+    public void nullIsNotCached() throws SQLException {
+        EntityCache<String, String> cache = newCache(100);
+        EntityCache.Loader<String, String> missing = key -> {
+            loads.merge(key, 1, Integer::sum);
+            return null;
+        };
+
+        assertNull(cache.get("gone", missing));
+        assertNull(cache.get("gone", missing));
+
+        assertEquals(2, loadsOf("gone"));
+    }
+
+    @Test
+    public void entriesExpireAfterTheTtl() throws SQLException {
+        EntityCache<String, String> cache = newCache(100);
+        cache.get("a", loader);
+
+        now += TTL_MS - 1;
+        cache.get("a", loader);
+        assertEquals(1, loadsOf("a"));
+
+        now += 1;
+        assertNull(cache.getIfPresent("a"));
+        cache.get("a", loader);
+        assertEquals(2, loadsOf("a"));
+        assertEquals(1L, cache.getStats().get("expirations"));
+
+        // The reload starts a fresh TTL
+        now += TTL_MS - 1;
+        cache.get("a", loader);
+        assertEquals(2, loadsOf("a"));
+    }
+
+    @Test
+    public void invalidateForcesAReload() throws SQLException {
+        EntityCache<String, String> cache = newCache(100);
+        cache.get("a", loader);
+        cache.get("b", loader);
+
+        cache.invalidate("a");
+        cache.get("a", loader);
+        cache.get("b", loader);
+        assertEquals(2, loadsOf("a"));
+        assertEquals(1, loadsOf("b"));
+
+        cache.invalidateAll();
+        cache.get("a", loader);
+        cache.get("b", loader);
+        assertEquals(3, loadsOf("a"));
+        assertEquals(2, loadsOf("b"));
+    }
+
+    @Test
+    public void loadOverlappingAnInvalidationIsReturnedButNotCached() throws SQLException {
+        EntityCache<String, String> cache = newCache(100);
+        // The row changes and is invalidated while the loader is reading the old version
+        EntityCache.Loader<String, String> racing = key -> {
+            loads.merge(key, 1, Integer::sum);
+            cache.invalidate(key);
+            return "stale " + key;
+        };
+
+        assertEquals("stale a", cache.get("a", racing));
+        assertNull(cache.getIfPresent("a"));
+        assertEquals("value of a", cache.get("a", loader));
+        assertEquals("value of a", cache.get("a", loader));
+        assertEquals(2, loadsOf("a"));
+    }
+
+    @Test
+    public void loadOverlappingInvalidateAllIsNotCached() throws SQLException {
+        EntityCache<String, String> cache = newCache(100);
+        EntityCache.Loader<String, String> racing = key -> {
+            cache.invalidateAll();
+            return "stale " + key;
+        };
+
+        cache.get("a", racing);
+
+        assertNull(cache.getIfPresent("a"));
+    }
+
+    @Test
+    public void neverHoldsMoreThanItsCapacity() throws SQLException {
+        EntityCache<String, String> cache = newCache(100);
+        for (int i = 0; i < 1000; i++) {
+            cache.get("k" + i, loader);
+        }
+
+        assertEquals(100, cache.getStats().get("size"));
+        assertEquals(100, cache.getStats().get("capacity"));
+    }
+
+    @Test
+    public void oneOffReadsDoNotPushOutFrequentKeys() throws SQLException {
+        int capacity = 1000;
+        EntityCache<String, String> cache = newCache(capacity);
+
+        // Fill the main region with keys read several times each
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < 990; i++) {
+                cache.get("hot" + i, loader);
+            }
+        }
+        // A scan of keys read once, twice the cache size
+        for (int i = 0; i < 2000; i++) {
+            cache.get("scan" + i, loader);
+        }
+
+        int hotKept = 0;
+        for (int i = 0; i < 990; i++) {
+            if (cache.getIfPresent("hot" + i) != null) {
+                hotKept++;
+            }
+        }
+        int scanKept = 0;
+        for (int i = 0; i < 2000; i++) {
+            if (cache.getIfPresent("scan" + i) != null) {
+                scanKept++;
+            }
+        }
+
+        // An LRU cache would have kept none of the hot keys; the sketch may
+        // overestimate a few scan keys through hash collisions
+        assertTrue("hot keys kept: " + hotKept, hotKept >= 900);
+        assertTrue("scan keys kept: " + scanKept, scanKept <= 100);
+    }
+
+    @Test
+    public void frequentNewKeyIsAdmittedToTheMainRegion() throws SQLException {
+        int capacity = 1000;
+        EntityCache<String, String> cache = newCache(capacity);
+        for (int i = 0; i < 990; i++) {
+            cache.get("old" + i, loader);
+        }
+
+        // Read often while in the window, then pushed out of it by newer keys
+        for (int i = 0; i < 5; i++) {
+            cache.get("popular", loader);
+        }
+        for (int i = 0; i < 50; i++) {
+            cache.get("new" + i, loader);
+        }
+
+        assertEquals("value of popular", cache.getIfPresent("popular"));
+        assertEquals(1, loadsOf("popular"));
+    }
+
+    @Test
+    public void windowOverflowFillsAMainRegionWithRoom() throws SQLException {
+        EntityCache<String, String> cache = newCache(100);
+        for (int i = 0; i < 100; i++) {
+            cache.get("k" + i, loader);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("k" + i, "value of k" + i, cache.getIfPresent("k" + i));
+        }
+        assertEquals(0L, cache.getStats().get("evictions"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCapacityBelowTwo() {
+        new EntityCache<String, String>(1, TTL_MS);
+    }
+
+    private EntityCache<String, String> newCache(int maxEntries) {
+        return new EntityCache<>(maxEntries, TTL_MS, () -> now);
+    }
+
+    private int loadsOf(String key) {
+        return loads.getOrDefault(key, 0);
+    }
+}
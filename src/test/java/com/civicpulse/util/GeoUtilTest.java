@@ -0,0 +1,126 @@
+package com.civicpulse.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GeoUtilTest {
+
+    private static final double EARTH_RADIUS_KM = 6371;
+
+    // Duplicate detection radius (duplicate.geo.radius.km)
+    private static final double RADIUS_KM = 0.1;
+
+    private static final double[] LATITUDES = {0, 12.97, 45, -33.87, 60, 70, -75, 80};
+    private static final double[] BEARINGS = {0, 30, 45, 90, 135, 180, 225, 270, 315};
+
+    @Test
+    public void distanceKmMatchesHaversineNearDuplicateRadius() {
+        for (double lat : LATITUDES) {
+            GeoUtil.RadiusKernel kernel = new GeoUtil.RadiusKernel(lat, 77.59, RADIUS_KM);
+            for (double bearing : BEARINGS) {
+                for (double distanceKm : new double[] {0.01, 0.05, 0.099, 0.1, 0.101, 0.2}) {
+                    double[] p = destination(lat, 77.59, bearing, distanceKm);
+                    double expected = GeoUtil.calculateDistance(lat, 77.59, p[0], p[1]);
+                    // Within 1 cm of Haversine at these distances
+                    assertEquals("lat " + lat + ", bearing " + bearing + ", " + distanceKm + " km",
+                            expected, kernel.distanceKm(p[0], p[1]), 0.00001);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void containsAgreesWithHaversineAroundTheBoundary() {
+        for (double lat : LATITUDES) {
+            GeoUtil.RadiusKernel kernel = new GeoUtil.RadiusKernel(lat, -122.42, RADIUS_KM);
+            for (double bearing : BEARINGS) {
+                double[] inside = destination(lat, -122.42, bearing, 0.0995);
+                double[] outside = destination(lat, -122.42, bearing, 0.1005);
+                String where = "lat " + lat + ", bearing " + bearing;
+
+                assertTrue(where, GeoUtil.calculateDistance(lat, -122.42, inside[0], inside[1]) <= RADIUS_KM);
+                assertTrue(where, kernel.contains(inside[0], inside[1]));
+                assertTrue(where, GeoUtil.isWithinRadius(lat, -122.42, inside[0], inside[1], RADIUS_KM));
+
+                assertTrue(where, GeoUtil.calculateDistance(lat, -122.42, outside[0], outside[1]) > RADIUS_KM);
+                assertFalse(where, kernel.contains(outside[0], outside[1]));
+                assertFalse(where, GeoUtil.isWithinRadius(lat, -122.42, outside[0], outside[1], RADIUS_KM));
+            }
+        }
+    }
+
+    @Test
+    public void proximityOrdersCandidatesLikeHaversine() {
+        for (double lat : LATITUDES) {
+            GeoUtil.RadiusKernel kernel = new GeoUtil.RadiusKernel(lat, 10, RADIUS_KM);
+            double[] nearer = destination(lat, 10, 60, 0.050);
+            double[] farther = destination(lat, 10, 240, 0.051);
+            assertTrue("lat " + lat, kernel.proximity(nearer[0], nearer[1])
+                    < kernel.proximity(farther[0], farther[1]));
+        }
+    }
+
+    @Test
+    public void containsWrapsAroundTheAntimeridian() {
+        GeoUtil.RadiusKernel kernel = new GeoUtil.RadiusKernel(-16.5, 179.9995, RADIUS_KM);
+        double[] across = destination(-16.5, 179.9995, 90, 0.08);
+
+        assertTrue(across[1] < 0);
+        assertTrue(kernel.contains(across[0], across[1]));
+        assertEquals(0.08, kernel.distanceKm(across[0], across[1]), 0.00001);
+    }
+
+    @Test
+    public void largeRadiiUseHaversine() {
+        double radiusKm = 25;
+        GeoUtil.RadiusKernel kernel = new GeoUtil.RadiusKernel(70, 20, radiusKm);
+        for (double bearing : BEARINGS) {
+            double[] inside = destination(70, 20, bearing, 24.99);
+            double[] outside = destination(70, 20, bearing, 25.01);
+
+            assertTrue(kernel.contains(inside[0], inside[1]));
+            assertFalse(kernel.contains(outside[0], outside[1]));
+            assertEquals(GeoUtil.calculateDistance(70, 20, inside[0], inside[1]),
+                    kernel.distanceKm(inside[0], inside[1]), 1e-9);
+        }
+    }
+
+    @Test
+    public void boundingBoxCoversTheRadius() {
+        for (double lat : LATITUDES) {
+            double[] box = GeoUtil.getBoundingBox(lat, 30, RADIUS_KM);
+            for (double bearing : BEARINGS) {
+                double[] p = destination(lat, 30, bearing, RADIUS_KM);
+                String where = "lat " + lat + ", bearing " + bearing;
+                assertTrue(where, p[0] >= box[0] && p[0] <= box[1]);
+                assertTrue(where, p[1] >= box[2] && p[1] <= box[3]);
+            }
+        }
+    }
+
+    /**
+     * Point at the given great-circle distance and initial bearing from a start point
+     */
+    private static double[] destination(double lat, double lng, double bearingDeg, double distanceKm) {
+        double phi1 = Math.toRadians(lat);
+        double lambda1 = Math.toRadians(lng);
+        double theta = Math.toRadians(bearingDeg);
+        double delta = distanceKm / EARTH_RADIUS_KM;
+
+        double phi2 = Math.asin(Math.sin(phi1) * Math.cos(delta)
+                + Math.cos(phi1) * Math.sin(delta) * Math.cos(theta));
+        double lambda2 = lambda1 + Math.atan2(Math.sin(theta) * Math.sin(delta) * Math.cos(phi1),
+                Math.cos(delta) - Math.sin(phi1) * Math.sin(phi2));
+
+        double lng2 = Math.toDegrees(lambda2);
+        if (lng2 > 180) {
+            lng2 -= 360;
+        } else if (lng2 < -180) {
+            lng2 += 360;
+        }
+        return new double[] {Math.toDegrees(phi2), lng2};
+    }
+}
@@ -0,0 +1,206 @@
+package com.civicpulse.util;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.DoubleSupplier;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class QuantileSketchTest {
+
+    private static final double[] QUANTILES = {0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999, 1};
+
+    @Test
+    public void quantilesStayWithinTheRelativeError() {
+        Random random = new Random(1);
+        assertWithinRelativeError("uniform", values(20000, () -> random.nextDouble() * 86400));
+        assertWithinRelativeError("exponential", values(20000, () -> -Math.log(1 - random.nextDouble()) * 3600));
+        assertWithinRelativeError("lognormal", values(20000, () -> Math.exp(8 + 2.5 * random.nextGaussian())));
+        // Sub-second values use negative bucket indexes
+        assertWithinRelativeError("small", values(5000, () -> 0.001 + random.nextDouble() * 0.5));
+        assertWithinRelativeError("constant", values(100, () -> 7200));
+    }
+
+    @Test
+    public void valuesBelowTheIndexableMinimumCountAsZero() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < 90; i++) {
+            sketch.add(0);
+        }
+        for (int i = 0; i < 10; i++) {
+            sketch.add(100);
+        }
+
+        assertEquals(0, sketch.quantile(0.5), 0);
+        assertEquals(0, sketch.quantile(0.89), 0);
+        assertEquals(100, sketch.quantile(0.95), 100 * QuantileSketch.DEFAULT_RELATIVE_ACCURACY);
+        assertEquals(100, sketch.getCount());
+        assertEquals(10, sketch.getMean(), 1e-9);
+    }
+
+    @Test
+    public void emptySketchAnswersNaN() throws IOException {
+        QuantileSketch sketch = QuantileSketch.fromBytes(new QuantileSketch().toBytes());
+
+        assertEquals(0, sketch.getCount());
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+        assertTrue(Double.isNaN(sketch.getMean()));
+        assertTrue(Double.isNaN(sketch.getMin()));
+        assertTrue(Double.isNaN(sketch.getMax()));
+    }
+
+    @Test
+    public void bytesRoundTrip() throws IOException {
+        Random random = new Random(2);
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.add(0);
+        sketch.add(0.0005);
+        for (int i = 0; i < 10000; i++) {
+            sketch.add(Math.exp(random.nextGaussian() * 6));
+        }
+        sketch.add(1e9);
+
+        byte[] bytes = sketch.toBytes();
+        QuantileSketch copy = QuantileSketch.fromBytes(bytes);
+
+        assertSameSketch(sketch, copy);
+        assertArrayEquals(bytes, copy.toBytes());
+    }
+
+    @Test
+    public void bytesRoundTripCountsBeyondThirtyTwoBits() throws IOException {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.add(0);
+        sketch.add(0.2);
+        sketch.add(3600);
+        for (int i = 0; i < 35; i++) {
+            QuantileSketch copy = new QuantileSketch();
+            copy.merge(sketch);
+            sketch.merge(copy);
+        }
+
+        QuantileSketch copy = QuantileSketch.fromBytes(sketch.toBytes());
+
+        assertEquals(3L << 35, copy.getCount());
+        assertSameSketch(sketch, copy);
+    }
+
+    @Test
+    public void bytesRoundTripKeepsTheAccuracy() throws IOException {
+        QuantileSketch sketch = new QuantileSketch(0.05);
+        sketch.add(42);
+
+        QuantileSketch copy = QuantileSketch.fromBytes(sketch.toBytes());
+        copy.merge(sketch);
+
+        assertEquals(2, copy.getCount());
+    }
+
+    @Test
+    public void rejectsTruncatedAndUnknownData() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 1; i <= 100; i++) {
+            sketch.add(i * 60);
+        }
+        byte[] bytes = sketch.toBytes();
+
+        for (int length = 0; length < bytes.length; length++) {
+            try {
+                QuantileSketch.fromBytes(Arrays.copyOf(bytes, length));
+                fail("accepted " + length + " of " + bytes.length + " bytes");
+            } catch (IOException expected) {
+                // truncated
+            }
+        }
+
+        byte[] unknownVersion = bytes.clone();
+        unknownVersion[0] = 99;
+        try {
+            QuantileSketch.fromBytes(unknownVersion);
+            fail("accepted an unknown format version");
+        } catch (IOException expected) {
+            // unknown version
+        }
+    }
+
+    @Test
+    public void mergedSketchesMatchOneSketchOfAllValues() throws IOException {
+        Random random = new Random(3);
+        QuantileSketch all = new QuantileSketch();
+        QuantileSketch[] parts = {new QuantileSketch(), new QuantileSketch(), new QuantileSketch()};
+        for (int i = 0; i < 30000; i++) {
+            double value = i % 97 == 0 ? 0 : Math.exp(7 + 2 * random.nextGaussian());
+            all.add(value);
+            parts[random.nextInt(parts.length)].add(value);
+        }
+
+        // As the report does: each part stored and read back, then merged
+        QuantileSketch merged = new QuantileSketch();
+        merged.merge(new QuantileSketch());
+        for (QuantileSketch part : parts) {
+            merged.merge(QuantileSketch.fromBytes(part.toBytes()));
+        }
+
+        assertSameSketch(all, merged);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mergeRejectsADifferentAccuracy() {
+        QuantileSketch other = new QuantileSketch(0.02);
+        other.add(1);
+        new QuantileSketch().merge(other);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addRejectsNegativeValues() {
+        new QuantileSketch().add(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addRejectsNaN() {
+        new QuantileSketch().add(Double.NaN);
+    }
+
+    private static void assertWithinRelativeError(String name, double[] values) {
+        QuantileSketch sketch = new QuantileSketch();
+        for (double value : values) {
+            sketch.add(value);
+        }
+
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (double q : QUANTILES) {
+            double exact = sorted[(int) Math.floor(q * (sorted.length - 1))];
+            double estimate = sketch.quantile(q);
+            assertEquals(name + " q" + q, exact, estimate,
+                    exact * QuantileSketch.DEFAULT_RELATIVE_ACCURACY + 1e-9);
+        }
+        assertEquals(name, sorted[0], sketch.getMin(), 0);
+        assertEquals(name, sorted[sorted.length - 1], sketch.getMax(), 0);
+        assertEquals(name, values.length, sketch.getCount());
+    }
+
+    private static void assertSameSketch(QuantileSketch expected, QuantileSketch actual) {
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(expected.getMin(), actual.getMin(), 0);
+        assertEquals(expected.getMax(), actual.getMax(), 0);
+        assertEquals(expected.getMean(), actual.getMean(), Math.abs(expected.getMean()) * 1e-12);
+        for (double q : QUANTILES) {
+            assertEquals("q" + q, expected.quantile(q), actual.quantile(q), 0);
+        }
+    }
+
+    private static double[] values(int n, DoubleSupplier source) {
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = source.getAsDouble();
+        }
+        return values;
+    }
+}
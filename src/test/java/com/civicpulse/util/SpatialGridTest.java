@@ -0,0 +1,274 @@
+package com.civicpulse.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SpatialGridTest {
+
+    private static final double CELL_SIZE_DEG = 0.005;
+    private static final double KM_PER_DEGREE = 2 * Math.PI * 6371 / 360.0;
+
+    private final List<Point> points = new ArrayList<>();
+    private SpatialGrid grid;
+
+    @Before
+    public void fillGrid() {
+        grid = new SpatialGrid(CELL_SIZE_DEG);
+        Random random = new Random(42);
+
+        // Scattered around (0, 0) so rows and columns are negative as well as positive
+        for (int i = 0; i < 2000; i++) {
+            add(String.format("P%05d", i), random.nextDouble() * 0.1 - 0.05, random.nextDouble() * 0.1 - 0.05);
+        }
+        // On cell edges and corners
+        for (int row = -4; row <= 4; row++) {
+            for (int col = -4; col <= 4; col++) {
+                add("E" + row + "_" + col, row * CELL_SIZE_DEG, col * CELL_SIZE_DEG);
+            }
+        }
+        // Same coordinates under different IDs, inserted out of ID order
+        add("T3", 0.0123, -0.0211);
+        add("T1", 0.0123, -0.0211);
+        add("T2", 0.0123, -0.0211);
+    }
+
+    @Test
+    public void nearestKMatchesBruteForce() {
+        Random random = new Random(7);
+        List<double[]> queries = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            queries.add(new double[] {random.nextDouble() * 0.12 - 0.06, random.nextDouble() * 0.12 - 0.06});
+        }
+        queries.add(new double[] {0, 0});
+        queries.add(new double[] {-CELL_SIZE_DEG, CELL_SIZE_DEG * 2});
+        queries.add(new double[] {0.0123, -0.0211});
+
+        for (double[] q : queries) {
+            for (int k : new int[] {1, 3, 10, 50, 5000}) {
+                for (double radiusKm : new double[] {0.05, 0.3, 1.0, 3.0}) {
+                    List<Point> expected = bruteForceNearestK(q[0], q[1], k, radiusKm);
+                    List<SpatialGrid.Neighbor> actual = grid.nearestK(q[0], q[1], k, radiusKm);
+                    String where = "query " + q[0] + "," + q[1] + ", k " + k + ", radius " + radiusKm;
+
+                    assertEquals(where, expected.size(), actual.size());
+                    for (int i = 0; i < expected.size(); i++) {
+                        Point p = expected.get(i);
+                        assertEquals(where, p.id, actual.get(i).getId());
+                        assertEquals(where, p.lat, actual.get(i).getLat(), 0);
+                        assertEquals(where, p.lng, actual.get(i).getLng(), 0);
+                        assertEquals(where, Math.sqrt(projectedDistanceSquared(q[0], q[1], p)) * KM_PER_DEGREE,
+                                actual.get(i).getDistanceKm(), 1e-12);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void nearestKBreaksTiesById() {
+        List<SpatialGrid.Neighbor> neighbors = grid.nearestK(0.0123, -0.0211, 3, 0.05);
+
+        assertEquals(3, neighbors.size());
+        assertEquals("T1", neighbors.get(0).getId());
+        assertEquals("T2", neighbors.get(1).getId());
+        assertEquals("T3", neighbors.get(2).getId());
+        assertEquals(0, neighbors.get(0).getDistanceKm(), 0);
+    }
+
+    @Test
+    public void nearestKStopsAtTheRadius() {
+        SpatialGrid sparse = new SpatialGrid(CELL_SIZE_DEG);
+        sparse.put("near", 0, 0.0008);   // ~89 m
+        sparse.put("far", 0, 0.0010);    // ~111 m
+
+        List<SpatialGrid.Neighbor> neighbors = sparse.nearestK(0, 0, 10, 0.1);
+
+        assertEquals(1, neighbors.size());
+        assertEquals("near", neighbors.get(0).getId());
+        assertTrue(sparse.nearestK(0, 0, 10, 0.05).isEmpty());
+        assertTrue(sparse.nearestK(0, 0, 0, 0.1).isEmpty());
+    }
+
+    @Test
+    public void nearestMatchesBruteForce() {
+        Random random = new Random(11);
+        for (int i = 0; i < 500; i++) {
+            double lat = random.nextDouble() * 0.12 - 0.06;
+            double lng = random.nextDouble() * 0.12 - 0.06;
+            for (double radiusKm : new double[] {0.02, 0.1, 0.5}) {
+                assertEquals("query " + lat + "," + lng + ", radius " + radiusKm,
+                        bruteForceNearest(lat, lng, radiusKm), grid.nearest(lat, lng, radiusKm));
+            }
+        }
+    }
+
+    @Test
+    public void nearestBreaksTiesByIdAndHonoursTheRadius() {
+        assertEquals("T1", grid.nearest(0.0123, -0.0211, 0.001));
+
+        SpatialGrid sparse = new SpatialGrid(CELL_SIZE_DEG);
+        sparse.put("far", -0.0010, 0);
+        assertNull(sparse.nearest(0, 0, 0.1));
+        assertEquals("far", sparse.nearest(0, 0, 0.12));
+    }
+
+    @Test
+    public void forEachInBoxMatchesBruteForce() {
+        for (double[] box : boxes()) {
+            Map<String, Point> expected = new HashMap<>();
+            for (Point p : points) {
+                if (inBox(p, box)) {
+                    expected.put(p.id, p);
+                }
+            }
+
+            Map<String, Point> actual = new HashMap<>();
+            grid.forEachInBox(box[0], box[1], box[2], box[3], (id, lat, lng) -> {
+                assertFalse("visited twice: " + id, actual.containsKey(id));
+                actual.put(id, new Point(id, lat, lng));
+            });
+
+            assertEquals(expected.keySet(), actual.keySet());
+        }
+    }
+
+    @Test
+    public void forEachCellInBoxMatchesBruteForce() {
+        for (double[] box : boxes()) {
+            Map<Long, double[]> expected = new HashMap<>();
+            for (Point p : points) {
+                if (inBox(p, box)) {
+                    long key = key(grid.cellIndex(p.lat), grid.cellIndex(p.lng));
+                    double[] totals = expected.computeIfAbsent(key, k -> new double[3]);
+                    totals[0]++;
+                    totals[1] += p.lat;
+                    totals[2] += p.lng;
+                }
+            }
+
+            Map<Long, double[]> actual = new HashMap<>();
+            grid.forEachCellInBox(box[0], box[1], box[2], box[3], (row, col, count, sumLat, sumLng) -> {
+                assertTrue(count > 0);
+                double[] previous = actual.put(key(row, col), new double[] {count, sumLat, sumLng});
+                assertNull("cell visited twice: " + row + "," + col, previous);
+            });
+
+            String where = "box " + box[0] + ".." + box[1] + ", " + box[2] + ".." + box[3];
+            assertEquals(where, expected.keySet(), actual.keySet());
+            for (Map.Entry<Long, double[]> entry : expected.entrySet()) {
+                double[] e = entry.getValue();
+                double[] a = actual.get(entry.getKey());
+                assertEquals(where, e[0], a[0], 0);
+                assertEquals(where, e[1], a[1], 1e-9);
+                assertEquals(where, e[2], a[2], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void putMovesAndRemoveDropsPoints() {
+        grid.put("P00000", -0.049, -0.049);
+        assertEquals("P00000", grid.nearest(-0.049, -0.049, 0.001));
+
+        assertTrue(grid.remove("P00000"));
+        assertFalse(grid.remove("P00000"));
+        assertFalse(grid.contains("P00000"));
+        assertEquals(points.size() - 1, grid.size());
+    }
+
+    /**
+     * Windows small enough to walk cell by cell and large enough to take the
+     * sparse path over occupied cells, with bounds on cell edges and below zero
+     */
+    private static List<double[]> boxes() {
+        List<double[]> boxes = new ArrayList<>();
+        boxes.add(new double[] {-0.01, 0.01, -0.01, 0.01});
+        boxes.add(new double[] {-CELL_SIZE_DEG * 3, -CELL_SIZE_DEG, CELL_SIZE_DEG, CELL_SIZE_DEG * 2});
+        boxes.add(new double[] {-0.0237, -0.0011, -0.0449, -0.0002});
+        boxes.add(new double[] {0.0123, 0.0123, -0.0211, -0.0211});
+        boxes.add(new double[] {-1, 1, -1, 1});
+        boxes.add(new double[] {-0.05, 0.05, -5, 5});
+
+        Random random = new Random(3);
+        for (int i = 0; i < 50; i++) {
+            double lat = random.nextDouble() * 0.1 - 0.05;
+            double lng = random.nextDouble() * 0.1 - 0.05;
+            boxes.add(new double[] {lat, lat + random.nextDouble() * 0.03, lng, lng + random.nextDouble() * 0.03});
+        }
+        return boxes;
+    }
+
+    private List<Point> bruteForceNearestK(double lat, double lng, int k, double radiusKm) {
+        double radiusDeg = radiusKm / KM_PER_DEGREE;
+        List<Point> within = new ArrayList<>();
+        for (Point p : points) {
+            if (projectedDistanceSquared(lat, lng, p) <= radiusDeg * radiusDeg) {
+                within.add(p);
+            }
+        }
+        within.sort((a, b) -> {
+            int byDistance = Double.compare(projectedDistanceSquared(lat, lng, a), projectedDistanceSquared(lat, lng, b));
+            return byDistance != 0 ? byDistance : a.id.compareTo(b.id);
+        });
+        return within.subList(0, Math.min(k, within.size()));
+    }
+
+    private String bruteForceNearest(double lat, double lng, double radiusKm) {
+        GeoUtil.RadiusKernel kernel = new GeoUtil.RadiusKernel(lat, lng, radiusKm);
+        String bestId = null;
+        double bestProximity = Double.POSITIVE_INFINITY;
+        for (Point p : points) {
+            double proximity = kernel.proximity(p.lat, p.lng);
+            if (proximity == Double.POSITIVE_INFINITY) {
+                continue;
+            }
+            if (proximity < bestProximity || (proximity == bestProximity && p.id.compareTo(bestId) < 0)) {
+                bestProximity = proximity;
+                bestId = p.id;
+            }
+        }
+        return bestId;
+    }
+
+    private static double projectedDistanceSquared(double lat, double lng, Point p) {
+        double dLat = p.lat - lat;
+        double dLng = (p.lng - lng) * Math.cos(Math.toRadians(lat));
+        return dLat * dLat + dLng * dLng;
+    }
+
+    private static boolean inBox(Point p, double[] box) {
+        return p.lat >= box[0] && p.lat <= box[1] && p.lng >= box[2] && p.lng <= box[3];
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) ^ (col & 0xFFFFFFFFL);
+    }
+
+    private void add(String id, double lat, double lng) {
+        grid.put(id, lat, lng);
+        points.add(new Point(id, lat, lng));
+    }
+
+    private static final class Point {
+        final String id;
+        final double lat;
+        final double lng;
+
+        Point(String id, double lat, double lng) {
+            this.id = id;
+            this.lat = lat;
+            this.lng = lng;
+        }
+    }
+}